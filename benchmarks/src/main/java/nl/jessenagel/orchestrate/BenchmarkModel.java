@@ -0,0 +1,134 @@
+package nl.jessenagel.orchestrate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generators for the models the benchmarks run on.
+ * The size of a model is the number of variables it has, rounded down to a rectangle for the transportation problem.
+ * The same size and seed always give the same model.
+ */
+public enum BenchmarkModel {
+    /**
+     * A transportation problem: ship goods from sources to sinks at minimum cost.
+     * Every source has a supply row and every sink a demand row, with a variable for every pair.
+     */
+    Transportation {
+        @Override
+        Instance build(int size, long seed) {
+            Random random = new Random(seed);
+            int sources = Math.max(1, (int) Math.sqrt(size));
+            int sinks = Math.max(1, size / sources);
+            Instance instance = new Instance(sources * sinks);
+            Orchestrate orchestrate = instance.orchestrate;
+            NumVar[][] flow = new NumVar[sources][sinks];
+            double[] costs = new double[sources * sinks];
+            for (int i = 0; i < sources; i++) {
+                for (int j = 0; j < sinks; j++) {
+                    flow[i][j] = orchestrate.numVar("x_" + i + "_" + j);
+                    costs[i * sinks + j] = 1 + random.nextInt(100);
+                    instance.variables[i * sinks + j] = flow[i][j];
+                }
+            }
+            int demand = 10;
+            int supply = (demand * sinks + sources - 1) / sources + 1;
+            for (int i = 0; i < sources; i++) {
+                instance.constraints.add(orchestrate.addLe(orchestrate.sum(flow[i]), orchestrate.constant(supply)));
+            }
+            for (int j = 0; j < sinks; j++) {
+                NumVar[] column = new NumVar[sources];
+                for (int i = 0; i < sources; i++) {
+                    column[i] = flow[i][j];
+                }
+                instance.constraints.add(orchestrate.addGe(orchestrate.sum(column), orchestrate.constant(demand)));
+            }
+            orchestrate.addMinimize(orchestrate.scalProd(costs, instance.variables));
+            return instance;
+        }
+    },
+    /**
+     * A knapsack problem: pick items of maximum total value without exceeding the capacity.
+     * A single row holding every variable.
+     */
+    Knapsack {
+        @Override
+        Instance build(int size, long seed) {
+            Random random = new Random(seed);
+            Instance instance = new Instance(size);
+            Orchestrate orchestrate = instance.orchestrate;
+            IntVar[] items = new IntVar[size];
+            int[] weights = new int[size];
+            int[] values = new int[size];
+            int totalWeight = 0;
+            for (int i = 0; i < size; i++) {
+                items[i] = orchestrate.boolVar("item_" + i);
+                instance.variables[i] = items[i];
+                weights[i] = 1 + random.nextInt(100);
+                values[i] = 1 + random.nextInt(100);
+                totalWeight += weights[i];
+            }
+            instance.constraints.add(orchestrate.addLe(orchestrate.scalProd(weights, items), orchestrate.constant(totalWeight / 2)));
+            orchestrate.addMaximize(orchestrate.scalProd(values, items));
+            return instance;
+        }
+    },
+    /**
+     * A set cover problem: pick sets of minimum total cost such that every element is covered.
+     * Every element has a row, and every set covers a few random elements and one fixed element, so the problem
+     * is always feasible.
+     */
+    SetCover {
+        @Override
+        Instance build(int size, long seed) {
+            Random random = new Random(seed);
+            int elements = Math.max(1, size / 2);
+            Instance instance = new Instance(size);
+            Orchestrate orchestrate = instance.orchestrate;
+            IntVar[] sets = new IntVar[size];
+            int[] costs = new int[size];
+            LinearExprBuilder[] covers = new LinearExprBuilder[elements];
+            for (int e = 0; e < elements; e++) {
+                covers[e] = orchestrate.linearExprBuilder();
+            }
+            for (int s = 0; s < size; s++) {
+                sets[s] = orchestrate.boolVar("set_" + s);
+                instance.variables[s] = sets[s];
+                costs[s] = 1 + random.nextInt(100);
+                covers[s % elements].addTerm(sets[s], 1.0);
+                for (int k = 0; k < 3; k++) {
+                    covers[random.nextInt(elements)].addTerm(sets[s], 1.0);
+                }
+            }
+            for (int e = 0; e < elements; e++) {
+                instance.constraints.add(orchestrate.addGe(covers[e], orchestrate.constant(1)));
+            }
+            orchestrate.addMinimize(orchestrate.scalProd(costs, sets));
+            return instance;
+        }
+    };
+
+    /**
+     * Builds a model.
+     *
+     * @param size The number of variables of the model.
+     * @param seed The seed of the random data.
+     * @return The model with its variables and constraints.
+     */
+    abstract Instance build(int size, long seed);
+
+    /**
+     * A generated model together with its variables and constraints, in the order they were created.
+     */
+    static final class Instance {
+        final Orchestrate orchestrate;
+        final NumVar[] variables;
+        final List<Constraint> constraints;
+
+        Instance(int numberOfVariables) {
+            this.orchestrate = new Orchestrate();
+            this.variables = new NumVar[numberOfVariables];
+            this.constraints = new ArrayList<>();
+        }
+    }
+}
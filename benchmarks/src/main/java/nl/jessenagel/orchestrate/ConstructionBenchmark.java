@@ -0,0 +1,46 @@
+package nl.jessenagel.orchestrate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building complete models, on one thread and on as many threads as there are processors, each thread
+ * building models of its own. Comparing the two shows how well independent models can be built concurrently,
+ * which suffers from any state that is shared between models.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+    @Param({"Transportation", "Knapsack", "SetCover"})
+    public BenchmarkModel model;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Benchmark
+    @Threads(1)
+    public Orchestrate buildSingleThreaded() {
+        return model.build(size, 1).orchestrate;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Orchestrate buildOnAllThreads() {
+        return model.build(size, 1).orchestrate;
+    }
+}
@@ -0,0 +1,76 @@
+package nl.jessenagel.orchestrate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing a model in LP and MPS format, to a stream that discards the output and to a file, with the
+ * LP constraints formatted on the calling thread or in parallel.
+ * The model is built once, so the timings cover the snapshot of the model and the formatting of the text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+    @Param({"Transportation", "Knapsack", "SetCover"})
+    public BenchmarkModel model;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"Lp", "Mps"})
+    public ModelFormat format;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Orchestrate orchestrate;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        orchestrate = model.build(size, 1).orchestrate;
+        orchestrate.setExportPool(parallel ? ForkJoinPool.commonPool() : null);
+        file = Files.createTempFile("orchestrate-benchmark", format.getExtension());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void exportToStream() throws IOException {
+        orchestrate.exportModel(OutputStream.nullOutputStream(), format);
+    }
+
+    @Benchmark
+    public void exportToFile() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            orchestrate.exportModel(channel, format);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package nl.jessenagel.orchestrate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building a constraint of many terms in the different ways the API offers.
+ * Chaining {@code sum} and {@code prod} builds a deep tree of {@link OrchSumExpr} that is flattened when the
+ * constraint is added, whereas the array methods and {@link LinearExprBuilder} accumulate the terms directly.
+ * Every invocation adds the constraint to a fresh model, so the timings do not depend on the number of invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int terms;
+
+    private double[] coefficients;
+    private Orchestrate orchestrate;
+    private NumVar[] vars;
+
+    @Setup(Level.Trial)
+    public void setUpCoefficients() {
+        Random random = new Random(1);
+        coefficients = new double[terms];
+        for (int i = 0; i < terms; i++) {
+            coefficients[i] = 1 + random.nextInt(100);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpModel() {
+        orchestrate = new Orchestrate();
+        vars = new NumVar[terms];
+        for (int i = 0; i < terms; i++) {
+            vars[i] = orchestrate.numVar("x_" + i);
+        }
+    }
+
+    /**
+     * Chains {@code sum(expr, prod(c, x))}, the pattern ported Concert code uses most.
+     */
+    @Benchmark
+    public Constraint chainedSumProd() {
+        NumExpr expr = orchestrate.constant(0.0);
+        for (int i = 0; i < terms; i++) {
+            expr = orchestrate.sum(expr, orchestrate.prod(coefficients[i], vars[i]));
+        }
+        return orchestrate.addLe(expr, orchestrate.constant(1.0));
+    }
+
+    /**
+     * Builds the same tree as {@link #chainedSumProd()} without adding it, to separate building from flattening.
+     */
+    @Benchmark
+    public NumExpr chainedSumProdBuildOnly() {
+        NumExpr expr = orchestrate.constant(0.0);
+        for (int i = 0; i < terms; i++) {
+            expr = orchestrate.sum(expr, orchestrate.prod(coefficients[i], vars[i]));
+        }
+        return expr;
+    }
+
+    @Benchmark
+    public Constraint scalProd() {
+        return orchestrate.addLe(orchestrate.scalProd(coefficients, vars), orchestrate.constant(1.0));
+    }
+
+    @Benchmark
+    public Constraint linearExprBuilder() {
+        LinearExprBuilder builder = orchestrate.linearExprBuilder(terms);
+        for (int i = 0; i < terms; i++) {
+            builder.addTerm(vars[i], coefficients[i]);
+        }
+        return orchestrate.addLe(builder, orchestrate.constant(1.0));
+    }
+}
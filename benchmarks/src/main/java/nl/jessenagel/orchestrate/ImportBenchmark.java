@@ -0,0 +1,85 @@
+package nl.jessenagel.orchestrate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks importing a HiGHS solution file, read as a stream and memory-mapped and parsed in parallel.
+ * The solution file is generated once with random values for every variable and constraint of the model,
+ * listed in reverse order so that every name has to be looked up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmark {
+    @Param({"Transportation", "SetCover"})
+    public BenchmarkModel model;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private Orchestrate orchestrate;
+    private Path file;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkModel.Instance instance = model.build(size, 1);
+        orchestrate = instance.orchestrate;
+        file = Files.createTempFile("orchestrate-benchmark", ".sol");
+        pool = new ForkJoinPool();
+        Random random = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("Model status\nOptimal\n\n# Primal solution values\nFeasible\nObjective 0\n");
+            writer.write("# Columns " + instance.variables.length + "\n");
+            for (int j = instance.variables.length - 1; j >= 0; j--) {
+                writer.write(instance.variables[j].getName() + " " + random.nextDouble() * 100 + "\n");
+            }
+            writer.write("# Rows " + instance.constraints.size() + "\n");
+            for (int row = instance.constraints.size() - 1; row >= 0; row--) {
+                writer.write(instance.constraints.get(row).getName() + " " + random.nextDouble() * 100 + "\n");
+            }
+            writer.write("\n# Dual solution values\nNone\n");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public double importStream() {
+        orchestrate.importSol(file.toString());
+        return orchestrate.getObjValue();
+    }
+
+    @Benchmark
+    public double importMapped() {
+        orchestrate.importSol(file.toString(), pool);
+        return orchestrate.getObjValue();
+    }
+}
@@ -0,0 +1,56 @@
+package nl.jessenagel.orchestrate;
+
+import nl.jessenagel.jhighs.HiGHS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks taking a snapshot of a model and loading a snapshot into a new HiGHS instance through JHiGHS,
+ * which is the part of {@link Orchestrate#solve()} before the solver starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"Transportation", "Knapsack", "SetCover"})
+    public BenchmarkModel model;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private Orchestrate orchestrate;
+    private ModelData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orchestrate = model.build(size, 1).orchestrate;
+        data = orchestrate.modelData();
+    }
+
+    @Benchmark
+    public ModelData snapshot() {
+        return orchestrate.modelData();
+    }
+
+    @Benchmark
+    public HiGHS load() {
+        HiGHS solver = new HiGHS();
+        Orchestrate.loadModel(solver, data);
+        return solver;
+    }
+}
@@ -0,0 +1,75 @@
+package nl.jessenagel.orchestrate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading a model in LP and MPS format into a new model, from memory and from a file.
+ * The file is written once by exporting a generated model, so the timings cover the parsing of the text and the
+ * creation of the variables and constraints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelImportBenchmark {
+    @Param({"Transportation", "Knapsack", "SetCover"})
+    public BenchmarkModel model;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"Lp", "Mps"})
+    public ModelFormat format;
+
+    private byte[] bytes;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        model.build(size, 1).orchestrate.exportModel(stream, format);
+        bytes = stream.toByteArray();
+        file = Files.createTempFile("orchestrate-benchmark", format.getExtension());
+        Files.write(file, bytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Orchestrate importStream() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        orchestrate.importModel(new ByteArrayInputStream(bytes), format);
+        return orchestrate;
+    }
+
+    @Benchmark
+    public Orchestrate importFile() {
+        Orchestrate orchestrate = new Orchestrate();
+        orchestrate.importModel(file);
+        return orchestrate;
+    }
+}
@@ -0,0 +1,66 @@
+package nl.jessenagel.orchestrate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the model file round trip of {@link Orchestrate#solveByExportingFile()}: writing the model and
+ * HiGHS reading it. HiGHS is run with a time limit of zero, so it stops right after reading the model instead of
+ * solving it. Requires the HiGHS binary on the PATH.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RoundTripBenchmark {
+    @Param({"Transportation", "SetCover"})
+    public BenchmarkModel model;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"Lp", "Mps"})
+    public ModelFormat format;
+
+    private Orchestrate orchestrate;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        orchestrate = model.build(size, 1).orchestrate;
+        file = Files.createTempFile("orchestrate-benchmark", format.getExtension());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int writeAndRead() throws IOException, InterruptedException {
+        orchestrate.exportModel(file.toString(), format);
+        Process process = new ProcessBuilder("highs", "--model_file", file.toString(), "--time_limit", "0")
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        return process.waitFor();
+    }
+}
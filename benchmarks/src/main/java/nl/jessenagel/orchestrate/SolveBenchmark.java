@@ -0,0 +1,82 @@
+package nl.jessenagel.orchestrate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks solving a transportation problem through JHiGHS and reading back its solution.
+ * The transportation problem is a pure LP, so the solve times stay reasonable at the larger sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+    @Param({"10000", "100000"})
+    public int size;
+
+    private Orchestrate orchestrate;
+    private NumVar[] variables;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkModel.Instance instance = BenchmarkModel.Transportation.build(size, 1);
+        orchestrate = instance.orchestrate;
+        variables = instance.variables;
+        orchestrate.solve();
+    }
+
+    /**
+     * Loads the model into a new HiGHS instance and solves it.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double solve() {
+        orchestrate.discardSolver();
+        orchestrate.solve();
+        return orchestrate.getObjValue();
+    }
+
+    /**
+     * Solves the model again in the HiGHS instance kept from the previous solve.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double resolve() {
+        orchestrate.solve();
+        return orchestrate.getObjValue();
+    }
+
+    @Benchmark
+    public double getValueLoop() {
+        double total = 0.0;
+        for (NumVar variable : variables) {
+            total += orchestrate.getValue(variable);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double[] getValuesOfArray() {
+        return orchestrate.getValues(variables);
+    }
+
+    @Benchmark
+    public double[] getAllValues() {
+        return orchestrate.getValues();
+    }
+}
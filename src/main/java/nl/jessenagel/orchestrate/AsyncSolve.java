@@ -0,0 +1,75 @@
+package nl.jessenagel.orchestrate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a solve on an executor and completes a future with its result.
+ * Cancelling the future interrupts the thread running the solve, which kills an external solver that is running.
+ * The interrupt only reaches the solve while it runs, it is never delivered to a later task of the same thread.
+ */
+final class AsyncSolve implements Runnable {
+    private final CompletableFuture<SolveResult> future;
+    private final Supplier<SolveResult> task;
+    private Thread runner;
+    private boolean interrupted;
+
+    private AsyncSolve(Supplier<SolveResult> task) {
+        this.future = new CompletableFuture<>();
+        this.task = task;
+    }
+
+    /**
+     * Submits a solve to an executor.
+     *
+     * @param executor The executor to run the solve on.
+     * @param task     The solve, returning its result.
+     * @return The future that completes with the result of the solve, or exceptionally with its exception.
+     */
+    static CompletableFuture<SolveResult> submit(Executor executor, Supplier<SolveResult> task) {
+        AsyncSolve solve = new AsyncSolve(task);
+        solve.future.whenComplete((result, exception) -> {
+            if (solve.future.isCancelled()) {
+                solve.interrupt();
+            }
+        });
+        try {
+            executor.execute(solve);
+        } catch (RejectedExecutionException e) {
+            solve.future.completeExceptionally(e);
+        }
+        return solve.future;
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (future.isDone()) {
+                return;
+            }
+            runner = Thread.currentThread();
+        }
+        try {
+            future.complete(task.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            synchronized (this) {
+                runner = null;
+                if (interrupted) {
+                    // Clear the interrupt of the cancellation, so the thread can be reused.
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    private synchronized void interrupt() {
+        if (runner != null) {
+            interrupted = true;
+            runner.interrupt();
+        }
+    }
+}
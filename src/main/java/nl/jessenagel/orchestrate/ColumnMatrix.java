@@ -0,0 +1,51 @@
+package nl.jessenagel.orchestrate;
+
+/**
+ * A column-major copy of a {@link ConstraintMatrix}, in compressed sparse column (CSC) format.
+ * Column j consists of the entries columnStarts[j] up to columnStarts[j + 1] of rowIndices and values,
+ * ordered by row. It is built with a counting sort in two passes over the rows, for writers that need the
+ * entries column by column.
+ */
+final class ColumnMatrix {
+    /**
+     * The position of the first entry of each column, followed by the number of entries.
+     */
+    final int[] columnStarts;
+
+    /**
+     * The row index of each entry.
+     */
+    final int[] rowIndices;
+
+    /**
+     * The coefficient of each entry.
+     */
+    final double[] values;
+
+    /**
+     * Transposes a constraint matrix.
+     *
+     * @param rows            The matrix to transpose.
+     * @param numberOfColumns The number of columns of the matrix.
+     */
+    ColumnMatrix(ConstraintMatrix rows, int numberOfColumns) {
+        this.columnStarts = new int[numberOfColumns + 1];
+        this.rowIndices = new int[rows.numberOfNonzeros];
+        this.values = new double[rows.numberOfNonzeros];
+        for (int k = 0; k < rows.numberOfNonzeros; k++) {
+            columnStarts[rows.columnIndices[k] + 1]++;
+        }
+        for (int j = 0; j < numberOfColumns; j++) {
+            columnStarts[j + 1] += columnStarts[j];
+        }
+        int[] next = new int[numberOfColumns];
+        System.arraycopy(columnStarts, 0, next, 0, numberOfColumns);
+        for (int row = 0; row < rows.numberOfRows; row++) {
+            for (int k = rows.rowStart(row); k < rows.rowEnd(row); k++) {
+                int position = next[rows.columnIndices[k]]++;
+                rowIndices[position] = row;
+                values[position] = rows.values[k];
+            }
+        }
+    }
+}
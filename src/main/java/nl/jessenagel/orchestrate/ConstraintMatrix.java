@@ -0,0 +1,228 @@
+package nl.jessenagel.orchestrate;
+
+import java.util.Arrays;
+
+/**
+ * Stores the constraints of a model as a sparse matrix in compressed sparse row (CSR) format.
+ * Row i consists of the entries rowStarts[i] up to rowStarts[i + 1] of columnIndices and values,
+ * and is bounded by rowLower[i] &lt;= sum(values * x[columnIndices]) &lt;= rowUpper[i].
+ * Infinite bounds are represented by {@link Double#NEGATIVE_INFINITY} and {@link Double#POSITIVE_INFINITY}.
+ * Rows are removed in two steps: {@link #removeRow(int)} only marks a row, and {@link #compact()} later drops all
+ * marked rows in a single pass, so removing many rows costs one pass over the matrix.
+ */
+final class ConstraintMatrix {
+    /**
+     * The number of rows in the matrix.
+     */
+    int numberOfRows;
+
+    /**
+     * The number of nonzero entries in the matrix.
+     */
+    int numberOfNonzeros;
+
+    /**
+     * The position of the first entry of each row, the last used element equals numberOfNonzeros.
+     */
+    int[] rowStarts;
+
+    /**
+     * The column index of each entry.
+     */
+    int[] columnIndices;
+
+    /**
+     * The coefficient of each entry.
+     */
+    double[] values;
+
+    /**
+     * The lower bound of each row.
+     */
+    double[] rowLower;
+
+    /**
+     * The upper bound of each row.
+     */
+    double[] rowUpper;
+
+    /**
+     * Whether each row is marked as removed.
+     */
+    boolean[] removed;
+
+    /**
+     * The number of rows marked as removed.
+     */
+    int numberOfRemovedRows;
+
+    /**
+     * Constructs a new, empty ConstraintMatrix.
+     */
+    ConstraintMatrix() {
+        this(16, 64);
+    }
+
+    /**
+     * Constructs a new, empty ConstraintMatrix with room for the given number of rows and nonzero entries.
+     *
+     * @param rowCapacity     The number of rows to make room for.
+     * @param nonzeroCapacity The number of nonzero entries to make room for.
+     */
+    ConstraintMatrix(int rowCapacity, int nonzeroCapacity) {
+        this.rowStarts = new int[rowCapacity + 1];
+        this.columnIndices = new int[nonzeroCapacity];
+        this.values = new double[nonzeroCapacity];
+        this.rowLower = new double[rowCapacity];
+        this.rowUpper = new double[rowCapacity];
+        this.removed = new boolean[rowCapacity];
+    }
+
+    /**
+     * Appends a row holding the terms of an accumulator.
+     *
+     * @param accumulator The accumulator holding the terms of the row.
+     * @param lower       The lower bound of the row.
+     * @param upper       The upper bound of the row.
+     * @return The index of the added row.
+     */
+    int addRow(TermAccumulator accumulator, double lower, double upper) {
+        int length = accumulator.size();
+        ensureRowCapacity(numberOfRows + 1);
+        ensureNonzeroCapacity(numberOfNonzeros + length);
+        for (int i = 0; i < length; i++) {
+            columnIndices[numberOfNonzeros + i] = accumulator.variable(i);
+            values[numberOfNonzeros + i] = accumulator.coefficient(i);
+        }
+        return finishRow(length, lower, upper);
+    }
+
+    /**
+     * Appends a row with the given terms.
+     *
+     * @param columns The column indices of the terms, without duplicates.
+     * @param coefs   The coefficients of the terms.
+     * @param length  The number of terms.
+     * @param lower   The lower bound of the row.
+     * @param upper   The upper bound of the row.
+     * @return The index of the added row.
+     */
+    int addRow(int[] columns, double[] coefs, int length, double lower, double upper) {
+        ensureRowCapacity(numberOfRows + 1);
+        ensureNonzeroCapacity(numberOfNonzeros + length);
+        System.arraycopy(columns, 0, columnIndices, numberOfNonzeros, length);
+        System.arraycopy(coefs, 0, values, numberOfNonzeros, length);
+        return finishRow(length, lower, upper);
+    }
+
+    private int finishRow(int length, double lower, double upper) {
+        int row = numberOfRows;
+        rowLower[row] = lower;
+        rowUpper[row] = upper;
+        numberOfNonzeros += length;
+        numberOfRows++;
+        rowStarts[numberOfRows] = numberOfNonzeros;
+        return row;
+    }
+
+    /**
+     * Gets the position of the first entry of a row.
+     *
+     * @param row The index of the row.
+     * @return The position of the first entry.
+     */
+    int rowStart(int row) {
+        return rowStarts[row];
+    }
+
+    /**
+     * Gets the position after the last entry of a row.
+     *
+     * @param row The index of the row.
+     * @return The position after the last entry.
+     */
+    int rowEnd(int row) {
+        return rowStarts[row + 1];
+    }
+
+    /**
+     * Appends all rows of another matrix.
+     *
+     * @param other The matrix holding the rows to append.
+     */
+    void append(ConstraintMatrix other) {
+        ensureRowCapacity(numberOfRows + other.numberOfRows);
+        ensureNonzeroCapacity(numberOfNonzeros + other.numberOfNonzeros);
+        System.arraycopy(other.columnIndices, 0, columnIndices, numberOfNonzeros, other.numberOfNonzeros);
+        System.arraycopy(other.values, 0, values, numberOfNonzeros, other.numberOfNonzeros);
+        System.arraycopy(other.rowLower, 0, rowLower, numberOfRows, other.numberOfRows);
+        System.arraycopy(other.rowUpper, 0, rowUpper, numberOfRows, other.numberOfRows);
+        for (int row = 1; row <= other.numberOfRows; row++) {
+            rowStarts[numberOfRows + row] = numberOfNonzeros + other.rowStarts[row];
+        }
+        numberOfRows += other.numberOfRows;
+        numberOfNonzeros += other.numberOfNonzeros;
+    }
+
+    /**
+     * Marks a row as removed. The row keeps its index until the matrix is compacted.
+     *
+     * @param row The index of the row.
+     */
+    void removeRow(int row) {
+        if (!removed[row]) {
+            removed[row] = true;
+            numberOfRemovedRows++;
+        }
+    }
+
+    /**
+     * Drops all rows marked as removed, moving the remaining rows up while keeping their order.
+     *
+     * @return The new index of every row, or -1 for a dropped row.
+     */
+    int[] compact() {
+        int[] newRows = new int[numberOfRows];
+        int row = 0;
+        int nonzeros = 0;
+        for (int oldRow = 0; oldRow < numberOfRows; oldRow++) {
+            if (removed[oldRow]) {
+                removed[oldRow] = false;
+                newRows[oldRow] = -1;
+                continue;
+            }
+            int start = rowStarts[oldRow];
+            int length = rowStarts[oldRow + 1] - start;
+            System.arraycopy(columnIndices, start, columnIndices, nonzeros, length);
+            System.arraycopy(values, start, values, nonzeros, length);
+            rowLower[row] = rowLower[oldRow];
+            rowUpper[row] = rowUpper[oldRow];
+            rowStarts[row] = nonzeros;
+            nonzeros += length;
+            newRows[oldRow] = row++;
+        }
+        rowStarts[row] = nonzeros;
+        numberOfRows = row;
+        numberOfNonzeros = nonzeros;
+        numberOfRemovedRows = 0;
+        return newRows;
+    }
+
+    private void ensureRowCapacity(int rows) {
+        if (rows > rowLower.length) {
+            int capacity = Math.max(rows, rowLower.length + (rowLower.length >> 1));
+            rowLower = Arrays.copyOf(rowLower, capacity);
+            rowUpper = Arrays.copyOf(rowUpper, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+            rowStarts = Arrays.copyOf(rowStarts, capacity + 1);
+        }
+    }
+
+    private void ensureNonzeroCapacity(int nonzeros) {
+        if (nonzeros > values.length) {
+            int capacity = Math.max(nonzeros, values.length + (values.length >> 1));
+            columnIndices = Arrays.copyOf(columnIndices, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+}
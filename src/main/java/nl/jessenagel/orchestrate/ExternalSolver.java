@@ -0,0 +1,124 @@
+package nl.jessenagel.orchestrate;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an external solver process.
+ * Standard output and standard error are drained concurrently, either by the operating system into log files
+ * or by two background threads into the logger, so a solver writing a lot to either stream never blocks.
+ * A run can be limited in time and cancelled from another thread, in both cases the process is killed.
+ */
+final class ExternalSolver {
+    private final List<String> command;
+    private final Logger logger;
+    private final File stdoutFile;
+    private final File stderrFile;
+    private final Duration timeout;
+    private volatile Process process;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a new ExternalSolver.
+     *
+     * @param command    The command to run.
+     * @param logger     The logger to write the output of the process to when it is not written to a file.
+     * @param stdoutFile The file to write the standard output to, or null to log it.
+     * @param stderrFile The file to write the standard error to, or null to log it.
+     * @param timeout    The maximum running time of the process, or null for no limit.
+     */
+    ExternalSolver(List<String> command, Logger logger, File stdoutFile, File stderrFile, Duration timeout) {
+        this.command = command;
+        this.logger = logger;
+        this.stdoutFile = stdoutFile;
+        this.stderrFile = stderrFile;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs the process and waits for it to finish.
+     *
+     * @return The exit code of the process.
+     * @throws IOException          If the process cannot be started.
+     * @throws InterruptedException If the calling thread is interrupted, the process is killed first.
+     * @throws OrchException        If the process exceeds the timeout or the run is cancelled.
+     */
+    int run() throws IOException, InterruptedException {
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        if (stdoutFile != null) {
+            processBuilder.redirectOutput(stdoutFile);
+        }
+        if (stderrFile != null) {
+            processBuilder.redirectError(stderrFile);
+        }
+        Process started = processBuilder.start();
+        this.process = started;
+        if (cancelled) {
+            started.destroyForcibly();
+        }
+        Thread stdoutDrain = stdoutFile == null ? drain(started.getInputStream(), false) : null;
+        Thread stderrDrain = stderrFile == null ? drain(started.getErrorStream(), true) : null;
+        try {
+            if (timeout == null) {
+                started.waitFor();
+            } else if (!started.waitFor(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                started.destroyForcibly().waitFor();
+                throw new OrchException("The solver did not finish within " + timeout);
+            }
+            if (stdoutDrain != null) {
+                stdoutDrain.join();
+            }
+            if (stderrDrain != null) {
+                stderrDrain.join();
+            }
+        } catch (InterruptedException e) {
+            started.destroyForcibly();
+            throw e;
+        } finally {
+            this.process = null;
+        }
+        if (cancelled) {
+            throw new OrchException("The solve was cancelled");
+        }
+        return started.exitValue();
+    }
+
+    /**
+     * Cancels the run, killing the process if it is running.
+     */
+    void cancel() {
+        cancelled = true;
+        Process running = process;
+        if (running != null) {
+            running.destroyForcibly();
+        }
+    }
+
+    private Thread drain(InputStream stream, boolean error) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (error) {
+                        logger.error("[STDERR] {}", line);
+                    } else {
+                        logger.info("[STDOUT] {}", line);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to read the output of the solver", e);
+            }
+        }, error ? "solver-stderr" : "solver-stdout");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
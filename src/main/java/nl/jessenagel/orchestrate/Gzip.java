@@ -0,0 +1,254 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Support for gzip-compressed model and solution files.
+ * Compressed input is recognized by the gzip magic bytes, so it does not depend on the name of the file.
+ * Compressed output is deflated on a separate thread, so formatting the text and compressing it overlap.
+ */
+final class Gzip {
+    /**
+     * The extension of gzip-compressed files.
+     */
+    static final String EXTENSION = ".gz";
+
+    /**
+     * The first two bytes of every gzip stream.
+     */
+    private static final int MAGIC_1 = 0x1f;
+    private static final int MAGIC_2 = 0x8b;
+
+    /**
+     * The size of the chunks handed to the compressing thread, and of the inflater and deflater buffers.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The number of chunks that can be in flight between the formatting and the compressing thread.
+     */
+    private static final int CHUNKS = 8;
+
+    private Gzip() {
+    }
+
+    /**
+     * Checks whether a file name ends with the gzip extension, ignoring case.
+     *
+     * @param fileName The name of the file.
+     * @return Whether the name ends with .gz.
+     */
+    static boolean hasExtension(String fileName) {
+        return fileName.regionMatches(true, fileName.length() - EXTENSION.length(), EXTENSION, 0, EXTENSION.length());
+    }
+
+    /**
+     * Removes the gzip extension from a file name.
+     *
+     * @param fileName The name of the file.
+     * @return The name without a trailing .gz.
+     */
+    static String stripExtension(String fileName) {
+        return hasExtension(fileName) ? fileName.substring(0, fileName.length() - EXTENSION.length()) : fileName;
+    }
+
+    /**
+     * Checks whether a file starts with the gzip magic bytes.
+     *
+     * @param path The file to check.
+     * @return Whether the file is gzip-compressed.
+     * @throws IOException If reading the file fails.
+     */
+    static boolean isCompressed(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == MAGIC_1 && in.read() == MAGIC_2;
+        }
+    }
+
+    /**
+     * Wraps an input stream so that gzip-compressed content is decompressed and other content is passed through.
+     *
+     * @param in The stream to read from.
+     * @return A stream of the decompressed content.
+     * @throws IOException If reading from the stream fails.
+     */
+    static InputStream decompress(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        int first = pushback.read();
+        int second = first == -1 ? -1 : pushback.read();
+        if (second != -1) {
+            pushback.unread(second);
+        }
+        if (first != -1) {
+            pushback.unread(first);
+        }
+        return first == MAGIC_1 && second == MAGIC_2 ? new GZIPInputStream(pushback, CHUNK_SIZE) : pushback;
+    }
+
+    /**
+     * Wraps an output stream so that everything written to it is gzip-compressed on a separate thread.
+     * Closing the returned stream finishes the compressed stream and closes the target stream.
+     *
+     * @param out The stream to write the compressed bytes to.
+     * @return A stream to write the uncompressed bytes to.
+     * @throws IOException If writing the gzip header fails.
+     */
+    static OutputStream compress(OutputStream out) throws IOException {
+        return new CompressingOutputStream(new FastGZIPOutputStream(out));
+    }
+
+    /**
+     * A gzip stream at the fastest compression level. Model files are repetitive enough that the fastest level
+     * still shrinks them severalfold, at a fraction of the time of the default level, which keeps the compressing
+     * thread about as fast as the formatting one.
+     */
+    private static final class FastGZIPOutputStream extends GZIPOutputStream {
+        FastGZIPOutputStream(OutputStream out) throws IOException {
+            super(out, CHUNK_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    /**
+     * Collects the bytes written into chunks and hands full chunks to a thread that writes them to a
+     * {@link GZIPOutputStream}. Chunks are recycled, so at most {@link #CHUNKS} of them are ever allocated.
+     */
+    private static final class CompressingOutputStream extends OutputStream {
+        /**
+         * The chunk marking the end of the stream.
+         */
+        private static final Chunk END = new Chunk();
+
+        private final GZIPOutputStream target;
+        private final BlockingQueue<Chunk> full;
+        private final BlockingQueue<Chunk> free;
+        private final Thread compressor;
+        private volatile IOException failure;
+        private Chunk current;
+        private boolean closed;
+
+        CompressingOutputStream(GZIPOutputStream target) {
+            this.target = target;
+            this.full = new ArrayBlockingQueue<>(CHUNKS + 1);
+            this.free = new ArrayBlockingQueue<>(CHUNKS);
+            for (int i = 0; i < CHUNKS; i++) {
+                free.add(new Chunk());
+            }
+            this.compressor = new Thread(this::compress, "orchestrate-gzip");
+            this.compressor.setDaemon(true);
+            this.compressor.start();
+            this.current = free.poll();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (current.length == current.bytes.length) {
+                handOff();
+            }
+            current.bytes[current.length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (current.length == current.bytes.length) {
+                    handOff();
+                }
+                int count = Math.min(len, current.bytes.length - current.length);
+                System.arraycopy(b, off, current.bytes, current.length, count);
+                current.length += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (current.length > 0) {
+                    full.put(current);
+                }
+                full.put(END);
+                compressor.join();
+            } catch (InterruptedException e) {
+                compressor.interrupt();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing");
+            } finally {
+                target.close();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Hands the current chunk to the compressing thread and takes a free one.
+         *
+         * @throws IOException If compressing an earlier chunk failed.
+         */
+        private void handOff() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            try {
+                full.put(current);
+                current = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing");
+            }
+            current.length = 0;
+        }
+
+        /**
+         * Writes the chunks to the gzip stream until the end is reached. After a failure the remaining chunks are
+         * still taken, so the writing thread never blocks on a full queue.
+         */
+        private void compress() {
+            try {
+                Chunk chunk;
+                while ((chunk = full.take()) != END) {
+                    if (failure == null) {
+                        try {
+                            target.write(chunk.bytes, 0, chunk.length);
+                        } catch (IOException e) {
+                            failure = e;
+                        }
+                    }
+                    free.put(chunk);
+                }
+                if (failure == null) {
+                    target.finish();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                failure = new InterruptedIOException("Interrupted while compressing");
+            }
+        }
+    }
+
+    /**
+     * A buffer of bytes and the number of them in use.
+     */
+    private static final class Chunk {
+        final byte[] bytes = new byte[CHUNK_SIZE];
+        int length;
+    }
+}
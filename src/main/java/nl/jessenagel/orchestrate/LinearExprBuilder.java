@@ -0,0 +1,341 @@
+package nl.jessenagel.orchestrate;
+
+import java.util.Arrays;
+
+/**
+ * A mutable linear expression backed by primitive arrays.
+ * Terms are appended in amortized constant time, which makes this the preferred way to build expressions
+ * with many terms instead of chaining {@link Orchestrate#sum(NumExpr, NumExpr)} calls.
+ * Calling {@link #build()} produces an {@link OrchNumExpr} whose variables are sorted by column index
+ * and in which duplicate variables have been merged.
+ */
+public class LinearExprBuilder implements NumExpr {
+    /**
+     * The number of bits sorted per radix pass.
+     */
+    private static final int RADIX_BITS = 11;
+
+    /**
+     * Below this number of terms an insertion sort is used instead of a radix sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * The name of the expression.
+     */
+    String name;
+
+    /**
+     * The counter of the model that created this builder, used to generate its name, or null.
+     */
+    OrchCounter counter;
+
+    /**
+     * The column indices of the terms, only the first numberOfTerms entries are used.
+     */
+    int[] variables;
+
+    /**
+     * The coefficients of the terms, only the first numberOfTerms entries are used.
+     */
+    double[] coefficients;
+
+    /**
+     * The number of terms currently stored.
+     */
+    int numberOfTerms;
+
+    /**
+     * The constant term of the expression.
+     */
+    double constant;
+
+    /**
+     * Whether the stored terms are sorted by column index and free of duplicates.
+     */
+    private boolean normalized = true;
+
+    /**
+     * Constructs a new empty LinearExprBuilder.
+     */
+    public LinearExprBuilder() {
+        this(16);
+    }
+
+    /**
+     * Constructs a new empty LinearExprBuilder with room for the given number of terms.
+     *
+     * @param expectedTerms The number of terms the builder is expected to hold.
+     */
+    public LinearExprBuilder(int expectedTerms) {
+        this.variables = new int[Math.max(expectedTerms, 1)];
+        this.coefficients = new double[Math.max(expectedTerms, 1)];
+        this.numberOfTerms = 0;
+        this.constant = 0.0;
+    }
+
+    /**
+     * Adds the term coef * var to the expression.
+     *
+     * @param var  The variable of the term.
+     * @param coef The coefficient of the term.
+     * @return This builder.
+     * @throws OrchException If the variable type is not supported.
+     */
+    public LinearExprBuilder addTerm(NumVar var, double coef) {
+        appendTerm(Orchestrate.indexOf(var), coef);
+        return this;
+    }
+
+    /**
+     * Adds the terms coefs[i] * vars[i] to the expression.
+     *
+     * @param vars  The variables of the terms.
+     * @param coefs The coefficients of the terms.
+     * @return This builder.
+     * @throws OrchException If the arrays differ in length or a variable type is not supported.
+     */
+    public LinearExprBuilder addTerms(NumVar[] vars, double[] coefs) {
+        if (vars.length != coefs.length) {
+            throw new OrchException("Length mismatch: " + vars.length + " variables and " + coefs.length + " coefficients");
+        }
+        ensureCapacity(numberOfTerms + vars.length);
+        for (int i = 0; i < vars.length; i++) {
+            appendTerm(Orchestrate.indexOf(vars[i]), coefs[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all terms and the constant of another expression to this expression.
+     *
+     * @param expr The expression to add.
+     * @return This builder.
+     * @throws OrchException If the expression type is not supported.
+     */
+    public LinearExprBuilder add(NumExpr expr) {
+        return add(1.0, expr);
+    }
+
+    /**
+     * Adds all terms and the constant of another expression, multiplied by a factor, to this expression.
+     *
+     * @param factor The factor to multiply the expression with.
+     * @param expr   The expression to add.
+     * @return This builder.
+     * @throws OrchException If the expression type is not supported.
+     */
+    public LinearExprBuilder add(double factor, NumExpr expr) {
+        if (expr instanceof OrchNumVar || expr instanceof OrchIntVar) {
+            appendTerm(Orchestrate.indexOf((NumVar) expr), factor);
+            return this;
+        }
+        if (expr == this) {
+            throw new OrchException("Cannot add a LinearExprBuilder to itself");
+        }
+        OrchNumExpr flat = expr instanceof OrchNumExpr expr_cast ? expr_cast : new OrchNumExpr(expr);
+        ensureCapacity(numberOfTerms + flat.numberOfVariables);
+        for (int i = 0; i < flat.numberOfVariables; i++) {
+            appendTerm(flat.variables[i], factor * flat.coefficients[i]);
+        }
+        constant += factor * flat.constant;
+        return this;
+    }
+
+    /**
+     * Adds a constant to the expression.
+     *
+     * @param value The constant to add.
+     * @return This builder.
+     */
+    public LinearExprBuilder addConstant(double value) {
+        constant += value;
+        return this;
+    }
+
+    /**
+     * Removes all terms and resets the constant to zero, keeping the allocated capacity.
+     *
+     * @return This builder.
+     */
+    public LinearExprBuilder clear() {
+        numberOfTerms = 0;
+        constant = 0.0;
+        normalized = true;
+        return this;
+    }
+
+    /**
+     * Gets the number of terms currently stored, before duplicate variables are merged.
+     *
+     * @return The number of terms.
+     */
+    public int size() {
+        return numberOfTerms;
+    }
+
+    /**
+     * Gets the constant term of the expression.
+     *
+     * @return The constant term.
+     */
+    public double getConstant() {
+        return constant;
+    }
+
+    /**
+     * Creates an immutable expression from the current state of this builder.
+     * The variables of the result are sorted by column index and duplicate variables are merged.
+     * The builder can be modified or cleared afterwards without affecting the result.
+     *
+     * @return The resulting numerical expression.
+     */
+    public OrchNumExpr build() {
+        normalize();
+        return new OrchNumExpr(Arrays.copyOf(variables, numberOfTerms), Arrays.copyOf(coefficients, numberOfTerms), constant);
+    }
+
+    /**
+     * Copies the normalized terms and the constant of this builder into the target expression.
+     *
+     * @param target The expression to populate.
+     */
+    void copyTo(OrchNumExpr target) {
+        normalize();
+        target.variables = Arrays.copyOf(variables, numberOfTerms);
+        target.coefficients = Arrays.copyOf(coefficients, numberOfTerms);
+        target.constant = constant;
+        target.numberOfVariables = numberOfTerms;
+    }
+
+    /**
+     * Sorts the stored terms by column index and merges duplicate variables in place.
+     */
+    void normalize() {
+        if (normalized) {
+            return;
+        }
+        if (numberOfTerms < INSERTION_SORT_THRESHOLD) {
+            insertionSort();
+        } else {
+            radixSort();
+        }
+        int last = 0;
+        for (int i = 1; i < numberOfTerms; i++) {
+            if (variables[i] == variables[last]) {
+                coefficients[last] += coefficients[i];
+            } else {
+                last++;
+                variables[last] = variables[i];
+                coefficients[last] = coefficients[i];
+            }
+        }
+        numberOfTerms = numberOfTerms == 0 ? 0 : last + 1;
+        normalized = true;
+    }
+
+    private void appendTerm(int index, double coef) {
+        if (numberOfTerms == variables.length) {
+            ensureCapacity(numberOfTerms + 1);
+        }
+        if (normalized && numberOfTerms > 0 && index <= variables[numberOfTerms - 1]) {
+            normalized = false;
+        }
+        variables[numberOfTerms] = index;
+        coefficients[numberOfTerms] = coef;
+        numberOfTerms++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > variables.length) {
+            int newCapacity = Math.max(capacity, variables.length + (variables.length >> 1));
+            variables = Arrays.copyOf(variables, newCapacity);
+            coefficients = Arrays.copyOf(coefficients, newCapacity);
+        }
+    }
+
+    private void insertionSort() {
+        for (int i = 1; i < numberOfTerms; i++) {
+            int index = variables[i];
+            double coef = coefficients[i];
+            int j = i - 1;
+            while (j >= 0 && variables[j] > index) {
+                variables[j + 1] = variables[j];
+                coefficients[j + 1] = coefficients[j];
+                j--;
+            }
+            variables[j + 1] = index;
+            coefficients[j + 1] = coef;
+        }
+    }
+
+    /**
+     * Stable least-significant-digit radix sort on the column indices, linear in the number of terms.
+     */
+    private void radixSort() {
+        int max = 0;
+        for (int i = 0; i < numberOfTerms; i++) {
+            max = Math.max(max, variables[i]);
+        }
+        int[] keys = variables;
+        double[] values = coefficients;
+        int[] keyBuffer = new int[keys.length];
+        double[] valueBuffer = new double[values.length];
+        int[] counts = new int[1 << RADIX_BITS];
+        int mask = (1 << RADIX_BITS) - 1;
+        for (int shift = 0; shift < 32 && (max >>> shift) != 0; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < numberOfTerms; i++) {
+                counts[(keys[i] >>> shift) & mask]++;
+            }
+            int offset = 0;
+            for (int b = 0; b < counts.length; b++) {
+                int count = counts[b];
+                counts[b] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < numberOfTerms; i++) {
+                int position = counts[(keys[i] >>> shift) & mask]++;
+                keyBuffer[position] = keys[i];
+                valueBuffer[position] = values[i];
+            }
+            int[] swapKeys = keys;
+            keys = keyBuffer;
+            keyBuffer = swapKeys;
+            double[] swapValues = values;
+            values = valueBuffer;
+            valueBuffer = swapValues;
+        }
+        variables = keys;
+        coefficients = values;
+    }
+
+    @Override
+    public void accept(NumExprVisitor visitor) {
+        visitor.visit(this);
+    }
+
+    /**
+     * Gets the name of the expression.
+     * A name is only generated when an unnamed builder is asked for it.
+     *
+     * @return The name of the expression.
+     */
+    @Override
+    public String getName() {
+        if (name == null) {
+            name = "LinearExpr_" + OrchCounter.nextVar(counter);
+        }
+        return name;
+    }
+
+    /**
+     * Sets the name of the expression.
+     *
+     * @param name The new name of the expression.
+     */
+    @Override
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,475 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a model file in CPLEX LP format.
+ * The lines are split into tokens in place: a name, a number, a sign, a relational operator or a colon.
+ * Section keywords are recognized at the start of a line. The objective and the constraints may span several
+ * lines, a bound takes one line. A constraint may be ranged, written as {@code lower <= expression <= upper}.
+ * Quadratic terms, semi-continuous variables and special ordered sets are not supported.
+ */
+final class LpReader extends ModelReader {
+    private static final int NONE = 0;
+    private static final int OBJECTIVE = 1;
+    private static final int CONSTRAINTS = 2;
+    private static final int BOUNDS = 3;
+    private static final int GENERALS = 4;
+    private static final int BINARIES = 5;
+    private static final int END = 6;
+
+    private static final int NAME = 1;
+    private static final int NUMBER = 2;
+    private static final int PLUS = 3;
+    private static final int MINUS = 4;
+    private static final int LE = 5;
+    private static final int GE = 6;
+    private static final int EQ = 7;
+    private static final int COLON = 8;
+    private static final int OTHER = 9;
+
+    private byte[] line;
+    private int length;
+    private int position;
+    private int tokenType;
+    private int tokenStart;
+    private int tokenEnd;
+
+    private TermAccumulator terms;
+
+    /**
+     * The state of the objective or constraint being read.
+     */
+    private boolean started;
+    private double sign;
+    private boolean haveNumber;
+    private double number;
+    private double constant;
+    private int relation;
+    private double valueSign;
+    private int prefixRelation;
+    private double prefixBound;
+    private byte[] label;
+    private int labelLength;
+
+    /**
+     * The values and names of a bound: a bound has at most five items.
+     */
+    private final int[] itemTypes = new int[5];
+    private final double[] itemValues = new double[5];
+    private final int[] itemStarts = new int[5];
+    private final int[] itemEnds = new int[5];
+
+    LpReader() {
+        this.label = new byte[64];
+        resetStatement();
+    }
+
+    @Override
+    void read(ModelInput input, TermAccumulator accumulator) throws IOException {
+        this.terms = accumulator;
+        int section = NONE;
+        while (input.readLine()) {
+            line = input.line;
+            length = input.length;
+            position = 0;
+            int keyword = keyword();
+            if (keyword != NONE) {
+                finishStatement(section);
+                section = keyword;
+                if (section == END) {
+                    return;
+                }
+            }
+            switch (section) {
+                case OBJECTIVE, CONSTRAINTS -> readExpression(section);
+                case BOUNDS -> readBound();
+                case GENERALS, BINARIES -> readTypes(section);
+                default -> {
+                    if (nextToken()) {
+                        throw error("expected a section keyword");
+                    }
+                }
+            }
+        }
+        finishStatement(section);
+    }
+
+    /**
+     * Reads a section keyword at the start of the line, leaving the position after it.
+     *
+     * @return The section started by the keyword, or NONE if the line does not start with one.
+     */
+    private int keyword() {
+        if (!nextToken() || tokenType != NAME) {
+            position = 0;
+            return NONE;
+        }
+        int from = tokenStart;
+        int to = tokenEnd;
+        int section = NONE;
+        if (equalsIgnoreCase(line, from, to, "minimize") || equalsIgnoreCase(line, from, to, "minimise")
+                || equalsIgnoreCase(line, from, to, "minimum") || equalsIgnoreCase(line, from, to, "min")) {
+            minimize = true;
+            section = OBJECTIVE;
+        } else if (equalsIgnoreCase(line, from, to, "maximize") || equalsIgnoreCase(line, from, to, "maximise")
+                || equalsIgnoreCase(line, from, to, "maximum") || equalsIgnoreCase(line, from, to, "max")) {
+            minimize = false;
+            section = OBJECTIVE;
+        } else if (equalsIgnoreCase(line, from, to, "st") || equalsIgnoreCase(line, from, to, "s.t.")) {
+            section = CONSTRAINTS;
+        } else if (equalsIgnoreCase(line, from, to, "subject") || equalsIgnoreCase(line, from, to, "such")) {
+            int after = position;
+            if (nextToken() && tokenType == NAME && (equalsIgnoreCase(line, tokenStart, tokenEnd, "to") || equalsIgnoreCase(line, tokenStart, tokenEnd, "that"))) {
+                section = CONSTRAINTS;
+            } else {
+                position = after;
+            }
+        } else if (equalsIgnoreCase(line, from, to, "bounds") || equalsIgnoreCase(line, from, to, "bound")) {
+            section = BOUNDS;
+        } else if (equalsIgnoreCase(line, from, to, "generals") || equalsIgnoreCase(line, from, to, "general")
+                || equalsIgnoreCase(line, from, to, "gen")) {
+            section = GENERALS;
+        } else if (equalsIgnoreCase(line, from, to, "binaries") || equalsIgnoreCase(line, from, to, "binary")
+                || equalsIgnoreCase(line, from, to, "bin")) {
+            section = BINARIES;
+        } else if (equalsIgnoreCase(line, from, to, "end")) {
+            section = END;
+        } else if (equalsIgnoreCase(line, from, to, "semi-continuous") || equalsIgnoreCase(line, from, to, "semis")
+                || equalsIgnoreCase(line, from, to, "semi") || equalsIgnoreCase(line, from, to, "sos")) {
+            throw error("section " + new String(line, from, to - from) + " is not supported");
+        }
+        if (section == NONE || followedByColon()) {
+            // Not a keyword, or a label that happens to be a keyword
+            position = 0;
+            return NONE;
+        }
+        return section;
+    }
+
+    /**
+     * Reads the tokens of a line of the objective or the constraints.
+     */
+    private void readExpression(int section) {
+        while (nextToken()) {
+            switch (tokenType) {
+                case NAME -> {
+                    if (followedByColon()) {
+                        if (started) {
+                            throw error("label inside an expression");
+                        }
+                        setLabel();
+                        position = skipWhitespace(position) + 1;
+                    } else if (relation != NONE) {
+                        completeConstraint(number(line, tokenStart, tokenEnd));
+                    } else {
+                        double coefficient = haveNumber ? number : 1.0;
+                        terms.add(column(line, tokenStart, tokenEnd - tokenStart), sign * coefficient);
+                        started = true;
+                        sign = 1.0;
+                        haveNumber = false;
+                    }
+                }
+                case NUMBER -> {
+                    double value = number(line, tokenStart, tokenEnd);
+                    if (relation != NONE) {
+                        completeConstraint(value);
+                    } else {
+                        flushNumber();
+                        haveNumber = true;
+                        number = value;
+                        started = true;
+                    }
+                }
+                case PLUS, MINUS -> {
+                    double factor = tokenType == MINUS ? -1.0 : 1.0;
+                    if (relation != NONE) {
+                        valueSign *= factor;
+                    } else {
+                        flushNumber();
+                        sign *= factor;
+                        started = true;
+                    }
+                }
+                case LE, GE, EQ -> {
+                    if (section != CONSTRAINTS) {
+                        throw error("relational operator in the objective");
+                    }
+                    if (relation != NONE) {
+                        throw error("unexpected relational operator");
+                    }
+                    boolean onlyConstant = haveNumber && terms.size() == 0;
+                    flushNumber();
+                    if (onlyConstant && prefixRelation == NONE) {
+                        // The lower or upper bound of a ranged constraint
+                        prefixRelation = tokenType;
+                        prefixBound = constant;
+                        constant = 0.0;
+                    } else {
+                        relation = tokenType;
+                        valueSign = 1.0;
+                    }
+                    started = true;
+                }
+                default -> {
+                    if (line[tokenStart] == '[') {
+                        throw error("quadratic terms are not supported");
+                    }
+                    throw error("unexpected character " + (char) line[tokenStart]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the constraint being read, now that its right-hand side is known.
+     */
+    private void completeConstraint(double value) {
+        double bound = valueSign * value - constant;
+        double lower = relation == LE ? Double.NEGATIVE_INFINITY : bound;
+        double upper = relation == GE ? Double.POSITIVE_INFINITY : bound;
+        if (prefixRelation != NONE) {
+            double prefix = prefixBound - constant;
+            if (prefixRelation != GE) {
+                lower = Math.max(lower, prefix);
+            }
+            if (prefixRelation != LE) {
+                upper = Math.min(upper, prefix);
+            }
+        }
+        rows.addRow(terms, lower, upper);
+        rowNames.add(label, 0, labelLength);
+        resetStatement();
+    }
+
+    /**
+     * Finishes the objective or constraint being read when a section ends.
+     */
+    private void finishStatement(int section) {
+        if (section == OBJECTIVE) {
+            flushNumber();
+            for (int i = 0; i < terms.size(); i++) {
+                objective[terms.variable(i)] += terms.coefficient(i);
+            }
+            objectiveOffset += constant;
+            if (labelLength > 0) {
+                objectiveName = new String(label, 0, labelLength);
+            }
+        } else if (section == CONSTRAINTS && (started || labelLength > 0)) {
+            throw error("incomplete constraint");
+        }
+        resetStatement();
+    }
+
+    private void flushNumber() {
+        if (haveNumber) {
+            constant += sign * number;
+            sign = 1.0;
+            haveNumber = false;
+        }
+    }
+
+    private void resetStatement() {
+        started = false;
+        sign = 1.0;
+        haveNumber = false;
+        constant = 0.0;
+        relation = NONE;
+        prefixRelation = NONE;
+        labelLength = 0;
+        if (terms != null) {
+            terms.clear();
+        }
+    }
+
+    private void setLabel() {
+        labelLength = tokenEnd - tokenStart;
+        if (labelLength > label.length) {
+            label = Arrays.copyOf(label, labelLength);
+        }
+        System.arraycopy(line, tokenStart, label, 0, labelLength);
+    }
+
+    /**
+     * Reads a bound, one of {@code x free}, {@code x op value}, {@code value op x} and {@code value op x op value}.
+     */
+    private void readBound() {
+        int items = 0;
+        double valueSign = 1.0;
+        while (nextToken()) {
+            if (items == itemTypes.length) {
+                throw error("invalid bound");
+            }
+            switch (tokenType) {
+                case PLUS, MINUS -> {
+                    valueSign *= tokenType == MINUS ? -1.0 : 1.0;
+                    continue;
+                }
+                case NUMBER -> {
+                    itemTypes[items] = NUMBER;
+                    itemValues[items] = valueSign * number(line, tokenStart, tokenEnd);
+                }
+                case NAME -> {
+                    if (equalsIgnoreCase(line, tokenStart, tokenEnd, "inf") || equalsIgnoreCase(line, tokenStart, tokenEnd, "infinity")) {
+                        itemTypes[items] = NUMBER;
+                        itemValues[items] = valueSign * Double.POSITIVE_INFINITY;
+                    } else if (items == 1 && itemTypes[0] == NAME && equalsIgnoreCase(line, tokenStart, tokenEnd, "free")) {
+                        itemTypes[items] = OTHER;
+                    } else {
+                        itemTypes[items] = NAME;
+                        itemStarts[items] = tokenStart;
+                        itemEnds[items] = tokenEnd;
+                    }
+                }
+                case LE, GE, EQ -> itemTypes[items] = tokenType;
+                default -> throw error("invalid bound");
+            }
+            valueSign = 1.0;
+            items++;
+        }
+        if (items == 0) {
+            return;
+        }
+        if (items == 2 && itemTypes[1] == OTHER) {
+            int column = boundColumn(0);
+            columnLower[column] = Double.NEGATIVE_INFINITY;
+            columnUpper[column] = Double.POSITIVE_INFINITY;
+        } else if (items == 3 && itemTypes[0] == NAME && isRelation(1) && itemTypes[2] == NUMBER) {
+            setBound(boundColumn(0), itemTypes[1], itemValues[2]);
+        } else if (items == 3 && itemTypes[0] == NUMBER && isRelation(1) && itemTypes[2] == NAME) {
+            setBound(boundColumn(2), flip(itemTypes[1]), itemValues[0]);
+        } else if (items == 5 && itemTypes[0] == NUMBER && isRelation(1) && itemTypes[2] == NAME && isRelation(3) && itemTypes[4] == NUMBER) {
+            int column = boundColumn(2);
+            setBound(column, flip(itemTypes[1]), itemValues[0]);
+            setBound(column, itemTypes[3], itemValues[4]);
+        } else {
+            throw error("invalid bound");
+        }
+    }
+
+    private int boundColumn(int item) {
+        return column(line, itemStarts[item], itemEnds[item] - itemStarts[item]);
+    }
+
+    private boolean isRelation(int item) {
+        return itemTypes[item] == LE || itemTypes[item] == GE || itemTypes[item] == EQ;
+    }
+
+    private static int flip(int relation) {
+        return relation == LE ? GE : relation == GE ? LE : EQ;
+    }
+
+    /**
+     * Sets the bound of a column given as {@code column relation value}.
+     */
+    private void setBound(int column, int relation, double value) {
+        if (relation != GE) {
+            columnUpper[column] = value;
+        }
+        if (relation != LE) {
+            columnLower[column] = value;
+        }
+    }
+
+    /**
+     * Reads the names of a Generals or Binaries section.
+     */
+    private void readTypes(int section) {
+        while (nextToken()) {
+            if (tokenType != NAME) {
+                throw error("expected a variable name");
+            }
+            int column = column(line, tokenStart, tokenEnd - tokenStart);
+            if (section == BINARIES) {
+                columnTypes[column] = ModelData.BINARY;
+                columnLower[column] = 0.0;
+                columnUpper[column] = 1.0;
+            } else {
+                columnTypes[column] = ModelData.INTEGER;
+            }
+        }
+    }
+
+    /**
+     * Reads the next token of the line.
+     *
+     * @return Whether a token was read, false at the end of the line or at a comment.
+     */
+    private boolean nextToken() {
+        int i = skipWhitespace(position);
+        if (i == length || line[i] == '\\') {
+            position = length;
+            return false;
+        }
+        tokenStart = i;
+        byte c = line[i];
+        if ((c >= '0' && c <= '9') || (c == '.' && i + 1 < length && line[i + 1] >= '0' && line[i + 1] <= '9')) {
+            i = skipNumber(i);
+            tokenType = NUMBER;
+        } else if (c == '+') {
+            i++;
+            tokenType = PLUS;
+        } else if (c == '-') {
+            i++;
+            tokenType = MINUS;
+        } else if (c == ':') {
+            i++;
+            tokenType = COLON;
+        } else if (c == '<' || c == '>' || c == '=') {
+            i++;
+            if (i < length && (line[i] == '=' || (c == '=' && (line[i] == '<' || line[i] == '>')))) {
+                c = c == '=' ? line[i] : c;
+                i++;
+            }
+            tokenType = c == '<' ? LE : c == '>' ? GE : EQ;
+        } else if (isNameByte(c)) {
+            while (i < length && isNameByte(line[i])) {
+                i++;
+            }
+            tokenType = NAME;
+        } else {
+            i++;
+            tokenType = OTHER;
+        }
+        tokenEnd = i;
+        position = i;
+        return true;
+    }
+
+    private int skipNumber(int i) {
+        while (i < length && ((line[i] >= '0' && line[i] <= '9') || line[i] == '.')) {
+            i++;
+        }
+        if (i < length && (line[i] == 'e' || line[i] == 'E')) {
+            int exponent = i + 1;
+            if (exponent < length && (line[exponent] == '+' || line[exponent] == '-')) {
+                exponent++;
+            }
+            if (exponent < length && line[exponent] >= '0' && line[exponent] <= '9') {
+                i = exponent;
+                while (i < length && line[i] >= '0' && line[i] <= '9') {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private int skipWhitespace(int i) {
+        while (i < length && (line[i] == ' ' || line[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean followedByColon() {
+        int i = skipWhitespace(position);
+        return i < length && line[i] == ':';
+    }
+
+    private static boolean isNameByte(byte c) {
+        return c > ' ' && c != '+' && c != '-' && c != '<' && c != '>' && c != '=' && c != ':' && c != '\\'
+                && c != '[' && c != ']' && c != '^' && c != '*';
+    }
+}
@@ -0,0 +1,255 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes a model snapshot in CPLEX LP format.
+ * All numbers come from the primitive arrays of a {@link ModelData} and are formatted straight into a
+ * {@link ModelOutput}, so no intermediate expressions or strings are created per term.
+ */
+final class LpWriter extends ModelWriter {
+    /**
+     * The number of terms written on a line before the expression continues on the next line.
+     */
+    private static final int TERMS_PER_LINE = 8;
+
+    /**
+     * The number of rows formatted together when the constraints are written in parallel.
+     */
+    private static final int CHUNK_SIZE = 16384;
+
+    /**
+     * The number of chunks per thread of the pool that are formatted ahead of the chunk being written.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The estimated number of bytes written for the name and relation of a row and for each entry of a row, used to
+     * size the buffer of a chunk.
+     */
+    private static final int BYTES_PER_ROW = 32;
+    private static final int BYTES_PER_ENTRY = 16;
+
+    /**
+     * Constructs a new LpWriter.
+     *
+     * @param data        The model snapshot to write.
+     * @param variables   The variables of the model, indexed by column.
+     * @param constraints The constraints of the model, indexed by row.
+     */
+    LpWriter(ModelData data, List<NumVar> variables, List<Constraint> constraints) {
+        this(data, variables, constraints, null, null);
+    }
+
+    /**
+     * Constructs a new LpWriter for a reduced model snapshot.
+     *
+     * @param data        The reduced model snapshot to write.
+     * @param variables   The variables of the original model, indexed by original column.
+     * @param constraints The constraints of the original model, indexed by original row.
+     * @param columnIds   The original column of each column of the snapshot, or null if they are the same.
+     * @param rowIds      The original row of each row of the snapshot, or null if they are the same.
+     */
+    LpWriter(ModelData data, List<NumVar> variables, List<Constraint> constraints, int[] columnIds, int[] rowIds) {
+        super(data, variables, constraints, columnIds, rowIds);
+    }
+
+    @Override
+    void write(ModelOutput out) throws IOException {
+        writeObjective(out);
+        writeConstraints(out);
+        writeBounds(out);
+        writeColumnSection(out, "Generals\n", ModelData.INTEGER);
+        writeColumnSection(out, "Binaries\n", ModelData.BINARY);
+        out.writeAscii("End\n");
+        out.flush();
+    }
+
+    private void writeObjective(ModelOutput out) throws IOException {
+        out.writeAscii(data.minimize ? "Minimize\n obj: " : "Maximize\n obj: ");
+        int count = 0;
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            if (data.objective[j] != 0) {
+                writeTerm(out, data.objective[j], j, count++);
+            }
+        }
+        if (data.objectiveOffset != 0) {
+            out.writeAscii(data.objectiveOffset > 0 ? "+ " : "- ");
+            out.writeDouble(Math.abs(data.objectiveOffset));
+        }
+        out.writeByte('\n');
+    }
+
+    private void writeConstraints(ModelOutput out) throws IOException {
+        out.writeAscii("Subject To\n");
+        if (pool == null || data.rows.numberOfRows <= CHUNK_SIZE) {
+            writeRows(out, 0, data.rows.numberOfRows);
+        } else {
+            writeRowsInParallel(out);
+        }
+    }
+
+    /**
+     * Formats chunks of rows into memory on the pool and writes them in order as they complete.
+     * At most a few chunks per thread of the pool are formatted ahead of the one being written, which bounds the
+     * memory held by formatted chunks. Every row is written independently of the others, so the output is the same
+     * as when the rows are written on the calling thread.
+     *
+     * @param out The output to write to.
+     * @throws IOException If writing to the output fails.
+     */
+    private void writeRowsInParallel(ModelOutput out) throws IOException {
+        int numberOfRows = data.rows.numberOfRows;
+        int numberOfChunks = (numberOfRows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int window = Math.max(2, pool.getParallelism() * CHUNKS_PER_THREAD);
+        List<ForkJoinTask<ModelOutput>> chunks = new ArrayList<>(numberOfChunks);
+        try {
+            for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+                while (chunks.size() < Math.min(numberOfChunks, chunk + window)) {
+                    int from = chunks.size() * CHUNK_SIZE;
+                    int to = Math.min(from + CHUNK_SIZE, numberOfRows);
+                    chunks.add(pool.submit(() -> formatRows(from, to)));
+                }
+                out.write(chunks.get(chunk).join());
+                // Release the formatted bytes once they are written
+                chunks.set(chunk, null);
+            }
+        } finally {
+            for (ForkJoinTask<ModelOutput> chunk : chunks) {
+                if (chunk != null) {
+                    chunk.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats a range of rows into memory.
+     *
+     * @param from The first row.
+     * @param to   The row after the last row.
+     * @return The formatted rows.
+     * @throws IOException Never, as the rows are formatted into memory.
+     */
+    private ModelOutput formatRows(int from, int to) throws IOException {
+        ConstraintMatrix rows = data.rows;
+        ModelOutput part = new ModelOutput(BYTES_PER_ROW * (to - from) + BYTES_PER_ENTRY * (rows.rowStart(to) - rows.rowStart(from)));
+        writeRows(part, from, to);
+        return part;
+    }
+
+    private void writeRows(ModelOutput out, int from, int to) throws IOException {
+        ConstraintMatrix rows = data.rows;
+        for (int row = from; row < to; row++) {
+            double lower = rows.rowLower[row];
+            double upper = rows.rowUpper[row];
+            int start = rows.rowStart(row);
+            int end = rows.rowEnd(row);
+            if (start == end && data.numberOfColumns == 0) {
+                continue;
+            }
+            out.writeByte(' ');
+            writeRowName(out, row);
+            out.writeAscii(": ");
+            boolean ranged = lower != upper && lower != Double.NEGATIVE_INFINITY && upper != Double.POSITIVE_INFINITY;
+            if (ranged) {
+                out.writeDouble(lower);
+                out.writeAscii(" <= ");
+            }
+            if (start == end) {
+                // The format requires at least one term, an empty row is written with a zero coefficient.
+                out.writeAscii("0 ");
+                writeColumnName(out, 0);
+                out.writeByte(' ');
+            }
+            for (int k = start; k < end; k++) {
+                writeTerm(out, rows.values[k], rows.columnIndices[k], k - start);
+            }
+            if (lower == upper) {
+                out.writeAscii("= ");
+                out.writeDouble(upper);
+            } else if (lower == Double.NEGATIVE_INFINITY) {
+                out.writeAscii("<= ");
+                out.writeDouble(upper);
+            } else if (upper == Double.POSITIVE_INFINITY) {
+                out.writeAscii(">= ");
+                out.writeDouble(lower);
+            } else {
+                out.writeAscii("<= ");
+                out.writeDouble(upper);
+            }
+            out.writeByte('\n');
+        }
+    }
+
+    private void writeBounds(ModelOutput out) throws IOException {
+        out.writeAscii("Bounds\n");
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            double lower = data.columnLower[j];
+            double upper = data.columnUpper[j];
+            if (isBinary(j) || (lower == 0 && upper == Double.POSITIVE_INFINITY)) {
+                continue;
+            }
+            out.writeByte(' ');
+            if (lower == upper) {
+                writeColumnName(out, j);
+                out.writeAscii(" = ");
+                out.writeDouble(upper);
+            } else if (lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY) {
+                writeColumnName(out, j);
+                out.writeAscii(" free");
+            } else if (upper == Double.POSITIVE_INFINITY) {
+                writeColumnName(out, j);
+                out.writeAscii(" >= ");
+                out.writeDouble(lower);
+            } else if (lower == 0) {
+                writeColumnName(out, j);
+                out.writeAscii(" <= ");
+                out.writeDouble(upper);
+            } else {
+                out.writeDouble(lower);
+                out.writeAscii(" <= ");
+                writeColumnName(out, j);
+                out.writeAscii(" <= ");
+                out.writeDouble(upper);
+            }
+            out.writeByte('\n');
+        }
+    }
+
+    private void writeColumnSection(ModelOutput out, String header, byte type) throws IOException {
+        boolean first = true;
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            byte columnType = data.columnTypes[j];
+            boolean matches = type == ModelData.BINARY ? isBinary(j) : columnType != ModelData.CONTINUOUS && !isBinary(j);
+            if (!matches) {
+                continue;
+            }
+            if (first) {
+                out.writeAscii(header);
+                first = false;
+            }
+            out.writeByte(' ');
+            writeColumnName(out, j);
+            out.writeByte('\n');
+        }
+    }
+
+    private void writeTerm(ModelOutput out, double coefficient, int column, int position) throws IOException {
+        if (position > 0 && position % TERMS_PER_LINE == 0) {
+            out.writeAscii("\n ");
+        }
+        if (coefficient < 0) {
+            out.writeAscii("- ");
+        } else if (position > 0) {
+            out.writeAscii("+ ");
+        }
+        out.writeDouble(Math.abs(coefficient));
+        out.writeByte(' ');
+        writeColumnName(out, column);
+        out.writeByte(' ');
+    }
+}
@@ -0,0 +1,79 @@
+package nl.jessenagel.orchestrate;
+
+/**
+ * A column-oriented snapshot of a model, holding the column bounds and types, the dense objective
+ * and the constraint matrix in primitive arrays.
+ * This is the representation that is handed to solvers and writers, so they do not have to
+ * walk the variables, expressions and constraints of the model themselves.
+ */
+final class ModelData {
+    /**
+     * Column type of a continuous variable.
+     */
+    static final byte CONTINUOUS = 0;
+
+    /**
+     * Column type of a general integer variable.
+     */
+    static final byte INTEGER = 1;
+
+    /**
+     * Column type of a binary variable.
+     */
+    static final byte BINARY = 2;
+
+    /**
+     * The number of columns in the model.
+     */
+    int numberOfColumns;
+
+    /**
+     * The lower bound of each column, {@link Double#NEGATIVE_INFINITY} if the column has none.
+     */
+    double[] columnLower;
+
+    /**
+     * The upper bound of each column, {@link Double#POSITIVE_INFINITY} if the column has none.
+     */
+    double[] columnUpper;
+
+    /**
+     * The type of each column, one of {@link #CONTINUOUS}, {@link #INTEGER} and {@link #BINARY}.
+     */
+    byte[] columnTypes;
+
+    /**
+     * The objective coefficient of each column.
+     */
+    double[] objective;
+
+    /**
+     * The constant term of the objective.
+     */
+    double objectiveOffset;
+
+    /**
+     * Whether the objective is minimized, otherwise it is maximized.
+     */
+    boolean minimize;
+
+    /**
+     * The constraint matrix of the model.
+     */
+    ConstraintMatrix rows;
+
+    /**
+     * Constructs a new ModelData with room for the given number of columns.
+     *
+     * @param numberOfColumns The number of columns.
+     * @param rows            The constraint matrix.
+     */
+    ModelData(int numberOfColumns, ConstraintMatrix rows) {
+        this.numberOfColumns = numberOfColumns;
+        this.columnLower = new double[numberOfColumns];
+        this.columnUpper = new double[numberOfColumns];
+        this.columnTypes = new byte[numberOfColumns];
+        this.objective = new double[numberOfColumns];
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,42 @@
+package nl.jessenagel.orchestrate;
+
+/**
+ * The file formats a model can be exported in.
+ */
+public enum ModelFormat {
+    /**
+     * The CPLEX LP format, which writes the model row by row as readable expressions.
+     */
+    Lp(".lp"),
+    /**
+     * The free MPS format, which writes the model column by column. It is faster to write and to read for
+     * large models.
+     */
+    Mps(".mps");
+
+    private final String extension;
+
+    ModelFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the file extension of the format.
+     *
+     * @return The extension, including the leading dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Gets the format of a model file from the extension of its name, ignoring a trailing .gz of a compressed file.
+     *
+     * @param fileName The name of the file.
+     * @return {@link #Mps} if the name ends with .mps or .mps.gz, ignoring case, otherwise {@link #Lp}.
+     */
+    public static ModelFormat fromFileName(String fileName) {
+        fileName = Gzip.stripExtension(fileName);
+        return fileName.regionMatches(true, fileName.length() - Mps.extension.length(), Mps.extension, 0, Mps.extension.length()) ? Mps : Lp;
+    }
+}
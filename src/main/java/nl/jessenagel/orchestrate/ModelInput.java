@@ -0,0 +1,100 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * A buffered line reader for model files, the counterpart of {@link ModelOutput}.
+ * Every line is copied into a reusable byte array without its line terminator, so reading a file does not
+ * create a String per line or per token. Line terminators may be "\n" or "\r\n".
+ */
+final class ModelInput {
+    /**
+     * The size of the read buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    /**
+     * The bytes of the current line, valid up to {@link #length}.
+     */
+    byte[] line;
+
+    /**
+     * The number of bytes of the current line.
+     */
+    int length;
+
+    /**
+     * The number of the current line, starting at 1.
+     */
+    int lineNumber;
+
+    /**
+     * Constructs a new ModelInput reading from an input stream.
+     *
+     * @param in The stream to read from.
+     */
+    ModelInput(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.line = new byte[256];
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return Whether a line was read, false at the end of the stream.
+     * @throws IOException If reading from the stream fails.
+     */
+    boolean readLine() throws IOException {
+        length = 0;
+        boolean any = false;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (any) {
+                        stripCarriageReturn();
+                        lineNumber++;
+                    }
+                    return any;
+                }
+            }
+            any = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++;
+                stripCarriageReturn();
+                lineNumber++;
+                return true;
+            }
+        }
+    }
+
+    private void stripCarriageReturn() {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+    }
+
+    private void append(int from, int to) {
+        int count = to - from;
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(length + count, line.length * 2));
+        }
+        System.arraycopy(buffer, from, line, length, count);
+        length += count;
+    }
+}
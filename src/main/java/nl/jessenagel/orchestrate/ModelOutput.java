@@ -0,0 +1,312 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A buffered byte sink for writing model files.
+ * Text is collected in a large reusable buffer and numbers are formatted directly into it, so writing a term
+ * does not allocate. Doubles are written in the shortest decimal notation that reads back to the same value.
+ * The buffer is drained to either an {@link OutputStream} or a {@link WritableByteChannel}, or, for an output
+ * collecting a part of a file in memory, grown to hold everything written.
+ */
+final class ModelOutput {
+    /**
+     * The size of the buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The largest number of fraction digits tried before falling back to {@link Double#toString(double)}.
+     */
+    private static final int MAX_FRACTION_DIGITS = 17;
+
+    /**
+     * Doubles below 2^53 in magnitude represent every integer exactly.
+     */
+    private static final double EXACT_INTEGER_LIMIT = 9007199254740992.0;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[MAX_FRACTION_DIGITS + 1];
+
+    private static final long[] LONG_POWERS_OF_TEN = new long[MAX_FRACTION_DIGITS + 1];
+
+    static {
+        double d = 1.0;
+        long l = 1L;
+        for (int i = 0; i <= MAX_FRACTION_DIGITS; i++) {
+            DOUBLE_POWERS_OF_TEN[i] = d;
+            LONG_POWERS_OF_TEN[i] = l;
+            d *= 10.0;
+            l *= 10L;
+        }
+    }
+
+    private final OutputStream stream;
+    private final WritableByteChannel channel;
+    private byte[] buffer;
+    private ByteBuffer wrapped;
+    private final byte[] digits;
+    private int position;
+
+    /**
+     * Constructs a new ModelOutput writing to an output stream.
+     *
+     * @param stream The stream to write to.
+     */
+    ModelOutput(OutputStream stream) {
+        this(stream, null);
+    }
+
+    /**
+     * Constructs a new ModelOutput writing to a channel.
+     *
+     * @param channel The channel to write to.
+     */
+    ModelOutput(WritableByteChannel channel) {
+        this(null, channel);
+    }
+
+    /**
+     * Constructs a new ModelOutput collecting the bytes in memory, to be written to another output later
+     * with {@link #write(ModelOutput)}.
+     *
+     * @param capacity The expected number of bytes.
+     */
+    ModelOutput(int capacity) {
+        this(null, null, Math.max(capacity, 64));
+    }
+
+    private ModelOutput(OutputStream stream, WritableByteChannel channel) {
+        this(stream, channel, BUFFER_SIZE);
+    }
+
+    private ModelOutput(OutputStream stream, WritableByteChannel channel, int capacity) {
+        this.stream = stream;
+        this.channel = channel;
+        this.buffer = new byte[capacity];
+        this.wrapped = ByteBuffer.wrap(buffer);
+        this.digits = new byte[20];
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b The byte to write.
+     * @throws IOException If writing to the underlying sink fails.
+     */
+    void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    /**
+     * Writes a string. ASCII characters are copied directly, other strings are encoded as UTF-8.
+     *
+     * @param s The string to write.
+     * @throws IOException If writing to the underlying sink fails.
+     */
+    void writeAscii(String s) throws IOException {
+        int length = s.length();
+        if (length > buffer.length - position) {
+            drain();
+            if (length > buffer.length - position) {
+                writeBytes(s.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                writeBytes(s.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer[position++] = (byte) c;
+        }
+    }
+
+    /**
+     * Writes an integer in decimal notation.
+     *
+     * @param value The integer to write.
+     * @throws IOException If writing to the underlying sink fails.
+     */
+    void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    /**
+     * Writes a long in decimal notation.
+     *
+     * @param value The long to write.
+     * @throws IOException If writing to the underlying sink fails.
+     */
+    void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        if (buffer.length - position < 20) {
+            drain();
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            buffer[position++] = digits[--count];
+        }
+    }
+
+    /**
+     * Writes a double in the shortest decimal notation that parses back to the same value.
+     * Integral values are written without a fraction, infinities as "inf" and "-inf".
+     * Values that need an exponent fall back to {@link Double#toString(double)}.
+     *
+     * @param value The double to write.
+     * @throws IOException If writing to the underlying sink fails.
+     */
+    void writeDouble(double value) throws IOException {
+        if (value == Double.POSITIVE_INFINITY) {
+            writeAscii("inf");
+            return;
+        }
+        if (value == Double.NEGATIVE_INFINITY) {
+            writeAscii("-inf");
+            return;
+        }
+        double abs = Math.abs(value);
+        if (abs < EXACT_INTEGER_LIMIT) {
+            long integral = (long) value;
+            if (integral == value) {
+                writeLong(integral);
+                return;
+            }
+            if (abs >= 1e-5) {
+                for (int scale = 1; scale <= MAX_FRACTION_DIGITS; scale++) {
+                    double scaled = abs * DOUBLE_POWERS_OF_TEN[scale];
+                    if (scaled >= EXACT_INTEGER_LIMIT) {
+                        break;
+                    }
+                    long candidate = Math.round(scaled);
+                    // Both operands are exact, so the quotient is the double nearest to candidate / 10^scale,
+                    // which is exactly what a parser produces for the decimal string written below.
+                    if (candidate / DOUBLE_POWERS_OF_TEN[scale] == abs) {
+                        writeDecimal(value < 0, candidate, scale);
+                        return;
+                    }
+                }
+            }
+        }
+        writeAscii(Double.toString(value));
+    }
+
+    /**
+     * Writes the number unscaled * 10^-scale, dropping trailing zeros of the fraction.
+     */
+    private void writeDecimal(boolean negative, long unscaled, int scale) throws IOException {
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        if (negative) {
+            writeByte('-');
+        }
+        long divisor = LONG_POWERS_OF_TEN[scale];
+        writeLong(unscaled / divisor);
+        if (scale == 0) {
+            return;
+        }
+        if (buffer.length - position < scale + 1) {
+            drain();
+        }
+        buffer[position++] = '.';
+        long fraction = unscaled % divisor;
+        for (int i = position + scale - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        position += scale;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int length = Math.min(bytes.length - offset, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes the bytes collected by an in-memory output.
+     * The bytes are written to the underlying sink directly instead of being copied into the buffer.
+     *
+     * @param part The in-memory output holding the bytes.
+     * @throws IOException If writing to the underlying sink fails.
+     */
+    void write(ModelOutput part) throws IOException {
+        if (stream != null) {
+            drain();
+            stream.write(part.buffer, 0, part.position);
+        } else if (channel != null) {
+            drain();
+            ByteBuffer bytes = ByteBuffer.wrap(part.buffer, 0, part.position);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } else {
+            writeBytes(Arrays.copyOf(part.buffer, part.position));
+        }
+    }
+
+    /**
+     * Writes all buffered bytes to the underlying sink and flushes it.
+     *
+     * @throws IOException If writing to the underlying sink fails.
+     */
+    void flush() throws IOException {
+        if (stream == null && channel == null) {
+            return;
+        }
+        drain();
+        if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (stream == null && channel == null) {
+            // An in-memory output has no sink, it makes room by growing instead
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            wrapped = ByteBuffer.wrap(buffer);
+            return;
+        }
+        if (position == 0) {
+            return;
+        }
+        if (stream != null) {
+            stream.write(buffer, 0, position);
+        } else {
+            wrapped.clear().limit(position);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        }
+        position = 0;
+    }
+}
@@ -0,0 +1,241 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads a model file into primitive arrays: the columns with their names, bounds, types and objective
+ * coefficients, and the rows as a {@link ConstraintMatrix} with their names.
+ * Names are resolved to columns and rows through a {@link NameIndex} directly on the bytes of the file, so a name
+ * only becomes a String once, when the variable or constraint is created.
+ * Columns are numbered in the order in which they first occur in the file, rows in the order of the file.
+ */
+abstract class ModelReader {
+    /**
+     * The names of the columns, by column.
+     */
+    final NameIndex columnNames;
+
+    /**
+     * The number of columns read.
+     */
+    int numberOfColumns;
+
+    /**
+     * The lower bound of each column.
+     */
+    double[] columnLower;
+
+    /**
+     * The upper bound of each column.
+     */
+    double[] columnUpper;
+
+    /**
+     * The type of each column, one of the column types of {@link ModelData}.
+     */
+    byte[] columnTypes;
+
+    /**
+     * The objective coefficient of each column.
+     */
+    double[] objective;
+
+    /**
+     * The constant term of the objective.
+     */
+    double objectiveOffset;
+
+    /**
+     * Whether the objective is minimized, otherwise it is maximized.
+     */
+    boolean minimize;
+
+    /**
+     * The name of the objective, or null if the file does not name it.
+     */
+    String objectiveName;
+
+    /**
+     * The rows read, with duplicate columns within a row merged.
+     */
+    final ConstraintMatrix rows;
+
+    /**
+     * The names of the rows, by row. A row without a name has an empty name.
+     */
+    final NameIndex rowNames;
+
+    /**
+     * The input the file is read from.
+     */
+    ModelInput input;
+
+    ModelReader() {
+        this.columnNames = new NameIndex(1024);
+        this.columnLower = new double[1024];
+        this.columnUpper = new double[1024];
+        this.columnTypes = new byte[1024];
+        this.objective = new double[1024];
+        this.minimize = true;
+        this.rows = new ConstraintMatrix();
+        this.rowNames = new NameIndex(1024);
+    }
+
+    /**
+     * Creates a reader for a model file format.
+     *
+     * @param format The format to read.
+     * @return The reader.
+     */
+    static ModelReader of(ModelFormat format) {
+        return format == ModelFormat.Mps ? new MpsReader() : new LpReader();
+    }
+
+    /**
+     * Reads a model file.
+     *
+     * @param in The stream to read the file from.
+     * @throws IOException   If reading from the stream fails.
+     * @throws OrchException If the file is not a valid model file or uses an unsupported feature.
+     */
+    void read(InputStream in) throws IOException {
+        this.input = new ModelInput(in);
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            read(input, accumulator);
+        } finally {
+            accumulator.release();
+        }
+    }
+
+    /**
+     * Reads the lines of a model file.
+     *
+     * @param input       The input to read the lines from.
+     * @param accumulator An accumulator to collect the terms of a row or the objective in.
+     * @throws IOException   If reading fails.
+     * @throws OrchException If the file is not a valid model file or uses an unsupported feature.
+     */
+    abstract void read(ModelInput input, TermAccumulator accumulator) throws IOException;
+
+    /**
+     * Gets the model read as a snapshot, sharing the arrays of this reader.
+     *
+     * @return The model read.
+     */
+    ModelData modelData() {
+        ModelData data = new ModelData(0, rows);
+        data.numberOfColumns = numberOfColumns;
+        data.columnLower = columnLower;
+        data.columnUpper = columnUpper;
+        data.columnTypes = columnTypes;
+        data.objective = objective;
+        data.objectiveOffset = objectiveOffset;
+        data.minimize = minimize;
+        return data;
+    }
+
+    /**
+     * Gets the name of a column.
+     *
+     * @param column The index of the column.
+     * @return The name.
+     */
+    String columnName(int column) {
+        return columnNames.name(column);
+    }
+
+    /**
+     * Gets the name of a row.
+     *
+     * @param row The index of the row.
+     * @return The name, or null if the row is unnamed.
+     */
+    String rowName(int row) {
+        return rowNames.length(row) == 0 ? null : rowNames.name(row);
+    }
+
+    /**
+     * Gets the column of a name, adding a continuous column with the default bounds [0, inf) if the name is new.
+     *
+     * @param bytes  The array holding the name.
+     * @param offset The position of the first byte of the name.
+     * @param length The number of bytes of the name.
+     * @return The column.
+     */
+    int column(byte[] bytes, int offset, int length) {
+        int column = columnNames.indexOf(bytes, offset, length);
+        if (column >= 0) {
+            return column;
+        }
+        if (numberOfColumns == columnLower.length) {
+            int capacity = numberOfColumns * 2;
+            columnLower = Arrays.copyOf(columnLower, capacity);
+            columnUpper = Arrays.copyOf(columnUpper, capacity);
+            columnTypes = Arrays.copyOf(columnTypes, capacity);
+            objective = Arrays.copyOf(objective, capacity);
+        }
+        column = numberOfColumns++;
+        columnNames.add(bytes, offset, length);
+        columnLower[column] = 0.0;
+        columnUpper[column] = Double.POSITIVE_INFINITY;
+        return column;
+    }
+
+    /**
+     * Parses a number, where "inf" and "infinity" in any case and with an optional sign stand for infinity.
+     *
+     * @param bytes The array holding the number.
+     * @param from  The position of the first byte of the number.
+     * @param to    The position after the last byte of the number.
+     * @return The number.
+     * @throws OrchException If the bytes do not form a number.
+     */
+    double number(byte[] bytes, int from, int to) {
+        int start = from < to && (bytes[from] == '-' || bytes[from] == '+') ? from + 1 : from;
+        if (start < to && (bytes[start] | 0x20) == 'i') {
+            if (!equalsIgnoreCase(bytes, start, to, "inf") && !equalsIgnoreCase(bytes, start, to, "infinity")) {
+                throw error("invalid number " + new String(bytes, from, to - from));
+            }
+            return bytes[from] == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        try {
+            return SolutionReader.parseDouble(bytes, from, to);
+        } catch (OrchException e) {
+            throw error("invalid number " + new String(bytes, from, to - from));
+        }
+    }
+
+    /**
+     * Creates an exception for an error on the current line.
+     *
+     * @param message The description of the error.
+     * @return The exception.
+     */
+    OrchException error(String message) {
+        return new OrchException("Error in model file on line " + input.lineNumber + ": " + message);
+    }
+
+    /**
+     * Checks whether bytes equal an ASCII word, ignoring case.
+     *
+     * @param bytes The array holding the bytes.
+     * @param from  The position of the first byte.
+     * @param to    The position after the last byte.
+     * @param word  The word in lower case.
+     * @return Whether the bytes equal the word.
+     */
+    static boolean equalsIgnoreCase(byte[] bytes, int from, int to, String word) {
+        if (to - from != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if ((bytes[from + i] | 0x20) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,391 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A binary snapshot of a model: the column bounds, types and objective, the rows in compressed sparse row format with
+ * their bounds, and optionally the names of the objective, columns and rows.
+ * The arrays are stored back to back in little-endian byte order, so a snapshot is written with bulk copies through a
+ * {@link FileChannel} and read with bulk copies from a memory-mapped file, without any parsing.
+ * <p>
+ * Layout, version 1: the magic bytes "ORCHSNAP", then the ints version, flags, number of columns, number of rows and
+ * number of nonzeros, a padding int and the double objective offset. These are followed by the doubles column lower
+ * bounds, column upper bounds, objective coefficients, row lower bounds, row upper bounds and entry values, the ints
+ * row starts and entry column indices, and the bytes column types. With names, three name blocks follow for the
+ * objective, the columns and the rows: each is the int start of every name and the int end of the last one, followed
+ * by the UTF-8 bytes of the names. An empty name stands for an unnamed objective, column or row.
+ */
+final class ModelSnapshot {
+    /**
+     * The bytes every snapshot starts with.
+     */
+    private static final byte[] MAGIC = "ORCHSNAP".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The version of the snapshot layout written.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Flag set when the objective is minimized.
+     */
+    private static final int MINIMIZE = 1;
+
+    /**
+     * Flag set when the snapshot holds names.
+     */
+    private static final int NAMES = 2;
+
+    /**
+     * The size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 40;
+
+    /**
+     * The size of the write buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The largest region of the file mapped at once.
+     */
+    private static final int MAX_MAPPING = 1 << 30;
+
+    /**
+     * The model read from the snapshot.
+     */
+    final ModelData data;
+
+    /**
+     * The name of the objective, or null if it is unnamed or the snapshot holds no names.
+     */
+    final String objectiveName;
+
+    private final Names columnNames;
+    private final Names rowNames;
+
+    private ModelSnapshot(ModelData data, String objectiveName, Names columnNames, Names rowNames) {
+        this.data = data;
+        this.objectiveName = objectiveName;
+        this.columnNames = columnNames;
+        this.rowNames = rowNames;
+    }
+
+    /**
+     * Gets the name of a column.
+     *
+     * @param column The index of the column.
+     * @return The name, or null if the column is unnamed or the snapshot holds no names.
+     */
+    String columnName(int column) {
+        return columnNames == null ? null : columnNames.name(column);
+    }
+
+    /**
+     * Gets the name of a row.
+     *
+     * @param row The index of the row.
+     * @return The name, or null if the row is unnamed or the snapshot holds no names.
+     */
+    String rowName(int row) {
+        return rowNames == null ? null : rowNames.name(row);
+    }
+
+    /**
+     * Writes a snapshot of a model to a file, replacing the file if it exists.
+     *
+     * @param path          The file to write to.
+     * @param data          The snapshot of the model, without removed rows.
+     * @param variables     The variables of the model, by column.
+     * @param constraints   The constraints of the model, by row.
+     * @param objectiveName The name of the objective, or null.
+     * @param names         Whether to include the names.
+     * @throws IOException If writing to the file fails.
+     */
+    static void write(Path path, ModelData data, List<NumVar> variables, List<Constraint> constraints, String objectiveName, boolean names) throws IOException {
+        ConstraintMatrix rows = data.rows;
+        int numberOfColumns = data.numberOfColumns;
+        int numberOfRows = rows.numberOfRows;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.buffer.put(MAGIC);
+            out.buffer.putInt(VERSION);
+            out.buffer.putInt((data.minimize ? MINIMIZE : 0) | (names ? NAMES : 0));
+            out.buffer.putInt(numberOfColumns);
+            out.buffer.putInt(numberOfRows);
+            out.buffer.putInt(rows.numberOfNonzeros);
+            out.buffer.putInt(0);
+            out.buffer.putDouble(data.objectiveOffset);
+            out.writeDoubles(data.columnLower, numberOfColumns);
+            out.writeDoubles(data.columnUpper, numberOfColumns);
+            out.writeDoubles(data.objective, numberOfColumns);
+            out.writeDoubles(rows.rowLower, numberOfRows);
+            out.writeDoubles(rows.rowUpper, numberOfRows);
+            out.writeDoubles(rows.values, rows.numberOfNonzeros);
+            out.writeInts(rows.rowStarts, numberOfRows + 1);
+            out.writeInts(rows.columnIndices, rows.numberOfNonzeros);
+            out.writeBytes(data.columnTypes, 0, numberOfColumns);
+            if (names) {
+                Names objective = new Names(1);
+                objective.add(objectiveName);
+                objective.write(out);
+                Names columns = new Names(numberOfColumns);
+                for (int j = 0; j < numberOfColumns; j++) {
+                    columns.add(Orchestrate.explicitName(variables.get(j)));
+                }
+                columns.write(out);
+                Names rowNames = new Names(numberOfRows);
+                for (int row = 0; row < numberOfRows; row++) {
+                    Constraint constraint = constraints.get(row);
+                    rowNames.add(constraint instanceof OrchConstraint constraint_cast && constraint_cast.id == row ? constraint_cast.name : constraint.getName());
+                }
+                rowNames.write(out);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads a snapshot of a model from a file by mapping it into memory.
+     *
+     * @param path The file to read from.
+     * @return The snapshot.
+     * @throws IOException   If reading from the file fails.
+     * @throws OrchException If the file is not a snapshot, is truncated or has an unsupported version.
+     */
+    static ModelSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            ByteBuffer header = in.map(HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new OrchException("Not a model snapshot: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new OrchException("Unsupported model snapshot version " + version + ": " + path);
+            }
+            int flags = header.getInt();
+            int numberOfColumns = header.getInt();
+            int numberOfRows = header.getInt();
+            int numberOfNonzeros = header.getInt();
+            header.getInt();
+            double objectiveOffset = header.getDouble();
+            if (numberOfColumns < 0 || numberOfRows < 0 || numberOfNonzeros < 0) {
+                throw new OrchException("Corrupt model snapshot: " + path);
+            }
+
+            ConstraintMatrix rows = new ConstraintMatrix(Math.max(numberOfRows, 16), Math.max(numberOfNonzeros, 64));
+            ModelData data = new ModelData(numberOfColumns, rows);
+            data.minimize = (flags & MINIMIZE) != 0;
+            data.objectiveOffset = objectiveOffset;
+            in.readDoubles(data.columnLower, numberOfColumns);
+            in.readDoubles(data.columnUpper, numberOfColumns);
+            in.readDoubles(data.objective, numberOfColumns);
+            in.readDoubles(rows.rowLower, numberOfRows);
+            in.readDoubles(rows.rowUpper, numberOfRows);
+            in.readDoubles(rows.values, numberOfNonzeros);
+            in.readInts(rows.rowStarts, numberOfRows + 1);
+            in.readInts(rows.columnIndices, numberOfNonzeros);
+            in.readBytes(data.columnTypes, numberOfColumns);
+            rows.numberOfRows = numberOfRows;
+            rows.numberOfNonzeros = numberOfNonzeros;
+            if (rows.rowStarts[0] != 0 || rows.rowStarts[numberOfRows] != numberOfNonzeros) {
+                throw new OrchException("Corrupt model snapshot: " + path);
+            }
+            if ((flags & NAMES) == 0) {
+                return new ModelSnapshot(data, null, null, null);
+            }
+            Names objective = Names.read(in, 1);
+            Names columnNames = Names.read(in, numberOfColumns);
+            Names rowNames = Names.read(in, numberOfRows);
+            return new ModelSnapshot(data, objective.name(0), columnNames, rowNames);
+        }
+    }
+
+    /**
+     * Writes arrays to a channel through a direct buffer.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        final ByteBuffer buffer;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void writeDoubles(double[] values, int count) throws IOException {
+            int offset = 0;
+            while (offset < count) {
+                int length = Math.min(count - offset, buffer.remaining() / Double.BYTES);
+                if (length == 0) {
+                    flush();
+                    continue;
+                }
+                buffer.asDoubleBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Double.BYTES);
+                offset += length;
+            }
+        }
+
+        void writeInts(int[] values, int count) throws IOException {
+            int offset = 0;
+            while (offset < count) {
+                int length = Math.min(count - offset, buffer.remaining() / Integer.BYTES);
+                if (length == 0) {
+                    flush();
+                    continue;
+                }
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+        void writeBytes(byte[] values, int offset, int count) throws IOException {
+            int end = offset + count;
+            while (offset < end) {
+                int length = Math.min(end - offset, buffer.remaining());
+                if (length == 0) {
+                    flush();
+                    continue;
+                }
+                buffer.put(values, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads arrays from consecutive regions of a memory-mapped file.
+     */
+    private static final class Input {
+        private final FileChannel channel;
+        private final long size;
+        private long position;
+
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /**
+         * Maps the next region of the file.
+         *
+         * @param length The number of bytes of the region, at most {@link #MAX_MAPPING}.
+         * @return The mapped region.
+         * @throws OrchException If the file ends before the region.
+         */
+        ByteBuffer map(int length) throws IOException {
+            if (size - position < length) {
+                throw new OrchException("Truncated model snapshot");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            return mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void readDoubles(double[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int length = Math.min(count - offset, MAX_MAPPING / Double.BYTES);
+                map(length * Double.BYTES).asDoubleBuffer().get(values, offset, length);
+                offset += length;
+            }
+        }
+
+        void readInts(int[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int length = Math.min(count - offset, MAX_MAPPING / Integer.BYTES);
+                map(length * Integer.BYTES).asIntBuffer().get(values, offset, length);
+                offset += length;
+            }
+        }
+
+        void readBytes(byte[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int length = Math.min(count - offset, MAX_MAPPING);
+                map(length).get(values, offset, length);
+                offset += length;
+            }
+        }
+    }
+
+    /**
+     * A block of names stored as UTF-8 bytes back to back, with the position where each name starts.
+     */
+    private static final class Names {
+        private final int[] starts;
+        private byte[] pool;
+        private int size;
+
+        Names(int count) {
+            this.starts = new int[count + 1];
+            this.pool = new byte[Math.max(16, count * 8)];
+        }
+
+        /**
+         * Adds the next name.
+         *
+         * @param name The name, or null for an unnamed element.
+         */
+        void add(String name) {
+            int start = starts[size];
+            byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+            if (start + bytes.length > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(start + bytes.length, pool.length * 2));
+            }
+            System.arraycopy(bytes, 0, pool, start, bytes.length);
+            size++;
+            starts[size] = start + bytes.length;
+        }
+
+        String name(int index) {
+            int start = starts[index];
+            int end = starts[index + 1];
+            return start == end ? null : new String(pool, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        void write(Output out) throws IOException {
+            out.writeInts(starts, starts.length);
+            out.writeBytes(pool, 0, starts[starts.length - 1]);
+        }
+
+        static Names read(Input in, int count) throws IOException {
+            int[] starts = new int[count + 1];
+            in.readInts(starts, count + 1);
+            for (int i = 0; i < count; i++) {
+                if (starts[i] < 0 || starts[i] > starts[i + 1]) {
+                    throw new OrchException("Corrupt model snapshot");
+                }
+            }
+            byte[] pool = new byte[starts[count]];
+            in.readBytes(pool, pool.length);
+            return new Names(starts, pool);
+        }
+
+        private Names(int[] starts, byte[] pool) {
+            this.starts = starts;
+            this.pool = pool;
+            this.size = starts.length - 1;
+        }
+    }
+}
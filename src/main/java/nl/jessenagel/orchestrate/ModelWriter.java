@@ -0,0 +1,117 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes a model snapshot to a {@link ModelOutput} in a model file format.
+ * Variables and constraints without a name are written under their default name, which is derived from
+ * their index without building a String.
+ * A reduced snapshot is written under the names of the original variables and constraints its columns and rows
+ * came from.
+ */
+abstract class ModelWriter {
+    final ModelData data;
+    private final List<NumVar> variables;
+    private final List<Constraint> constraints;
+    private final int[] columnIds;
+    private final int[] rowIds;
+
+    /**
+     * The pool to format parts of the file on in parallel, or null to format the file on the calling thread.
+     * Writers that cannot split their output write it on the calling thread regardless.
+     */
+    ForkJoinPool pool;
+
+    /**
+     * Constructs a new ModelWriter.
+     *
+     * @param data        The model snapshot to write.
+     * @param variables   The variables of the original model, indexed by original column.
+     * @param constraints The constraints of the original model, indexed by original row.
+     * @param columnIds   The original column of each column of the snapshot, or null if they are the same.
+     * @param rowIds      The original row of each row of the snapshot, or null if they are the same.
+     */
+    ModelWriter(ModelData data, List<NumVar> variables, List<Constraint> constraints, int[] columnIds, int[] rowIds) {
+        this.data = data;
+        this.variables = variables;
+        this.constraints = constraints;
+        this.columnIds = columnIds;
+        this.rowIds = rowIds;
+    }
+
+    /**
+     * Creates a writer for a model file format.
+     *
+     * @param format      The format to write.
+     * @param data        The model snapshot to write.
+     * @param variables   The variables of the original model, indexed by original column.
+     * @param constraints The constraints of the original model, indexed by original row.
+     * @param columnIds   The original column of each column of the snapshot, or null if they are the same.
+     * @param rowIds      The original row of each row of the snapshot, or null if they are the same.
+     * @return The writer.
+     */
+    static ModelWriter of(ModelFormat format, ModelData data, List<NumVar> variables, List<Constraint> constraints, int[] columnIds, int[] rowIds) {
+        if (format == ModelFormat.Mps) {
+            return new MpsWriter(data, variables, constraints, columnIds, rowIds);
+        }
+        return new LpWriter(data, variables, constraints, columnIds, rowIds);
+    }
+
+    /**
+     * Writes the model and flushes the output.
+     *
+     * @param out The output to write to.
+     * @throws IOException If writing fails.
+     */
+    abstract void write(ModelOutput out) throws IOException;
+
+    /**
+     * Checks whether a column is a binary column with the bounds of a binary variable.
+     * Binary columns whose bounds were changed are written as general integers with explicit bounds.
+     *
+     * @param column The column.
+     * @return Whether the column is written as a binary.
+     */
+    boolean isBinary(int column) {
+        return data.columnTypes[column] == ModelData.BINARY && data.columnLower[column] == 0 && data.columnUpper[column] == 1;
+    }
+
+    /**
+     * Writes the name of the variable of a column.
+     *
+     * @param out    The output to write to.
+     * @param column The column.
+     * @throws IOException If writing fails.
+     */
+    void writeColumnName(ModelOutput out, int column) throws IOException {
+        column = columnIds == null ? column : columnIds[column];
+        NumVar variable = variables.get(column);
+        String name = Orchestrate.explicitName(variable);
+        if (name != null) {
+            out.writeAscii(name);
+        } else {
+            out.writeAscii(Orchestrate.defaultNamePrefix(variable));
+            out.writeInt(column);
+        }
+    }
+
+    /**
+     * Writes the name of the constraint of a row.
+     *
+     * @param out The output to write to.
+     * @param row The row.
+     * @throws IOException If writing fails.
+     */
+    void writeRowName(ModelOutput out, int row) throws IOException {
+        row = rowIds == null ? row : rowIds[row];
+        Constraint constraint = constraints.get(row);
+        if (constraint instanceof OrchConstraint constraint_cast && constraint_cast.name == null) {
+            out.writeAscii("Constraint_");
+            out.writeInt(constraint_cast.id);
+        } else {
+            out.writeAscii(constraint.getName());
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a model file in MPS format.
+ * Fields are separated by whitespace, which reads free MPS as well as fixed MPS whose names contain no spaces.
+ * The first N row is the objective, further N rows are free rows and are dropped.
+ * The entries of the COLUMNS section are collected column by column and sorted into rows at the end with a
+ * counting sort. Integer columns between INTORG and INTEND markers get the bounds [0, inf) unless bounds are given.
+ */
+final class MpsReader extends ModelReader {
+    private static final int NONE = 0;
+    private static final int OBJSENSE = 1;
+    private static final int ROWS = 2;
+    private static final int COLUMNS = 3;
+    private static final int RHS = 4;
+    private static final int RANGES = 5;
+    private static final int BOUNDS = 6;
+
+    /**
+     * The largest number of fields on a line.
+     */
+    private static final int MAX_FIELDS = 8;
+
+    /**
+     * The field positions of the current line: field i spans [fieldStarts[i], fieldEnds[i]).
+     */
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+    private int numberOfFields;
+
+    /**
+     * The names of the N rows, the first one being the objective.
+     */
+    private final NameIndex freeRows = new NameIndex(4);
+
+    /**
+     * The type of each row: 'E', 'L' or 'G'.
+     */
+    private byte[] rowTypes = new byte[1024];
+
+    /**
+     * The right-hand side of each row.
+     */
+    private double[] rowValues = new double[1024];
+
+    /**
+     * The range of each row, NaN if the row has none.
+     */
+    private double[] rowRanges = new double[1024];
+
+    private int numberOfRows;
+
+    /**
+     * The entries of the COLUMNS section: row, column and value of each entry, in the order of the file.
+     */
+    private int[] entryRows = new int[4096];
+    private int[] entryColumns = new int[4096];
+    private double[] entryValues = new double[4096];
+    private int numberOfEntries;
+
+    /**
+     * Whether the lower bound of each column was set in the BOUNDS section.
+     */
+    private boolean[] lowerSet = new boolean[0];
+
+    /**
+     * The accumulator used to merge duplicate entries of a row.
+     */
+    private TermAccumulator accumulator;
+
+    @Override
+    void read(ModelInput input, TermAccumulator accumulator) throws IOException {
+        this.accumulator = accumulator;
+        int section = NONE;
+        boolean integer = false;
+        int lastColumn = -1;
+        while (input.readLine()) {
+            byte[] line = input.line;
+            if (input.length == 0 || line[0] == '*') {
+                continue;
+            }
+            split(line, input.length);
+            if (numberOfFields == 0) {
+                continue;
+            }
+            if (line[0] != ' ' && line[0] != '\t') {
+                section = section(line);
+                if (section == OBJSENSE && numberOfFields > 1) {
+                    setSense(line, 1);
+                    section = NONE;
+                }
+                if (section < 0) {
+                    return;
+                }
+                continue;
+            }
+            switch (section) {
+                case OBJSENSE -> setSense(line, 0);
+                case ROWS -> addRowName(line);
+                case COLUMNS -> {
+                    if (numberOfFields >= 3 && equalsIgnoreCase(line, fieldStarts[1], fieldEnds[1], "'marker'")) {
+                        integer = isMarker(line, "'intorg'");
+                        if (!integer && !isMarker(line, "'intend'")) {
+                            throw error("unknown marker");
+                        }
+                        continue;
+                    }
+                    if (numberOfFields != 3 && numberOfFields != 5) {
+                        throw error("expected a column followed by one or two rows with values");
+                    }
+                    int start = fieldStarts[0];
+                    int length = fieldEnds[0] - start;
+                    int known = numberOfColumns;
+                    int column = columnNames.matches(lastColumn, line, start, length) ? lastColumn : column(line, start, length);
+                    if (integer && column >= known) {
+                        columnTypes[column] = ModelData.INTEGER;
+                    }
+                    lastColumn = column;
+                    for (int field = 1; field < numberOfFields; field += 2) {
+                        addEntry(line, field, column);
+                    }
+                }
+                case RHS -> setRowValues(line, false);
+                case RANGES -> setRowValues(line, true);
+                case BOUNDS -> setBound(line);
+                default -> throw error("data outside of a section");
+            }
+        }
+        throw error("missing ENDATA");
+    }
+
+    /**
+     * Gets the section started by a header line, or -1 for ENDATA.
+     */
+    private int section(byte[] line) {
+        int from = fieldStarts[0];
+        int to = fieldEnds[0];
+        if (equalsIgnoreCase(line, from, to, "name")) {
+            return NONE;
+        } else if (equalsIgnoreCase(line, from, to, "objsense")) {
+            return OBJSENSE;
+        } else if (equalsIgnoreCase(line, from, to, "rows")) {
+            return ROWS;
+        } else if (equalsIgnoreCase(line, from, to, "columns")) {
+            return COLUMNS;
+        } else if (equalsIgnoreCase(line, from, to, "rhs")) {
+            return RHS;
+        } else if (equalsIgnoreCase(line, from, to, "ranges")) {
+            return RANGES;
+        } else if (equalsIgnoreCase(line, from, to, "bounds")) {
+            finishColumns();
+            return BOUNDS;
+        } else if (equalsIgnoreCase(line, from, to, "endata")) {
+            finishColumns();
+            finishRows();
+            return -1;
+        }
+        throw error("unsupported section " + new String(line, from, to - from));
+    }
+
+    private void setSense(byte[] line, int field) {
+        int from = fieldStarts[field];
+        int to = fieldEnds[field];
+        if (equalsIgnoreCase(line, from, to, "max") || equalsIgnoreCase(line, from, to, "maximize")) {
+            minimize = false;
+        } else if (equalsIgnoreCase(line, from, to, "min") || equalsIgnoreCase(line, from, to, "minimize")) {
+            minimize = true;
+        } else {
+            throw error("unknown objective sense");
+        }
+    }
+
+    private boolean isMarker(byte[] line, String marker) {
+        return equalsIgnoreCase(line, fieldStarts[2], fieldEnds[2], marker);
+    }
+
+    private void addRowName(byte[] line) {
+        if (numberOfFields != 2 || fieldEnds[0] - fieldStarts[0] != 1) {
+            throw error("expected a row type and a row name");
+        }
+        byte type = (byte) (line[fieldStarts[0]] & ~0x20);
+        int start = fieldStarts[1];
+        int length = fieldEnds[1] - start;
+        if (type == 'N') {
+            if (freeRows.size() == 0) {
+                objectiveName = new String(line, start, length);
+            }
+            freeRows.add(line, start, length);
+            return;
+        }
+        if (type != 'E' && type != 'L' && type != 'G') {
+            throw error("unknown row type " + (char) type);
+        }
+        if (numberOfRows == rowTypes.length) {
+            int capacity = numberOfRows * 2;
+            rowTypes = Arrays.copyOf(rowTypes, capacity);
+            rowValues = Arrays.copyOf(rowValues, capacity);
+            rowRanges = Arrays.copyOf(rowRanges, capacity);
+        }
+        rowTypes[numberOfRows] = type;
+        rowRanges[numberOfRows] = Double.NaN;
+        numberOfRows++;
+        rowNames.add(line, start, length);
+    }
+
+    /**
+     * Gets the row of a row name in a field: the index of a constraint row, -1 for the objective and -2 for
+     * another N row.
+     */
+    private int row(byte[] line, int field) {
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        int row = rowNames.indexOf(line, start, length);
+        if (row >= 0) {
+            return row;
+        }
+        int freeRow = freeRows.indexOf(line, start, length);
+        if (freeRow < 0) {
+            throw error("unknown row " + new String(line, start, length));
+        }
+        return freeRow == 0 ? -1 : -2;
+    }
+
+    private void addEntry(byte[] line, int field, int column) {
+        int row = row(line, field);
+        double value = number(line, fieldStarts[field + 1], fieldEnds[field + 1]);
+        if (row == -1) {
+            objective[column] += value;
+            return;
+        }
+        if (row < 0) {
+            return;
+        }
+        if (numberOfEntries == entryRows.length) {
+            int capacity = numberOfEntries * 2;
+            entryRows = Arrays.copyOf(entryRows, capacity);
+            entryColumns = Arrays.copyOf(entryColumns, capacity);
+            entryValues = Arrays.copyOf(entryValues, capacity);
+        }
+        entryRows[numberOfEntries] = row;
+        entryColumns[numberOfEntries] = column;
+        entryValues[numberOfEntries] = value;
+        numberOfEntries++;
+    }
+
+    /**
+     * Reads a line of the RHS or RANGES section, which has an optional set name followed by one or two pairs of
+     * a row and a value.
+     */
+    private void setRowValues(byte[] line, boolean ranges) {
+        int first = numberOfFields % 2;
+        if (numberOfFields < 2 || numberOfFields > 5) {
+            throw error("expected one or two rows with values");
+        }
+        for (int field = first; field < numberOfFields; field += 2) {
+            int row = row(line, field);
+            double value = number(line, fieldStarts[field + 1], fieldEnds[field + 1]);
+            if (row == -1 && !ranges) {
+                // The right-hand side of the objective is the negated objective offset.
+                objectiveOffset = -value;
+            } else if (row >= 0) {
+                if (ranges) {
+                    rowRanges[row] = value;
+                } else {
+                    rowValues[row] = value;
+                }
+            }
+        }
+    }
+
+    private void setBound(byte[] line) {
+        if (numberOfFields < 2) {
+            throw error("expected a bound type and a column");
+        }
+        int typeStart = fieldStarts[0];
+        int typeEnd = fieldEnds[0];
+        boolean hasValue = !(equalsIgnoreCase(line, typeStart, typeEnd, "fr") || equalsIgnoreCase(line, typeStart, typeEnd, "mi")
+                || equalsIgnoreCase(line, typeStart, typeEnd, "pl") || equalsIgnoreCase(line, typeStart, typeEnd, "bv"));
+        // The set name is optional. A bound with a value has the column before the value. A bound without one may
+        // still be followed by a value, which is ignored, so with three fields the column is the second one if the
+        // last one is a number and the third one otherwise.
+        int columnField;
+        if (hasValue) {
+            columnField = numberOfFields - 2;
+        } else if (numberOfFields == 3) {
+            columnField = isNumber(line, fieldStarts[2], fieldEnds[2]) ? 1 : 2;
+        } else {
+            columnField = numberOfFields == 2 ? 1 : 2;
+        }
+        if (columnField < 1 || columnField > 2 || numberOfFields > 4) {
+            throw error("expected a bound type, a column and a value");
+        }
+        int column = column(line, fieldStarts[columnField], fieldEnds[columnField] - fieldStarts[columnField]);
+        if (lowerSet.length < numberOfColumns) {
+            lowerSet = Arrays.copyOf(lowerSet, Math.max(numberOfColumns, lowerSet.length * 2));
+        }
+        double value = hasValue ? number(line, fieldStarts[numberOfFields - 1], fieldEnds[numberOfFields - 1]) : 0.0;
+        if (equalsIgnoreCase(line, typeStart, typeEnd, "up") || equalsIgnoreCase(line, typeStart, typeEnd, "ui")) {
+            setUpper(column, value);
+        } else if (equalsIgnoreCase(line, typeStart, typeEnd, "lo") || equalsIgnoreCase(line, typeStart, typeEnd, "li")) {
+            columnLower[column] = value;
+            lowerSet[column] = true;
+        } else if (equalsIgnoreCase(line, typeStart, typeEnd, "fx")) {
+            columnLower[column] = value;
+            columnUpper[column] = value;
+            lowerSet[column] = true;
+        } else if (equalsIgnoreCase(line, typeStart, typeEnd, "fr")) {
+            columnLower[column] = Double.NEGATIVE_INFINITY;
+            columnUpper[column] = Double.POSITIVE_INFINITY;
+            lowerSet[column] = true;
+        } else if (equalsIgnoreCase(line, typeStart, typeEnd, "mi")) {
+            columnLower[column] = Double.NEGATIVE_INFINITY;
+            lowerSet[column] = true;
+        } else if (equalsIgnoreCase(line, typeStart, typeEnd, "pl")) {
+            columnUpper[column] = Double.POSITIVE_INFINITY;
+        } else if (equalsIgnoreCase(line, typeStart, typeEnd, "bv")) {
+            columnTypes[column] = ModelData.BINARY;
+            columnLower[column] = 0.0;
+            columnUpper[column] = 1.0;
+            lowerSet[column] = true;
+        } else {
+            throw error("unsupported bound type " + new String(line, typeStart, typeEnd - typeStart));
+        }
+        if (equalsIgnoreCase(line, typeStart, typeEnd, "ui") || equalsIgnoreCase(line, typeStart, typeEnd, "li")) {
+            columnTypes[column] = ModelData.INTEGER;
+        }
+    }
+
+    /**
+     * Checks whether a field is a number.
+     */
+    private boolean isNumber(byte[] line, int from, int to) {
+        try {
+            number(line, from, to);
+            return true;
+        } catch (OrchException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets an upper bound. A negative upper bound on a column whose lower bound was not set makes the lower bound
+     * minus infinity, as most readers do.
+     */
+    private void setUpper(int column, double value) {
+        columnUpper[column] = value;
+        if (value < 0 && !lowerSet[column] && columnLower[column] == 0.0) {
+            columnLower[column] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Sorts the entries of the COLUMNS section into rows, merging duplicate entries of a row.
+     */
+    private void finishColumns() {
+        if (entryRows == null) {
+            return;
+        }
+        int[] rowStarts = new int[numberOfRows + 1];
+        for (int k = 0; k < numberOfEntries; k++) {
+            rowStarts[entryRows[k] + 1]++;
+        }
+        for (int row = 0; row < numberOfRows; row++) {
+            rowStarts[row + 1] += rowStarts[row];
+        }
+        int[] next = Arrays.copyOf(rowStarts, numberOfRows);
+        int[] columns = new int[numberOfEntries];
+        double[] values = new double[numberOfEntries];
+        for (int k = 0; k < numberOfEntries; k++) {
+            int position = next[entryRows[k]]++;
+            columns[position] = entryColumns[k];
+            values[position] = entryValues[k];
+        }
+        entryRows = null;
+        entryColumns = null;
+        entryValues = null;
+        for (int row = 0; row < numberOfRows; row++) {
+            accumulator.clear();
+            for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+                accumulator.add(columns[k], values[k]);
+            }
+            // The bounds are set once the right-hand sides and ranges are known.
+            rows.addRow(accumulator, 0.0, 0.0);
+        }
+    }
+
+    /**
+     * Sets the bounds of the rows from their types, right-hand sides and ranges.
+     */
+    private void finishRows() {
+        for (int row = 0; row < numberOfRows; row++) {
+            double value = rowValues[row];
+            double range = rowRanges[row];
+            double lower = rowTypes[row] == 'L' ? Double.NEGATIVE_INFINITY : value;
+            double upper = rowTypes[row] == 'G' ? Double.POSITIVE_INFINITY : value;
+            if (!Double.isNaN(range)) {
+                if (rowTypes[row] == 'E') {
+                    lower = range < 0 ? value + range : value;
+                    upper = range < 0 ? value : value + range;
+                } else if (rowTypes[row] == 'L') {
+                    lower = value - Math.abs(range);
+                } else {
+                    upper = value + Math.abs(range);
+                }
+            }
+            rows.rowLower[row] = lower;
+            rows.rowUpper[row] = upper;
+        }
+    }
+
+    /**
+     * Splits a line into whitespace-separated fields.
+     */
+    private void split(byte[] line, int length) {
+        numberOfFields = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && (line[i] == ' ' || line[i] == '\t')) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            if (numberOfFields == MAX_FIELDS) {
+                throw error("too many fields");
+            }
+            fieldStarts[numberOfFields] = i;
+            while (i < length && line[i] != ' ' && line[i] != '\t') {
+                i++;
+            }
+            fieldEnds[numberOfFields++] = i;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a model snapshot in free MPS format.
+ * The format lists the matrix column by column, so the rows of the snapshot are first transposed into a
+ * {@link ColumnMatrix}. Every name is written once per entry without signs or operators, which makes the file
+ * faster to write and to read than the LP format.
+ * Row types and right-hand sides follow the bounds of the rows: an equality is an E row, a row with only an upper
+ * bound an L row, a row with only a lower bound a G row, and a row with both bounds a G row with a range.
+ * The objective offset is written as the negated right-hand side of the objective row.
+ */
+final class MpsWriter extends ModelWriter {
+    /**
+     * The name of the objective row.
+     */
+    private static final String OBJECTIVE = "obj";
+
+    /**
+     * Constructs a new MpsWriter.
+     *
+     * @param data        The model snapshot to write.
+     * @param variables   The variables of the model, indexed by column.
+     * @param constraints The constraints of the model, indexed by row.
+     */
+    MpsWriter(ModelData data, List<NumVar> variables, List<Constraint> constraints) {
+        this(data, variables, constraints, null, null);
+    }
+
+    /**
+     * Constructs a new MpsWriter for a reduced model snapshot.
+     *
+     * @param data        The reduced model snapshot to write.
+     * @param variables   The variables of the original model, indexed by original column.
+     * @param constraints The constraints of the original model, indexed by original row.
+     * @param columnIds   The original column of each column of the snapshot, or null if they are the same.
+     * @param rowIds      The original row of each row of the snapshot, or null if they are the same.
+     */
+    MpsWriter(ModelData data, List<NumVar> variables, List<Constraint> constraints, int[] columnIds, int[] rowIds) {
+        super(data, variables, constraints, columnIds, rowIds);
+    }
+
+    @Override
+    void write(ModelOutput out) throws IOException {
+        out.writeAscii("NAME\n");
+        if (!data.minimize) {
+            out.writeAscii("OBJSENSE\n    MAX\n");
+        }
+        writeRows(out);
+        writeColumns(out);
+        writeRightHandSides(out);
+        writeRanges(out);
+        writeBounds(out);
+        out.writeAscii("ENDATA\n");
+        out.flush();
+    }
+
+    private void writeRows(ModelOutput out) throws IOException {
+        out.writeAscii("ROWS\n N  " + OBJECTIVE + "\n");
+        ConstraintMatrix rows = data.rows;
+        for (int row = 0; row < rows.numberOfRows; row++) {
+            double lower = rows.rowLower[row];
+            double upper = rows.rowUpper[row];
+            if (lower == upper) {
+                out.writeAscii(" E  ");
+            } else if (lower == Double.NEGATIVE_INFINITY) {
+                out.writeAscii(" L  ");
+            } else {
+                out.writeAscii(" G  ");
+            }
+            writeRowName(out, row);
+            out.writeByte('\n');
+        }
+    }
+
+    private void writeColumns(ModelOutput out) throws IOException {
+        out.writeAscii("COLUMNS\n");
+        ColumnMatrix columns = new ColumnMatrix(data.rows, data.numberOfColumns);
+        boolean integer = false;
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            if (integer != (data.columnTypes[j] != ModelData.CONTINUOUS)) {
+                integer = !integer;
+                out.writeAscii(integer ? "    MARKER 'MARKER' 'INTORG'\n" : "    MARKER 'MARKER' 'INTEND'\n");
+            }
+            int start = columns.columnStarts[j];
+            int end = columns.columnStarts[j + 1];
+            if (data.objective[j] != 0 || start == end) {
+                // A column is declared by its entries, a column without any is declared with a zero objective.
+                writeEntry(out, j);
+                out.writeAscii(OBJECTIVE);
+                out.writeByte(' ');
+                out.writeDouble(data.objective[j]);
+                out.writeByte('\n');
+            }
+            for (int k = start; k < end; k++) {
+                writeEntry(out, j);
+                writeRowName(out, columns.rowIndices[k]);
+                out.writeByte(' ');
+                out.writeDouble(columns.values[k]);
+                out.writeByte('\n');
+            }
+        }
+        if (integer) {
+            out.writeAscii("    MARKER 'MARKER' 'INTEND'\n");
+        }
+    }
+
+    private void writeRightHandSides(ModelOutput out) throws IOException {
+        out.writeAscii("RHS\n");
+        if (data.objectiveOffset != 0) {
+            out.writeAscii("    RHS " + OBJECTIVE + " ");
+            out.writeDouble(-data.objectiveOffset);
+            out.writeByte('\n');
+        }
+        ConstraintMatrix rows = data.rows;
+        for (int row = 0; row < rows.numberOfRows; row++) {
+            double rhs = rows.rowLower[row] == Double.NEGATIVE_INFINITY ? rows.rowUpper[row] : rows.rowLower[row];
+            if (rhs != 0) {
+                out.writeAscii("    RHS ");
+                writeRowName(out, row);
+                out.writeByte(' ');
+                out.writeDouble(rhs);
+                out.writeByte('\n');
+            }
+        }
+    }
+
+    private void writeRanges(ModelOutput out) throws IOException {
+        ConstraintMatrix rows = data.rows;
+        boolean first = true;
+        for (int row = 0; row < rows.numberOfRows; row++) {
+            double lower = rows.rowLower[row];
+            double upper = rows.rowUpper[row];
+            if (lower == upper || lower == Double.NEGATIVE_INFINITY || upper == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            if (first) {
+                out.writeAscii("RANGES\n");
+                first = false;
+            }
+            out.writeAscii("    RNG ");
+            writeRowName(out, row);
+            out.writeByte(' ');
+            out.writeDouble(upper - lower);
+            out.writeByte('\n');
+        }
+    }
+
+    private void writeBounds(ModelOutput out) throws IOException {
+        out.writeAscii("BOUNDS\n");
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            double lower = data.columnLower[j];
+            double upper = data.columnUpper[j];
+            boolean integer = data.columnTypes[j] != ModelData.CONTINUOUS;
+            if (isBinary(j)) {
+                writeBound(out, "BV", j);
+            } else if (lower == upper) {
+                writeBound(out, "FX", j, upper);
+            } else if (lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY) {
+                writeBound(out, "FR", j);
+            } else {
+                // Readers differ in the default bounds of integer columns and in the lower bound implied by a
+                // negative upper bound, so those cases are written explicitly.
+                if (lower == Double.NEGATIVE_INFINITY) {
+                    writeBound(out, "MI", j);
+                } else if (lower != 0 || integer || upper < 0) {
+                    writeBound(out, "LO", j, lower);
+                }
+                if (upper != Double.POSITIVE_INFINITY) {
+                    writeBound(out, "UP", j, upper);
+                } else if (integer) {
+                    writeBound(out, "PL", j);
+                }
+            }
+        }
+    }
+
+    private void writeEntry(ModelOutput out, int column) throws IOException {
+        out.writeAscii("    ");
+        writeColumnName(out, column);
+        out.writeByte(' ');
+    }
+
+    private void writeBound(ModelOutput out, String type, int column) throws IOException {
+        writeBoundColumn(out, type, column);
+        out.writeByte('\n');
+    }
+
+    private void writeBound(ModelOutput out, String type, int column, double value) throws IOException {
+        writeBoundColumn(out, type, column);
+        out.writeByte(' ');
+        out.writeDouble(value);
+        out.writeByte('\n');
+    }
+
+    private void writeBoundColumn(ModelOutput out, String type, int column) throws IOException {
+        out.writeByte(' ');
+        out.writeAscii(type);
+        out.writeAscii(" BND ");
+        writeColumnName(out, column);
+    }
+}
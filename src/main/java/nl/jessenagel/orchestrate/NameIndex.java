@@ -0,0 +1,245 @@
+package nl.jessenagel.orchestrate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps names to their position, so that names read from a file can be resolved to a column or row index
+ * without creating a String per name.
+ * Names are stored as bytes in one shared pool in the order they were added, and looked up through an
+ * open-addressing hash table on the raw bytes. When a name occurs more than once, lookups resolve to its
+ * first occurrence.
+ */
+final class NameIndex {
+    /**
+     * The bytes of all names, back to back.
+     */
+    private byte[] pool;
+
+    /**
+     * The number of bytes used in the pool.
+     */
+    private int poolSize;
+
+    /**
+     * The position in the pool where each name starts, the name at index i ends where name i + 1 starts.
+     */
+    private int[] starts;
+
+    /**
+     * The hash of each name.
+     */
+    private int[] hashes;
+
+    /**
+     * The hash table, holding the index of a name plus one, or zero if empty.
+     */
+    private int[] slots;
+
+    /**
+     * The number of names added.
+     */
+    private int size;
+
+    private final byte[] digits = new byte[11];
+
+    /**
+     * Constructs a new, empty NameIndex.
+     *
+     * @param expectedSize The number of names the index is expected to hold.
+     */
+    NameIndex(int expectedSize) {
+        int capacity = Math.max(expectedSize, 4);
+        this.pool = new byte[capacity * 8];
+        this.starts = new int[capacity + 1];
+        this.hashes = new int[capacity];
+        this.slots = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    /**
+     * Adds a name at the next index.
+     *
+     * @param name The name to add.
+     */
+    void add(String name) {
+        int length = name.length();
+        ensurePoolCapacity(poolSize + length);
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                ensurePoolCapacity(poolSize + encoded.length);
+                System.arraycopy(encoded, 0, pool, poolSize, encoded.length);
+                poolSize += encoded.length;
+                finishName();
+                return;
+            }
+            pool[poolSize + i] = (byte) c;
+        }
+        poolSize += length;
+        finishName();
+    }
+
+    /**
+     * Adds a name given as bytes at the next index.
+     *
+     * @param bytes  The array holding the name.
+     * @param offset The position of the first byte of the name.
+     * @param length The number of bytes of the name.
+     */
+    void add(byte[] bytes, int offset, int length) {
+        ensurePoolCapacity(poolSize + length);
+        System.arraycopy(bytes, offset, pool, poolSize, length);
+        poolSize += length;
+        finishName();
+    }
+
+    /**
+     * Adds a name consisting of a prefix followed by a non-negative number at the next index.
+     *
+     * @param prefix The ASCII prefix of the name.
+     * @param number The number following the prefix.
+     */
+    void add(String prefix, int number) {
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + number % 10);
+            number /= 10;
+        } while (number != 0);
+        ensurePoolCapacity(poolSize + prefix.length() + count);
+        for (int i = 0; i < prefix.length(); i++) {
+            pool[poolSize++] = (byte) prefix.charAt(i);
+        }
+        while (count > 0) {
+            pool[poolSize++] = digits[--count];
+        }
+        finishName();
+    }
+
+    /**
+     * Gets the index of a name.
+     *
+     * @param bytes  The array holding the name.
+     * @param offset The position of the first byte of the name.
+     * @param length The number of bytes of the name.
+     * @return The index of the first occurrence of the name, or -1 if it was not added.
+     */
+    int indexOf(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (hashes[entry - 1] == hash && matches(entry - 1, bytes, offset, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the name at an index equals the given bytes.
+     *
+     * @param index  The index of the name.
+     * @param bytes  The array holding the bytes to compare with.
+     * @param offset The position of the first byte to compare.
+     * @param length The number of bytes to compare.
+     * @return Whether the name equals the given bytes.
+     */
+    boolean matches(int index, byte[] bytes, int offset, int length) {
+        if (index < 0 || index >= size) {
+            return false;
+        }
+        int start = starts[index];
+        return starts[index + 1] - start == length && Arrays.equals(pool, start, start + length, bytes, offset, offset + length);
+    }
+
+    /**
+     * Gets the name at an index as a String.
+     *
+     * @param index The index of the name.
+     * @return The name.
+     */
+    String name(int index) {
+        return new String(pool, starts[index], starts[index + 1] - starts[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the length in bytes of the name at an index.
+     *
+     * @param index The index of the name.
+     * @return The number of bytes of the name.
+     */
+    int length(int index) {
+        return starts[index + 1] - starts[index];
+    }
+
+    /**
+     * Gets the number of names added.
+     *
+     * @return The number of names.
+     */
+    int size() {
+        return size;
+    }
+
+    private void finishName() {
+        if (size == hashes.length) {
+            grow();
+        }
+        int start = starts[size];
+        int hash = hash(pool, start, poolSize - start);
+        hashes[size] = hash;
+        size++;
+        starts[size] = poolSize;
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (hashes[entry - 1] == hash && matches(entry - 1, pool, start, poolSize - start)) {
+                // Keep resolving to the first occurrence of a duplicate name.
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = size;
+    }
+
+    private void grow() {
+        int capacity = hashes.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        starts = Arrays.copyOf(starts, capacity + 1);
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hashes[i] & mask;
+            boolean duplicate = false;
+            int entry;
+            while ((entry = slots[slot]) != 0) {
+                if (hashes[entry - 1] == hashes[i] && matches(entry - 1, pool, starts[i], starts[i + 1] - starts[i])) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                slots[slot] = i + 1;
+            }
+        }
+    }
+
+    private void ensurePoolCapacity(int capacity) {
+        if (capacity > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(capacity, pool.length * 2));
+        }
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
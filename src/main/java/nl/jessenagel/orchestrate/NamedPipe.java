@@ -0,0 +1,101 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A named pipe (FIFO) through which a model is streamed to, or a solution is streamed from, an external solver.
+ * The data never lands on disk, and the writing or reading happens on a background thread while the solver runs.
+ * Opening one end of a named pipe blocks until the other end is opened, so when the solver exits without opening
+ * the pipe, {@link #release()} opens it briefly to let the background thread finish.
+ */
+final class NamedPipe {
+    /**
+     * Moves data through an opened pipe.
+     */
+    interface Transfer {
+        /**
+         * Opens the pipe and writes or reads its data.
+         *
+         * @param path The path of the pipe.
+         * @throws IOException If opening, writing or reading fails.
+         */
+        void run(Path path) throws IOException;
+    }
+
+    private final Path path;
+    private Thread thread;
+    private volatile IOException failure;
+
+    private NamedPipe(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Creates a named pipe with the mkfifo command.
+     *
+     * @param path The path of the pipe to create.
+     * @return The created pipe.
+     * @throws IOException          If the mkfifo command cannot be started.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for mkfifo.
+     * @throws OrchException        If the pipe cannot be created.
+     */
+    static NamedPipe create(Path path) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("mkfifo", path.toString()).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes());
+        if (process.waitFor() != 0) {
+            throw new OrchException("Failed to create the named pipe " + path + ": " + output.trim());
+        }
+        return new NamedPipe(path);
+    }
+
+    /**
+     * Starts moving data through the pipe on a background thread.
+     *
+     * @param threadName The name of the thread.
+     * @param transfer   The transfer to run.
+     */
+    void start(String threadName, Transfer transfer) {
+        Thread started = new Thread(() -> {
+            try {
+                transfer.run(path);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }, threadName);
+        started.setDaemon(true);
+        started.start();
+        this.thread = started;
+    }
+
+    /**
+     * Unblocks the background thread if it is still waiting for the solver to open the pipe.
+     * Should be called once the solver has exited. Opening a pipe for both reading and writing does not block,
+     * and wakes up a thread waiting to open either end. A reader then sees the end of the data, a writer fails.
+     * Failing to open the pipe is ignored, as the thread cannot be waiting on a pipe that cannot be opened.
+     */
+    void release() {
+        if (thread != null && thread.isAlive()) {
+            try {
+                FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE).close();
+            } catch (IOException ignored) {
+                // Nothing to unblock.
+            }
+        }
+    }
+
+    /**
+     * Waits for the background thread to finish.
+     *
+     * @return The exception thrown by the transfer, or null if it succeeded.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    IOException join() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+        return failure;
+    }
+}
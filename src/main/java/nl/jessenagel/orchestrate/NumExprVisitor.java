@@ -42,4 +42,11 @@ public interface NumExprVisitor {
      * @param orchSumExpr The sum expression to visit
      */
     void visit(OrchSumExpr orchSumExpr);
+
+    /**
+     * Visits a linear expression builder.
+     *
+     * @param builder The linear expression builder to visit
+     */
+    void visit(LinearExprBuilder builder);
 }
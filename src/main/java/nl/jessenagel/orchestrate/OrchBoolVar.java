@@ -10,15 +10,36 @@ public class OrchBoolVar extends OrchIntVar {
      */
     NumVarType type = NumVarType.Bool;
     /**
-     * Constructs a new OrchBoolVar with default bounds [0, 1] and a generated name.
+     * Constructs a new OrchBoolVar with default bounds [0, 1] and no name.
      */
     public OrchBoolVar(int index) {
         super(index);
-        this.name = "BoolVar_" + OrchCounter.getNextVarCounter();
         this.max = 1;
         this.min = 0;
         this.index = index;
     }
 
+    /**
+     * Constructs a new OrchBoolVar belonging to a model, with default bounds [0, 1] and no name.
+     *
+     * @param model the model the BoolVar belongs to
+     * @param index the index of the BoolVar in the Orchestrate Model
+     */
+    OrchBoolVar(Orchestrate model, int index) {
+        this(index);
+        this.model = model;
+    }
+
+    /**
+     * Gets the name of the boolean variable.
+     * A variable that has not been named gets a default name derived from its column index.
+     *
+     * @return The name of the variable.
+     */
+    @Override
+    public String getName() {
+        return name != null ? name : "BoolVar_" + index;
+    }
+
 
 }
\ No newline at end of file
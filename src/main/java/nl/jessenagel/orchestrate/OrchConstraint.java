@@ -7,10 +7,15 @@ package nl.jessenagel.orchestrate;
  */
 public class OrchConstraint implements Constraint {
     /**
-     * The name of the constraint.
+     * The name of the constraint, or null if it has not been named.
      */
     String name;
 
+    /**
+     * The counter of the model that created this constraint, used to generate its name, or null.
+     */
+    OrchCounter counter;
+
     /**
      * The left-hand side numerical expression of the constraint.
      */
@@ -26,6 +31,18 @@ public class OrchConstraint implements Constraint {
      */
     ConstraintType type;
 
+    /**
+     * The index of the row of this constraint in the constraint matrix of its model, or -1 if it has none.
+     */
+    int row = -1;
+
+    /**
+     * The number of this constraint among the constraints of its model, used for its default name, or -1 if it has
+     * none yet. It is fixed when the constraint is first added, so the default name does not change when other rows
+     * are removed and this row moves up.
+     */
+    int id = -1;
+
     /**
      * Constructs a new OrchConstraint with the specified lhs, rhs, and type.
      *
@@ -37,29 +54,35 @@ public class OrchConstraint implements Constraint {
         this.lhs = lhs;
         this.rhs = rhs;
         this.type = type;
-        this.name = "Constraint_" + OrchCounter.getNextConstraintCounter();
     }
 
     /**
-     * Constructs a new OrchConstraint with a default name.
+     * Constructs a new, empty OrchConstraint.
      */
     OrchConstraint() {
-        this.name = "Constraint_" + OrchCounter.getNextConstraintCounter();
     }
 
     public OrchConstraint(Constraint constraint) {
-        this.name = constraint.getName() + "_" + OrchCounter.getNextConstraintCounter();
         constraint.accept(new OrchConstraintVisitor(this));
     }
 
     /**
      * Gets the name of the constraint.
      *
+     * A constraint that has not been named gets a default name derived from the number it got when it was added to
+     * its model, or when its name was first asked for if it has not been added yet.
+     *
      * @return The name of the constraint.
      */
     @Override
     public String getName() {
-        return name;
+        if (name != null) {
+            return name;
+        }
+        if (id < 0) {
+            id = OrchCounter.nextConstraint(counter);
+        }
+        return "Constraint_" + id;
     }
 
     /**
@@ -74,7 +97,7 @@ public class OrchConstraint implements Constraint {
 
     @Override
     public String toString() {
-        String result = name + ": ";
+        String result = getName() + ": ";
         result = result + lhs.toString() + " ";
         if (type == ConstraintType.Eq) {
             result = result + "= ";
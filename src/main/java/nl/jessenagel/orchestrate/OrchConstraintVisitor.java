@@ -71,10 +71,13 @@ public class OrchConstraintVisitor implements ConstraintVisitor {
      */
     @Override
     public void visit(OrchConstraint constraint) {
-        target.setName(constraint.getName());
+        target.name = constraint.name;
+        target.counter = constraint.counter;
         target.lhs = constraint.lhs;
         target.rhs = constraint.rhs;
         target.type = constraint.type;
+        target.row = constraint.row;
+        target.id = constraint.id;
     }
 
     /**
@@ -87,4 +90,15 @@ public class OrchConstraintVisitor implements ConstraintVisitor {
     public void visit(OrchSumExpr orchSumExpr) {
         throw new OrchException("Cannot visit OrchSumExpr in OrchConstraintVisitor");
     }
+
+    /**
+     * Rejects visits from linear expression builders as they are incompatible with constraints.
+     *
+     * @param builder The linear expression builder attempting to be visited
+     * @throws OrchException Always thrown with appropriate error message
+     */
+    @Override
+    public void visit(LinearExprBuilder builder) {
+        throw new OrchException("Cannot visit LinearExprBuilder in OrchConstraintVisitor");
+    }
 }
\ No newline at end of file
@@ -1,29 +1,101 @@
 package nl.jessenagel.orchestrate;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Utility class for managing counters.
+ * Every Orchestrate model owns an instance with plain fields, which numbers the generated names of the
+ * objects created through that model, so models built on different threads never contend with each other.
+ * The static counters are shared and only used for objects that were not created through a model.
  */
 public class OrchCounter {
-    private static int varCounter = 0;
-    private static int constraintCounter = 0;
-    private static int objCounter = 0;
+    private static final AtomicInteger globalVarCounter = new AtomicInteger();
+    private static final AtomicInteger globalConstraintCounter = new AtomicInteger();
+    private static final AtomicInteger globalObjCounter = new AtomicInteger();
+
+    private int varCounter = 0;
+    private int constraintCounter = 0;
+    private int objCounter = 0;
 
     /**
-     * Retrieves the next value of the global counter and increments it.
+     * Constructs a new OrchCounter with all counters at zero.
+     */
+    OrchCounter() {
+    }
+
+    /**
+     * Retrieves the next value of the expression counter of this model and increments it.
      *
      * @return The next value of the counter.
      */
-    public static synchronized int getNextVarCounter() {
+    int nextVar() {
         return varCounter++;
     }
 
+    /**
+     * Retrieves the next value of the constraint counter of this model and increments it.
+     *
+     * @return The next value of the constraint counter.
+     */
+    int nextConstraint() {
+        return constraintCounter++;
+    }
+
+    /**
+     * Retrieves the next value of the objective counter of this model and increments it.
+     *
+     * @return The next value of the objective counter.
+     */
+    int nextObj() {
+        return objCounter++;
+    }
+
+    /**
+     * Retrieves the next value of the expression counter of a model, or of the global counter if there is no model.
+     *
+     * @param counter The counter of the model, may be null.
+     * @return The next value of the counter.
+     */
+    static int nextVar(OrchCounter counter) {
+        return counter != null ? counter.nextVar() : getNextVarCounter();
+    }
+
+    /**
+     * Retrieves the next value of the constraint counter of a model, or of the global counter if there is no model.
+     *
+     * @param counter The counter of the model, may be null.
+     * @return The next value of the constraint counter.
+     */
+    static int nextConstraint(OrchCounter counter) {
+        return counter != null ? counter.nextConstraint() : getNextConstraintCounter();
+    }
+
+    /**
+     * Retrieves the next value of the objective counter of a model, or of the global counter if there is no model.
+     *
+     * @param counter The counter of the model, may be null.
+     * @return The next value of the objective counter.
+     */
+    static int nextObj(OrchCounter counter) {
+        return counter != null ? counter.nextObj() : getNextObjCounter();
+    }
+
+    /**
+     * Retrieves the next value of the global counter and increments it.
+     *
+     * @return The next value of the counter.
+     */
+    public static int getNextVarCounter() {
+        return globalVarCounter.getAndIncrement();
+    }
+
     /**
      * Retrieves the current value of the global counter without incrementing it.
      *
      * @return The current value of the counter.
      */
-    public static synchronized int getCurrentVarCounter() {
-        return varCounter;
+    public static int getCurrentVarCounter() {
+        return globalVarCounter.get();
     }
 
     /**
@@ -31,8 +103,8 @@ public class OrchCounter {
      *
      * @return The next value of the constraint counter.
      */
-    public static synchronized int getNextConstraintCounter() {
-        return constraintCounter++;
+    public static int getNextConstraintCounter() {
+        return globalConstraintCounter.getAndIncrement();
     }
 
     /**
@@ -40,8 +112,8 @@ public class OrchCounter {
      *
      * @return The current value of the constraint counter.
      */
-    public static synchronized int getCurrentConstraintCounter() {
-        return constraintCounter;
+    public static int getCurrentConstraintCounter() {
+        return globalConstraintCounter.get();
     }
 
     /**
@@ -49,8 +121,8 @@ public class OrchCounter {
      *
      * @return The next value of the objective counter.
      */
-    public static synchronized int getNextObjCounter() {
-        return objCounter++;
+    public static int getNextObjCounter() {
+        return globalObjCounter.getAndIncrement();
     }
 
     /**
@@ -58,7 +130,7 @@ public class OrchCounter {
      *
      * @return The current value of the objective counter.
      */
-    public static synchronized int getCurrentObjCounter() {
-        return objCounter;
+    public static int getCurrentObjCounter() {
+        return globalObjCounter.get();
     }
 }
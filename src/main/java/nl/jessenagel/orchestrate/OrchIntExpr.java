@@ -15,6 +15,11 @@ public class OrchIntExpr implements IntExpr {
      */
     String name;
 
+    /**
+     * The counter of the model that created this expression, used to generate its name, or null.
+     */
+    OrchCounter counter;
+
     /**
      * An array of coefficients for the integer variables in the expression.
      */
@@ -32,11 +37,15 @@ public class OrchIntExpr implements IntExpr {
 
     /**
      * Gets the name of the integer expression.
+     * Unnamed expressions get a generated name on the first call.
      *
      * @return The name of the expression.
      */
     @Override
     public String getName() {
+        if (name == null) {
+            name = "IntExpr_" + OrchCounter.nextVar(counter);
+        }
         return name;
     }
 
@@ -52,16 +61,29 @@ public class OrchIntExpr implements IntExpr {
 
     /**
      * Constructs a new OrchIntExpr with no variables, coefficients, or constant.
-     * The name is generated automatically.
+     * A name is generated when it is first requested.
      */
     OrchIntExpr() {
-        this.name = "IntExpr_" + OrchCounter.getNextVarCounter();
         this.variables = new int[1];
         this.coefficients = new double[1];
         this.constant = 0;
         this.numberOfVariables = 0;
     }
 
+    /**
+     * Constructs a new OrchIntExpr from flattened terms. The arrays are used as-is and not copied.
+     *
+     * @param variables    The column indices of the variables, without duplicates.
+     * @param coefficients The coefficients of the variables.
+     * @param constant     The constant term.
+     */
+    OrchIntExpr(int[] variables, double[] coefficients, int constant) {
+        this.variables = variables;
+        this.coefficients = coefficients;
+        this.constant = constant;
+        this.numberOfVariables = variables.length;
+    }
+
     /**
      * Constructs a new OrchIntExpr by copying an existing integer expression.
      *
@@ -69,7 +91,6 @@ public class OrchIntExpr implements IntExpr {
      * @throws OrchException If the expression type is invalid.
      */
     OrchIntExpr(IntExpr expr) {
-        this.name = expr.getName() + "_" + OrchCounter.getNextVarCounter();
         expr.accept(new OrchIntExprVisitor(this));
     }
 
@@ -2,8 +2,6 @@ package nl.jessenagel.orchestrate;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  * Implementation of the IntExprVisitor interface for integer expressions.
@@ -48,6 +46,7 @@ public class OrchIntExprVisitor implements IntExprVisitor {
         target.coefficients = expr.coefficients;
         target.constant = expr.constant;
         target.numberOfVariables = expr.numberOfVariables;
+        target.counter = expr.counter;
     }
 
     /**
@@ -98,45 +97,47 @@ public class OrchIntExprVisitor implements IntExprVisitor {
      */
     @Override
     public void visit(OrchSumExpr orchSumExpr) {
-        Map<Integer, Double> tempVariablesAndCoefficients = new LinkedHashMap<>();
-        int tempConstant = 0;
-
-        Deque<NumExpr> stack = new ArrayDeque<>(orchSumExpr.exprs);
-        while (!stack.isEmpty()) {
-            NumExpr expr = stack.pop();
-            if (expr instanceof OrchSumExpr) {
-                stack.addAll(((OrchSumExpr) expr).exprs);
-            } else if (expr instanceof OrchNumExpr expr_cast) {
-                for (int i = 0; i < expr_cast.variables.length; i++) {
-                    int finalI = i;
-                    tempVariablesAndCoefficients.compute(expr_cast.variables[i], (k, v) -> v == null ? expr_cast.coefficients[finalI] : v + expr_cast.coefficients[finalI]);
-                }
-                tempConstant += expr_cast.constant;
-            } else if (expr instanceof OrchIntExpr expr_cast) {
-                for (int i = 0; i < expr_cast.variables.length; i++) {
-                    int finalI = i;
-                    tempVariablesAndCoefficients.compute(expr_cast.variables[i], (k, v) -> v == null ? expr_cast.coefficients[finalI] : v + expr_cast.coefficients[finalI]);
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            int tempConstant = 0;
+            Deque<NumExpr> stack = new ArrayDeque<>(orchSumExpr.exprs);
+            while (!stack.isEmpty()) {
+                NumExpr expr = stack.pop();
+                if (expr instanceof OrchSumExpr) {
+                    stack.addAll(((OrchSumExpr) expr).exprs);
+                } else if (expr instanceof OrchNumExpr expr_cast) {
+                    accumulator.addAll(expr_cast.variables, expr_cast.coefficients, expr_cast.numberOfVariables, 1.0);
+                    tempConstant += expr_cast.constant;
+                } else if (expr instanceof OrchIntExpr expr_cast) {
+                    accumulator.addAll(expr_cast.variables, expr_cast.coefficients, expr_cast.numberOfVariables, 1.0);
+                    tempConstant += expr_cast.constant;
+                } else if (expr instanceof OrchNumVar numVar) {
+                    accumulator.add(numVar.getIndex(), 1.0);
+                } else if (expr instanceof OrchIntVar intVar) {
+                    accumulator.add(intVar.getIndex(), 1.0);
+                } else {
+                    throw new OrchException("Unsupported expression type: " + expr.getClass().getSimpleName());
                 }
-                tempConstant += expr_cast.constant;
-            } else if (expr instanceof OrchNumVar numVar) {
-                tempVariablesAndCoefficients.merge(numVar.getIndex(), 1.0, Double::sum);
-            } else if (expr instanceof OrchIntVar intVar) {
-                tempVariablesAndCoefficients.merge(intVar.getIndex(), 1.0, Double::sum);
-            } else {
-                throw new OrchException("Unsupported expression type: " + expr.getClass().getSimpleName());
             }
-        }
 
-        // Create final arrays from the consolidated map
-        target.coefficients = new double[tempVariablesAndCoefficients.size()];
-        target.variables = new int[tempVariablesAndCoefficients.size()];
-        int index = 0;
-        for (Map.Entry<Integer, Double> entry : tempVariablesAndCoefficients.entrySet()) {
-            target.variables[index] = entry.getKey();
-            target.coefficients[index] = entry.getValue();
-            index++;
+            // Create final arrays from the consolidated terms
+            target.variables = accumulator.variablesToArray();
+            target.coefficients = accumulator.coefficientsToArray();
+            target.constant = tempConstant;
+            target.numberOfVariables = accumulator.size();
+        } finally {
+            accumulator.release();
         }
-        target.constant = tempConstant;
-        target.numberOfVariables = tempVariablesAndCoefficients.size();
+    }
+
+    /**
+     * Rejects visits from linear expression builders as they hold numerical rather than integer terms.
+     *
+     * @param builder The linear expression builder attempting to be visited
+     * @throws OrchException Always thrown with appropriate error message
+     */
+    @Override
+    public void visit(LinearExprBuilder builder) {
+        throw new OrchException("Cannot visit LinearExprBuilder in OrchIntExprVisitor");
     }
 }
\ No newline at end of file
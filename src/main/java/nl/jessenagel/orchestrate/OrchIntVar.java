@@ -14,6 +14,11 @@ public class OrchIntVar implements IntVar {
      * The unique identifier for the integer variable. This is the column index in the model.
      */
     int index;
+
+    /**
+     * The model this variable belongs to, or null if it was created outside a model.
+     */
+    Orchestrate model;
     /**
      * The maximum bound of the integer variable.
      */
@@ -31,18 +36,28 @@ public class OrchIntVar implements IntVar {
 
 
     /**
-     * Constructs a new OrchIntVar with default bounds and a generated name.
+     * Constructs a new OrchIntVar with default bounds and no name.
      * The minimum bound is set to 0, and the maximum bound is set to Integer.MAX_VALUE.
      *
      * @param index the index of the IntVar in the Orchestrate Model
      */
     public OrchIntVar(int index) {
         this.index = index;
-        this.name = "IntVar_" + OrchCounter.getNextVarCounter();
         this.max = Integer.MAX_VALUE;
         this.min = 0;
     }
 
+    /**
+     * Constructs a new OrchIntVar belonging to a model, with default bounds and no name.
+     *
+     * @param model the model the IntVar belongs to
+     * @param index the index of the IntVar in the Orchestrate Model
+     */
+    OrchIntVar(Orchestrate model, int index) {
+        this(index);
+        this.model = model;
+    }
+
     /**
      * Constructs a new OrchIntVar with specified minimum and maximum bounds.
      *
@@ -51,7 +66,7 @@ public class OrchIntVar implements IntVar {
      * @param max   The maximum bound of the integer variable.
      */
     public OrchIntVar(int index, int min, int max) {
-        this.name = "IntVar_" + OrchCounter.getNextVarCounter();
+        this.index = index;
         this.max = max;
         this.min = min;
     }
@@ -64,7 +79,7 @@ public class OrchIntVar implements IntVar {
      * @param max   The maximum bound of the integer variable.
      */
     public OrchIntVar(int index, int max) {
-        this.name = "IntVar_" + OrchCounter.getNextVarCounter();
+        this.index = index;
         this.max = max;
         this.min = 0;
     }
@@ -171,12 +186,13 @@ public class OrchIntVar implements IntVar {
 
     /**
      * Gets the name of the integer variable.
+     * A variable that has not been named gets a default name derived from its column index.
      *
      * @return The name of the variable.
      */
     @Override
     public String getName() {
-        return name;
+        return name != null ? name : "IntVar_" + index;
     }
 
     /**
@@ -191,7 +207,7 @@ public class OrchIntVar implements IntVar {
 
     @Override
     public String toString() {
-        return name;
+        return getName();
     }
 
     @Override
@@ -204,6 +220,25 @@ public class OrchIntVar implements IntVar {
         return index;
     }
 
+    /**
+     * Two variables are equal if they belong to the same model and have the same column index.
+     *
+     * @param obj The object to compare with.
+     * @return Whether the object is the same variable.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        OrchIntVar intVar = (OrchIntVar) obj;
+        return index == intVar.index && model == intVar.model;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(model) + index;
+    }
+
     @Override
     public void accept(IntExprVisitor visitor) {
         visitor.visit(this);
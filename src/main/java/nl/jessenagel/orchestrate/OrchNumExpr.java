@@ -13,6 +13,11 @@ public class OrchNumExpr implements NumExpr {
      */
     String name;
 
+    /**
+     * The counter of the model that created this expression, used to generate its name, or null.
+     */
+    OrchCounter counter;
+
     /**
      * An array of coefficients for the integer variables in the expression.
      */
@@ -35,7 +40,6 @@ public class OrchNumExpr implements NumExpr {
      * @throws OrchException If the expression type is invalid.
      */
     public OrchNumExpr(NumExpr expr) {
-        name = expr.getName() + "_" + OrchCounter.getNextVarCounter();
         expr.accept(new OrchNumExprVisitor(this));
     }
 
@@ -45,7 +49,6 @@ public class OrchNumExpr implements NumExpr {
      * @param var The variable to include in the expression.
      */
     public OrchNumExpr(int var) {
-        this.name = "NumExpr_" + OrchCounter.getNextVarCounter();
         this.coefficients = new double[1];
         this.variables = new int[1];
         this.coefficients[0] = 1.0;
@@ -58,13 +61,26 @@ public class OrchNumExpr implements NumExpr {
      * Constructs a new OrchNumExpr with no variables, coefficients, or constant.
      */
     OrchNumExpr() {
-        this.name = "NumExpr_" + OrchCounter.getNextVarCounter();
         this.coefficients = new double[0];
         this.variables = new int[0];
         this.constant = 0.0;
         this.numberOfVariables = 0;
     }
 
+    /**
+     * Constructs a new OrchNumExpr from flattened terms. The arrays are used as-is and not copied.
+     *
+     * @param variables    The column indices of the variables, without duplicates.
+     * @param coefficients The coefficients of the variables.
+     * @param constant     The constant term.
+     */
+    OrchNumExpr(int[] variables, double[] coefficients, double constant) {
+        this.variables = variables;
+        this.coefficients = coefficients;
+        this.constant = constant;
+        this.numberOfVariables = variables.length;
+    }
+
     @Override
     public void accept(NumExprVisitor visitor) {
         visitor.visit(this);
@@ -72,11 +88,15 @@ public class OrchNumExpr implements NumExpr {
 
     /**
      * Gets the name of the numerical expression.
+     * Unnamed expressions get a generated name on the first call.
      *
      * @return The name of the expression.
      */
     @Override
     public String getName() {
+        if (name == null) {
+            name = "NumExpr_" + OrchCounter.nextVar(counter);
+        }
         return name;
     }
 
@@ -2,9 +2,6 @@ package nl.jessenagel.orchestrate;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * Implementation of the NumExprVisitor interface for numerical expressions.
@@ -37,6 +34,7 @@ public class OrchNumExprVisitor implements NumExprVisitor {
         target.coefficients = expr.coefficients.clone();
         target.constant = expr.constant;
         target.numberOfVariables = expr.numberOfVariables;
+        target.counter = expr.counter;
     }
 
     /**
@@ -51,6 +49,7 @@ public class OrchNumExprVisitor implements NumExprVisitor {
         target.coefficients = expr.coefficients.clone();
         target.constant = (double) expr.constant;
         target.numberOfVariables = expr.numberOfVariables;
+        target.counter = expr.counter;
     }
 
     /**
@@ -105,45 +104,49 @@ public class OrchNumExprVisitor implements NumExprVisitor {
      */
     @Override
     public void visit(OrchSumExpr orchSumExpr) {
-        Map<Integer, Double> tempVariablesAndCoefficients = new LinkedHashMap<>();
-        double tempConstant = 0.0;
-
-        Deque<NumExpr> stack = new ArrayDeque<>(orchSumExpr.exprs);
-        while (!stack.isEmpty()) {
-            NumExpr expr = stack.pop();
-            if (expr instanceof OrchSumExpr) {
-                stack.addAll(((OrchSumExpr) expr).exprs);
-            } else if (expr instanceof OrchNumExpr expr_cast) {
-                for (int i = 0; i < expr_cast.variables.length; i++) {
-                    int finalI = i;
-                    tempVariablesAndCoefficients.compute(expr_cast.variables[i], (k, v) -> v == null ? expr_cast.coefficients[finalI] : v + expr_cast.coefficients[finalI]);
-                }
-                tempConstant += expr_cast.constant;
-            } else if (expr instanceof OrchIntExpr expr_cast) {
-                for (int i = 0; i < expr_cast.variables.length; i++) {
-                    int finalI = i;
-                    tempVariablesAndCoefficients.compute(expr_cast.variables[i], (k, v) -> v == null ? expr_cast.coefficients[finalI] : v + expr_cast.coefficients[finalI]);
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            Deque<NumExpr> stack = new ArrayDeque<>(orchSumExpr.exprs);
+            while (!stack.isEmpty()) {
+                NumExpr expr = stack.pop();
+                if (expr instanceof OrchSumExpr) {
+                    stack.addAll(((OrchSumExpr) expr).exprs);
+                } else if (expr instanceof OrchNumExpr expr_cast) {
+                    accumulator.addAll(expr_cast.variables, expr_cast.coefficients, expr_cast.numberOfVariables, 1.0);
+                    accumulator.constant += expr_cast.constant;
+                } else if (expr instanceof OrchIntExpr expr_cast) {
+                    accumulator.addAll(expr_cast.variables, expr_cast.coefficients, expr_cast.numberOfVariables, 1.0);
+                    accumulator.constant += expr_cast.constant.doubleValue();
+                } else if (expr instanceof LinearExprBuilder builder) {
+                    accumulator.addAll(builder.variables, builder.coefficients, builder.numberOfTerms, 1.0);
+                    accumulator.constant += builder.constant;
+                } else if (expr instanceof OrchNumVar numVar) {
+                    accumulator.add(numVar.getIndex(), 1.0);
+                } else if (expr instanceof OrchIntVar intVar) {
+                    accumulator.add(intVar.getIndex(), 1.0);
+                } else {
+                    throw new OrchException("Unsupported expression type: " + expr.getClass().getSimpleName());
                 }
-                tempConstant += expr_cast.constant.doubleValue();
-            } else if (expr instanceof OrchNumVar numVar) {
-                tempVariablesAndCoefficients.merge(numVar.getIndex(), 1.0, Double::sum);
-            } else if (expr instanceof OrchIntVar intVar) {
-                tempVariablesAndCoefficients.merge(intVar.getIndex(), 1.0, Double::sum);
-            } else {
-                throw new OrchException("Unsupported expression type: " + expr.getClass().getSimpleName());
             }
-        }
 
-        // Create final arrays from the consolidated map
-        target.coefficients = new double[tempVariablesAndCoefficients.size()];
-        target.variables = new int[tempVariablesAndCoefficients.size()];
-        int index = 0;
-        for (Entry<Integer, Double> entry : tempVariablesAndCoefficients.entrySet()) {
-            target.variables[index] = entry.getKey();
-            target.coefficients[index] = entry.getValue();
-            index++;
+            // Create final arrays from the consolidated terms
+            target.variables = accumulator.variablesToArray();
+            target.coefficients = accumulator.coefficientsToArray();
+            target.constant = accumulator.constant;
+            target.numberOfVariables = accumulator.size();
+        } finally {
+            accumulator.release();
         }
-        target.constant = tempConstant;
-        target.numberOfVariables = tempVariablesAndCoefficients.size();
+    }
+
+    /**
+     * Copies the terms of a linear expression builder to the target.
+     * The variables are sorted by column index and duplicate variables are merged.
+     *
+     * @param builder The linear expression builder to copy data from
+     */
+    @Override
+    public void visit(LinearExprBuilder builder) {
+        builder.copyTo(target);
     }
 }
\ No newline at end of file
@@ -1,17 +1,23 @@
 package nl.jessenagel.orchestrate;
 
-import java.util.Objects;
-
 /**
  * Represents a numerical variable in the Orchestrate model.
  * A numerical variable has a name, lower bound, and upper bound.
  */
 public class OrchNumVar implements NumVar {
     /**
-     * The name of the numerical variable.
+     * The name of the numerical variable, or null if it has not been named.
      */
     String name;
 
+    /**
+     * The model this variable belongs to.
+     */
+    final Orchestrate model;
+
+    /**
+     * The column index of the variable in its model.
+     */
     private final int index;
 
     /**
@@ -25,14 +31,17 @@ public class OrchNumVar implements NumVar {
     double ub;
 
     /**
-     * Constructs a new OrchNumVar with default bounds and a generated name.
+     * Constructs a new OrchNumVar with default bounds and no name.
      * The lower bound is set to 0, and the upper bound is set to Double.MAX_VALUE.
+     *
+     * @param model the model the NumVar belongs to
+     * @param index the index of the NumVar in the Orchestrate Model
      */
-    OrchNumVar(int index) {
-        this.name = "NumVar_" + OrchCounter.getNextVarCounter();
+    OrchNumVar(Orchestrate model, int index) {
         this.lb = 0;
         this.ub = Double.MAX_VALUE;
         this.index = index;
+        this.model = model;
     }
 
     /**
@@ -67,12 +76,13 @@ public class OrchNumVar implements NumVar {
 
     /**
      * Gets the name of the numerical variable.
+     * A variable that has not been named gets a default name derived from its column index.
      *
      * @return The name of the variable.
      */
     @Override
     public String getName() {
-        return name;
+        return name != null ? name : "NumVar_" + index;
     }
 
     /**
@@ -115,17 +125,23 @@ public class OrchNumVar implements NumVar {
         visitor.visit(this);
     }
 
+    /**
+     * Two variables are equal if they belong to the same model and have the same column index.
+     *
+     * @param obj The object to compare with.
+     * @return Whether the object is the same variable.
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
-        NumVar numVar = (NumVar) obj;
-        return Objects.equals(name, numVar.getName()); // Compare based on variable name
+        OrchNumVar numVar = (OrchNumVar) obj;
+        return index == numVar.index && model == numVar.model;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name); // Generate hash based on variable name
+        return 31 * System.identityHashCode(model) + index;
     }
 
     public int getIndex() {
@@ -10,6 +10,11 @@ public class OrchObjective implements Objective {
      */
     String name;
 
+    /**
+     * The counter of the model that created this objective, used to generate its name, or null.
+     */
+    OrchCounter counter;
+
     /**
      * The numerical expression representing the objective.
      */
@@ -22,7 +27,7 @@ public class OrchObjective implements Objective {
 
     /**
      * Constructs a new OrchObjective with the specified expression and sense.
-     * The name is generated automatically.
+     * A name is generated when it is first requested.
      *
      * @param expr  The numerical expression representing the objective.
      * @param sense The sense of the objective (maximize or minimize).
@@ -30,7 +35,6 @@ public class OrchObjective implements Objective {
     public OrchObjective(NumExpr expr, ObjectiveSense sense) {
         this.expr = expr;
         this.sense = sense;
-        this.name = "Objective_" + OrchCounter.getNextObjCounter();
     }
 
     @Override
@@ -52,6 +56,9 @@ public class OrchObjective implements Objective {
         if (expr instanceof OrchIntExpr expr_cast) {
             return expr_cast.constant.doubleValue();
         }
+        if (expr instanceof LinearExprBuilder expr_cast) {
+            return expr_cast.getConstant();
+        }
         if (expr instanceof OrchSumExpr expr_cast) {
             return new OrchNumExpr(expr_cast).constant;
         }
@@ -90,11 +97,15 @@ public class OrchObjective implements Objective {
 
     /**
      * Gets the name of the objective.
+     * If no name was set, one is generated on the first call.
      *
      * @return The name of the objective.
      */
     @Override
     public String getName() {
+        if (name == null) {
+            name = "Objective_" + OrchCounter.nextObj(counter);
+        }
         return name;
     }
 
@@ -6,6 +6,7 @@ import java.util.List;
 public class OrchSumExpr implements NumExpr, IntExpr{
     String name;
     List<NumExpr> exprs;
+    OrchCounter counter;
 
     public OrchSumExpr(String name, List<NumExpr> exprs) {
         this.name = name;
@@ -17,7 +18,6 @@ public class OrchSumExpr implements NumExpr, IntExpr{
     }
 
     public OrchSumExpr() {
-        this.name = "SumExpr_" + OrchCounter.getNextVarCounter();
         this.exprs = new ArrayList<>();
     }
     @Override
@@ -27,6 +27,9 @@ public class OrchSumExpr implements NumExpr, IntExpr{
 
     @Override
     public String getName() {
+        if (name == null) {
+            name = "SumExpr_" + OrchCounter.nextVar(counter);
+        }
         return name;
     }
 
@@ -4,7 +4,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
 import java.util.Map.Entry;
 import nl.jessenagel.jhighs.*;
 /**
@@ -16,11 +26,33 @@ import nl.jessenagel.jhighs.*;
 public class Orchestrate implements Modeler {
     final Logger logger = LoggerFactory.getLogger(Orchestrate.class);
     private final List<Constraint> constraints;
+    private final ConstraintMatrix matrix;
+    private final List<OrchConstraint> pendingRows;
+    private ForkJoinPool normalizationPool;
     private final List<NumVar> variables;
-    private final Map<NumVar, Integer> varToIndex;
-    private final Map<NumVar, Double> solutionValues;
+    private final BitSet removedColumns;
+    private double[] solutionValues;
+    private double[] reducedCosts;
+    private double[] rowActivities;
+    private double[] dualValues;
+    private byte[] columnBasis;
+    private byte[] rowBasis;
+    private ForkJoinPool solutionImportPool;
+    private ForkJoinPool exportPool;
+    private File solverStdout;
+    private File solverStderr;
+    private Duration solverTimeout;
+    private File solverWorkDirectory;
+    private boolean solverPipes;
+    private ModelFormat solverFileFormat;
+    private boolean presolve;
+    private volatile ExternalSolver activeSolver;
+    private HiGHS highs;
+    private ModelData loadedData;
+    private int loadedRows;
     private String name;
     private OrchObjective objective;
+    private final OrchCounter counter;
     private int varCounter = 0;
     private int constraintCounter = 0;
     private double objectiveValue;
@@ -32,10 +64,13 @@ public class Orchestrate implements Modeler {
     public Orchestrate() {
         this.name = "Orchestrate";
         this.constraints = new ArrayList<>();
+        this.matrix = new ConstraintMatrix();
+        this.pendingRows = new ArrayList<>();
         this.variables = new ArrayList<>();
-        this.solutionValues = new HashMap<>();
+        this.removedColumns = new BitSet();
+        this.counter = new OrchCounter();
+        this.solverFileFormat = ModelFormat.Lp;
         this.status = Status.Unknown;
-        this.varToIndex = new HashMap<>();
     }
 
     /**
@@ -47,9 +82,7 @@ public class Orchestrate implements Modeler {
      */
     @Override
     public Constraint addEq(NumExpr lhs, NumExpr rhs) {
-        OrchConstraint constraint = new OrchConstraint(lhs, rhs, ConstraintType.Eq);
-        constraints.add(constraint);
-        return constraint;
+        return addConstraint(snapshot(lhs), snapshot(rhs), ConstraintType.Eq);
     }
 
     /**
@@ -60,9 +93,7 @@ public class Orchestrate implements Modeler {
      * @return The created equality constraint.
      */
     public Constraint addEq(NumExpr lhs, int i) {
-        OrchConstraint constraint = new OrchConstraint(lhs, constant(i), ConstraintType.Eq);
-        constraints.add(constraint);
-        return constraint;
+        return addConstraint(snapshot(lhs), constant(i), ConstraintType.Eq);
     }
 
     /**
@@ -74,9 +105,7 @@ public class Orchestrate implements Modeler {
      */
     @Override
     public Constraint addLe(NumExpr lhs, NumExpr rhs) {
-        OrchConstraint constraint = new OrchConstraint(lhs, rhs, ConstraintType.Le);
-        constraints.add(constraint);
-        return constraint;
+        return addConstraint(snapshot(lhs), snapshot(rhs), ConstraintType.Le);
     }
 
     /**
@@ -88,11 +117,76 @@ public class Orchestrate implements Modeler {
      */
     @Override
     public Constraint addGe(NumExpr lhs, NumExpr rhs) {
-        OrchConstraint constraint = new OrchConstraint(lhs, rhs, ConstraintType.Ge);
-        constraints.add(constraint);
+        return addConstraint(snapshot(lhs), snapshot(rhs), ConstraintType.Ge);
+    }
+
+    /**
+     * Creates a constraint and adds it to the model.
+     *
+     * @param lhs  The left-hand side numerical expression.
+     * @param rhs  The right-hand side numerical expression.
+     * @param type The type of the constraint.
+     * @return The created constraint.
+     * @throws OrchException If the constraint type or an expression type is invalid.
+     */
+    private OrchConstraint addConstraint(NumExpr lhs, NumExpr rhs, ConstraintType type) {
+        OrchConstraint constraint = new OrchConstraint(lhs, rhs, type);
+        constraint.counter = counter;
+        addRow(constraint);
         return constraint;
     }
 
+    /**
+     * Normalizes a constraint into a new row of the constraint matrix and adds it to the model.
+     * All variables are moved to the left-hand side and all constants to the bounds of the row,
+     * so the expressions do not have to be flattened again when the model is solved or exported.
+     * When a normalization pool is set, the constraint only gets its row here and is normalized later,
+     * together with the other pending constraints.
+     *
+     * @param constraint The constraint to add.
+     * @throws OrchException If the constraint type or an expression type is invalid.
+     */
+    private void addRow(OrchConstraint constraint) {
+        if (constraint.id < 0) {
+            constraint.id = counter.nextConstraint();
+        }
+        if (normalizationPool != null || !pendingRows.isEmpty()) {
+            constraint.row = constraints.size();
+            pendingRows.add(constraint);
+        } else {
+            constraint.row = RowNormalizer.normalize(matrix, constraint);
+        }
+        constraints.add(constraint);
+    }
+
+    /**
+     * Normalizes the constraints that were added while a normalization pool was set, in parallel on that pool.
+     *
+     * @throws OrchException If a constraint type or an expression type is invalid.
+     */
+    private void normalizePendingRows() {
+        if (pendingRows.isEmpty()) {
+            return;
+        }
+        RowNormalizer.normalizeAll(matrix, pendingRows, normalizationPool);
+        pendingRows.clear();
+    }
+
+    /**
+     * Sets the pool on which constraints are normalized into rows of the constraint matrix.
+     * Without a pool every constraint is normalized when it is added. With a pool, adding a constraint only records it,
+     * and all recorded constraints are normalized in parallel chunks when the model is next solved, exported or changed
+     * through {@link #remove(Fragment)}. An invalid expression is then reported at that point instead of when it is added.
+     *
+     * @param pool The pool to normalize constraints on, or null to normalize every constraint when it is added.
+     */
+    public void setNormalizationPool(ForkJoinPool pool) {
+        if (pool == null) {
+            normalizePendingRows();
+        }
+        this.normalizationPool = pool;
+    }
+
     /**
      * Sums an integer value and an integer expression.
      *
@@ -103,6 +197,7 @@ public class Orchestrate implements Modeler {
     @Override
     public IntExpr sum(int v, IntExpr e) {
         OrchIntExpr sum = new OrchIntExpr(e);
+        sum.counter = counter;
         sum.constant += v;
         return sum;
     }
@@ -129,6 +224,7 @@ public class Orchestrate implements Modeler {
     @Override
     public IntExpr sum(IntExpr e1, IntExpr e2) {
         OrchSumExpr sum = new OrchSumExpr();
+        sum.counter = counter;
         sum.exprs.add(e1);
         sum.exprs.add(e2);
         return sum;
@@ -144,6 +240,7 @@ public class Orchestrate implements Modeler {
     @Override
     public NumExpr sum(double v, NumExpr e) {
         OrchNumExpr sum = new OrchNumExpr(e);
+        sum.counter = counter;
         sum.constant += v;
         return sum;
     }
@@ -171,11 +268,98 @@ public class Orchestrate implements Modeler {
     @Override
     public NumExpr sum(NumExpr e1, NumExpr e2) {
         OrchSumExpr sum = new OrchSumExpr();
-        sum.exprs.add(e1);
-        sum.exprs.add(e2);
+        sum.counter = counter;
+        sum.exprs.add(snapshot(e1));
+        sum.exprs.add(snapshot(e2));
         return sum;
     }
 
+    /**
+     * Sums an array of numerical expressions into a single flattened expression.
+     *
+     * @param exprs The numerical expressions to sum.
+     * @return The resulting numerical expression.
+     * @throws OrchException If an expression type is invalid.
+     */
+    public NumExpr sum(NumExpr[] exprs) {
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            for (NumExpr expr : exprs) {
+                accumulate(accumulator, expr, 1.0);
+            }
+            return toNumExpr(accumulator);
+        } finally {
+            accumulator.release();
+        }
+    }
+
+    /**
+     * Sums an array of numerical variables into a single flattened expression.
+     *
+     * @param vars The numerical variables to sum.
+     * @return The resulting numerical expression.
+     * @throws OrchException If a variable type is invalid.
+     */
+    public NumExpr sum(NumVar[] vars) {
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            for (NumVar var : vars) {
+                accumulator.add(indexOf(var), 1.0);
+            }
+            return toNumExpr(accumulator);
+        } finally {
+            accumulator.release();
+        }
+    }
+
+    /**
+     * Creates the scalar product of an array of coefficients and an array of numerical variables.
+     *
+     * @param coefs The coefficients.
+     * @param vars  The numerical variables.
+     * @return The resulting numerical expression.
+     * @throws OrchException If the arrays differ in length or a variable type is invalid.
+     */
+    public NumExpr scalProd(double[] coefs, NumVar[] vars) {
+        if (coefs.length != vars.length) {
+            throw new OrchException("Length mismatch: " + coefs.length + " coefficients and " + vars.length + " variables");
+        }
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            for (int i = 0; i < vars.length; i++) {
+                accumulator.add(indexOf(vars[i]), coefs[i]);
+            }
+            return toNumExpr(accumulator);
+        } finally {
+            accumulator.release();
+        }
+    }
+
+    /**
+     * Creates the scalar product of an array of integer coefficients and an array of integer variables.
+     *
+     * @param coefs The integer coefficients.
+     * @param vars  The integer variables.
+     * @return The resulting integer expression.
+     * @throws OrchException If the arrays differ in length or a variable type is invalid.
+     */
+    public IntExpr scalProd(int[] coefs, IntVar[] vars) {
+        if (coefs.length != vars.length) {
+            throw new OrchException("Length mismatch: " + coefs.length + " coefficients and " + vars.length + " variables");
+        }
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            for (int i = 0; i < vars.length; i++) {
+                accumulator.add(indexOf(vars[i]), coefs[i]);
+            }
+            OrchIntExpr expr = new OrchIntExpr(accumulator.variablesToArray(), accumulator.coefficientsToArray(), 0);
+            expr.counter = counter;
+            return expr;
+        } finally {
+            accumulator.release();
+        }
+    }
+
     /**
      * Gets the name of the model.
      *
@@ -198,452 +382,944 @@ public class Orchestrate implements Modeler {
 
     /**
      * Adds a fragment to the model.
-     * <b>This method has not been implemented</b>
+     * A constraint that is not part of the model, for example because it was removed, is added as a new row.
+     * A removed variable of this model is restored, and an objective replaces the objective of the model.
+     * Adding a fragment that is already part of the model has no effect.
+     *
      * @param fragment The fragment to add.
      * @return The added fragment.
+     * @throws OrchException If the fragment cannot be added to this model.
      */
     @Override
     public Fragment add(Fragment fragment) {
-        // TODO Auto-generated method stub
-        return null;
+        if (fragment instanceof OrchConstraint constraint_cast) {
+            if (!isActive(constraint_cast)) {
+                if (constraint_cast.counter != counter) {
+                    constraint_cast.counter = counter;
+                    constraint_cast.id = -1;
+                }
+                addRow(constraint_cast);
+            }
+        } else if (fragment instanceof NumVar var_cast) {
+            removedColumns.clear(columnOf(var_cast));
+        } else if (fragment instanceof OrchObjective objective_cast) {
+            this.objective = objective_cast;
+        } else {
+            throw new OrchException("Cannot add a fragment of type " + fragment.getClass() + " to the model");
+        }
+        return fragment;
     }
 
     /**
-     * Adds multiple fragments to the model.
-     * <b>This method has not been implemented</b>
+     * Adds multiple fragments to the model, see {@link #add(Fragment)}.
+     *
      * @param fragment An array of fragments to add.
-     * @return An array of added fragments.
+     * @return The added fragments.
+     * @throws OrchException If a fragment cannot be added to this model.
      */
     @Override
     public Fragment[] add(Fragment[] fragment) {
-        // TODO Auto-generated method stub
-        return null;
+        for (Fragment f : fragment) {
+            add(f);
+        }
+        return fragment;
     }
 
     /**
      * Removes a fragment from the model.
+     * A removed constraint only marks its row, the rows are dropped together when the model is next solved,
+     * exported or a solution is imported. The remaining constraints then move up, their solution values and
+     * dual values stay available through the constraints themselves.
+     * A removed variable is fixed at zero, which is the same as removing it from all constraints and the objective,
+     * so the columns of the other variables do not change. Removing the objective leaves the model without one.
+     * Removing a fragment that is not part of the model has no effect.
      *
      * @param fragment The fragment to remove.
      * @return The removed fragment.
+     * @throws OrchException If the fragment cannot be removed from this model.
      */
     @Override
     public Fragment remove(Fragment fragment) {
-        // TODO Auto-generated method stub
-        return null;
+        if (fragment instanceof OrchConstraint constraint_cast) {
+            if (isActive(constraint_cast)) {
+                normalizePendingRows();
+                matrix.removeRow(constraint_cast.row);
+                constraint_cast.row = -1;
+            }
+        } else if (fragment instanceof NumVar var_cast) {
+            removedColumns.set(columnOf(var_cast));
+        } else if (fragment instanceof Objective) {
+            if (fragment == this.objective) {
+                this.objective = null;
+            }
+        } else {
+            throw new OrchException("Cannot remove a fragment of type " + fragment.getClass() + " from the model");
+        }
+        return fragment;
     }
 
     /**
-     * Removes multiple fragments from the model.
-     * <b>This method has not been implemented</b>
+     * Removes multiple fragments from the model, see {@link #remove(Fragment)}.
+     *
      * @param fragment An array of fragments to remove.
-     * @return An array of removed fragments.
+     * @return The removed fragments.
+     * @throws OrchException If a fragment cannot be removed from this model.
      */
     @Override
     public Fragment[] remove(Fragment[] fragment) {
-        // TODO Auto-generated method stub
-        return null;
+        for (Fragment f : fragment) {
+            remove(f);
+        }
+        return fragment;
     }
 
     /**
-     * Writes the active model to a .lp file.
+     * Checks whether a constraint currently holds a row of this model.
      *
-     * @param name the name of the file to write to
-     **/
-    public void exportModel(String name) {
-        //Create new file
-        File file = new File(name);
-        try {
-            FileWriter fileWriter = new FileWriter(file);
-            if (this.objective.sense == ObjectiveSense.Minimize) {
-                fileWriter.write("Minimize\n");
-            } else if (this.objective.sense == ObjectiveSense.Maximize) {
-                fileWriter.write("Maximize\n");
-            } else {
-                throw new OrchException("Invalid objective sense: " + this.objective.sense);
-            }
-            //Write the objective function
-            OrchNumExpr expr_cast = new OrchNumExpr(this.objective.getExpr());
-            boolean first = true;
-            for (int i = 0; i < expr_cast.variables.length; i++) {
-                if (expr_cast.coefficients[i] < 0) {
+     * @param constraint The constraint.
+     * @return Whether the constraint is part of the model.
+     */
+    private boolean isActive(OrchConstraint constraint) {
+        return constraint.row >= 0 && constraint.row < constraints.size() && constraints.get(constraint.row) == constraint;
+    }
 
-                    fileWriter.write("- ");
+    /**
+     * Gets the column of a variable of this model.
+     *
+     * @param var The variable.
+     * @return The column index of the variable.
+     * @throws OrchException If the variable does not belong to this model.
+     */
+    private int columnOf(NumVar var) {
+        int column = indexOf(var);
+        if (column >= variables.size() || variables.get(column) != var) {
+            throw new OrchException("Variable is not part of the model: " + var.getName());
+        }
+        return column;
+    }
 
-                } else {
-                    if (!first) {
-                        fileWriter.write("+ ");
-                    }
+    /**
+     * Normalizes pending constraints and drops the rows of removed constraints from the constraint matrix.
+     * The remaining constraints get their new rows, and the row values of the last solution are moved along.
+     * The kept HiGHS instance is discarded, since rows cannot be removed from it.
+     */
+    private void compactConstraints() {
+        normalizePendingRows();
+        if (matrix.numberOfRemovedRows == 0) {
+            return;
+        }
+        int[] newRows = matrix.compact();
+        int kept = 0;
+        for (int row = 0; row < newRows.length; row++) {
+            if (newRows[row] >= 0) {
+                Constraint constraint = constraints.get(row);
+                if (constraint instanceof OrchConstraint constraint_cast) {
+                    constraint_cast.row = newRows[row];
                 }
-
-                fileWriter.write(Math.abs(expr_cast.coefficients[i]) + " " + this.variables.get(expr_cast.variables[i]).getName() + " ");
-                first = false;
+                constraints.set(kept++, constraint);
             }
-            if (this.objective.getConstant() != 0) {
-                if (this.objective.getConstant() > 0) {
-                    fileWriter.write("+ " + this.objective.getConstant());
-                } else {
-                    fileWriter.write("- " + Math.abs(this.objective.getConstant()));
+        }
+        constraints.subList(kept, constraints.size()).clear();
+        this.rowActivities = compactRowValues(rowActivities, newRows);
+        this.dualValues = compactRowValues(dualValues, newRows);
+        if (rowBasis != null) {
+            int solvedRows = Math.min(rowBasis.length, newRows.length);
+            byte[] basis = new byte[keptRows(newRows, solvedRows)];
+            for (int row = 0; row < solvedRows; row++) {
+                if (newRows[row] >= 0) {
+                    basis[newRows[row]] = rowBasis[row];
                 }
             }
-            fileWriter.write("\n");
-            //Write the constraints
-            fileWriter.write("Subject To\n");
-            for (Constraint constraint : constraints) {
-                constraint = rebalanceConstraint(constraint);
-                OrchConstraint orchConstraint = new OrchConstraint(constraint);
-                OrchNumExpr lhs_expr = new OrchNumExpr(orchConstraint.lhs);
-                OrchNumExpr rhs_expr = new OrchNumExpr(orchConstraint.rhs);
-                fileWriter.write(orchConstraint.getName() + ": ");
-                first = true;
-                for (int i = 0; i < lhs_expr.variables.length; i++) {
-                    if (lhs_expr.coefficients[i] < 0) {
-                        fileWriter.write("- ");
-                    } else {
-                        if (!first) {
-                            fileWriter.write("+ ");
-                        }
-                    }
-                    fileWriter.write(Math.abs(lhs_expr.coefficients[i]) + " " + this.variables.get(lhs_expr.variables[i]).getName() + " ");
-                    first = false;
-                }
+            this.rowBasis = basis;
+        }
+        discardSolver();
+    }
 
-                if (lhs_expr.constant > 0) {
-                    fileWriter.write("+ " + lhs_expr.constant + " ");
-                } else if (lhs_expr.constant < 0) {
-                    fileWriter.write("- " + Math.abs(lhs_expr.constant) + " ");
-                }
-                //Write the constraint type
-                if (orchConstraint.type == ConstraintType.Eq) {
-                    fileWriter.write("= ");
-                } else if (orchConstraint.type == ConstraintType.Le) {
-                    fileWriter.write("<= ");
-                } else if (orchConstraint.type == ConstraintType.Ge) {
-                    fileWriter.write(">= ");
-                } else {
-                    throw new OrchException("Invalid constraint type: " + orchConstraint.type);
-                }
-                //Write the right hand side
-                first= true;
-                for (int i = 0; i < rhs_expr.variables.length; i++) {
-                    if (rhs_expr.coefficients[i] < 0) {
-                        fileWriter.write("- ");
-                    } else {
-                        if(!first) {
-                            fileWriter.write("+ ");
-                        }
-                    }
-                    fileWriter.write(Math.abs(rhs_expr.coefficients[i]) + " " + this.variables.get(rhs_expr.variables[i]).getName() + " ");
-
-                    first = false;
-                }
-                if (rhs_expr.constant > 0) {
-                    if (rhs_expr.numberOfVariables < 1) {
-                        fileWriter.write(rhs_expr.constant + " ");
-                    } else {
-                        fileWriter.write("+ " + rhs_expr.constant);
-                    }
-                } else if (rhs_expr.constant < 0) {
-                    fileWriter.write("- " + Math.abs(rhs_expr.constant));
-                } else if (rhs_expr.numberOfVariables < 1) {
-                    fileWriter.write(" 0 ");
-                }
-                fileWriter.write("\n");
-            }
-
-            //Write the bounds
-            fileWriter.write("Bounds\n");
-            for (NumVar variable : variables) {
-                if (variable instanceof OrchNumVar var_cast) {
-                    if (var_cast.getLB() != 0 && var_cast.getUB() < Integer.MAX_VALUE) {
-                        fileWriter.write(var_cast.getLB() + " <= " + var_cast.getName() + " <= " + var_cast.getUB() + "\n");
-                    } else if (var_cast.getLB() != 0) {
-                        fileWriter.write(var_cast.getLB() + " <= " + var_cast.getName() + "\n");
-                    } else if (var_cast.getUB() != Double.MAX_VALUE && var_cast.getUB() != Integer.MAX_VALUE) {
-                        fileWriter.write(var_cast.getName() + " <= " + var_cast.getUB() + "\n");
-                    }
-                } else if (variable instanceof OrchIntVar var_cast) {
-
-                    if (var_cast.getMin() != 0 && var_cast.getMax() < Integer.MAX_VALUE) {
-                        fileWriter.write(var_cast.getMin() + " <= " + var_cast.getName() + " <= " + var_cast.getMax() + "\n");
-                    } else if (var_cast.getMin() != 0) {
-                        fileWriter.write(var_cast.getMin() + " <= " + var_cast.getName() + "\n");
-                    } else if (var_cast.getMax() != Integer.MAX_VALUE) {
-                        fileWriter.write(var_cast.getName() + " <= " + var_cast.getMax() + "\n");
-                    }
-                } else {
-                    throw new OrchException("Invalid variable type: " + variable.getClass());
-                }
-            }
-            //Write the variable type section
-            fileWriter.write("Generals\n");
-            for (NumVar variable : variables) {
-                if (variable instanceof OrchBoolVar) {
-                    continue;
-                }
-                if (variable instanceof OrchIntVar var_cast) {
-                    fileWriter.write(var_cast.getName() + "\n");
-                }
-            }
-            //Write the binary variable section
-            fileWriter.write("Binaries\n");
-            for (NumVar variable : variables) {
-                if (variable instanceof OrchBoolVar var_cast) {
-                    fileWriter.write(var_cast.getName() + "\n");
-                }
+    /**
+     * Moves the solution values of the rows to their new rows after compaction.
+     * Only rows that existed when the values were computed have a value, rows added since then are left without one.
+     *
+     * @param values  The value of each row before compaction, or null.
+     * @param newRows The new row of each row, or -1 if the row was removed.
+     * @return The values of the kept rows, or null.
+     */
+    private static double[] compactRowValues(double[] values, int[] newRows) {
+        if (values == null) {
+            return null;
+        }
+        int solvedRows = Math.min(values.length, newRows.length);
+        double[] compacted = new double[keptRows(newRows, solvedRows)];
+        for (int row = 0; row < solvedRows; row++) {
+            if (newRows[row] >= 0) {
+                compacted[newRows[row]] = values[row];
             }
-            fileWriter.write("End\n");
-            fileWriter.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
-
+        return compacted;
     }
 
     /**
-     * Imports a solution file produced by HiGHS and populates the solution value hashmap.
+     * Counts the kept rows among the first rows. Kept rows keep their order, so these become the first rows after
+     * compaction.
      *
-     * @param fileName The name of the solution file to import.
-     * @throws OrchException If the solution file is not found or an error occurs while reading the file.
+     * @param newRows      The new row of each row, or -1 if the row was removed.
+     * @param numberOfRows The number of rows to count in.
+     * @return The number of kept rows.
      */
-    public void importSol(String fileName) {
-        // Read a sol file produced by HiGHS and populate the solution value hashmap
-        File file = new File(fileName);
-        if (!file.exists()) {
-            throw new OrchException("Solution file not found: " + fileName);
+    private static int keptRows(int[] newRows, int numberOfRows) {
+        int kept = 0;
+        for (int row = 0; row < numberOfRows; row++) {
+            if (newRows[row] >= 0) {
+                kept++;
+            }
         }
+        return kept;
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean inPrimalSection = false;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.equalsIgnoreCase("Infeasible")) {
-                    this.status = Status.Infeasible;
-                    throw new OrchException("The model is infeasible");
-                }
-                if (line.equalsIgnoreCase("Unbounded")) {
-                    this.status = Status.Unbounded;
-                    throw new OrchException("The model is unbounded");
-                }
-                if (line.equalsIgnoreCase("Optimal")) {
-                    this.status = Status.Optimal;
-                }
-                // Check for the start of the "Primal solution values" section
-                if (line.equalsIgnoreCase("# Primal solution values")) {
-                    inPrimalSection = true;
-                    continue;
-                }
-
-                // Exit the section when encountering another header or end of file
-                if (inPrimalSection && line.startsWith("# Dual solution values")) {
-                    inPrimalSection = false;
-                }
+    /**
+     * Writes the active model to a file.
+     * The model is written in MPS format if the name ends with .mps, otherwise in LP format.
+     * A name ending with .gz, such as model.lp.gz, writes the file gzip-compressed.
+     *
+     * @param name the name of the file to write to
+     **/
+    public void exportModel(String name) {
+        exportModel(name, ModelFormat.fromFileName(name));
+    }
 
-                // Parse variable values in the "Primal solution values" section
-                if (inPrimalSection && !line.isEmpty()) {
-                    String[] parts = line.split("\\s+");
-                    // If the line starts with Objective, read it and set the corresponding double
-                    if (parts[0].equalsIgnoreCase("Objective")) {
-                        objectiveValue = Double.parseDouble(parts[1]);
-                        continue;
-                    }
-                    if (parts.length == 2) {
-                        String variableName = parts[0];
-                        double value = Double.parseDouble(parts[1]);
-                        for (NumVar variable : variables) {
-                            if (variable.getName().equals(variableName)) {
-
-                                solutionValues.put(variable, value);
-                                break;
-                            }
-                        }
-                    }
-                }
+    /**
+     * Writes the active model to a file in the given format.
+     * If the name ends with .gz, the file is gzip-compressed on a separate thread while the model is formatted.
+     *
+     * @param name   the name of the file to write to
+     * @param format the format to write the model in
+     */
+    public void exportModel(String name, ModelFormat format) {
+        if (Gzip.hasExtension(name)) {
+            try (OutputStream stream = Gzip.compress(Files.newOutputStream(Path.of(name)))) {
+                exportModel(stream, format);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(name), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            exportModel(channel, format);
         } catch (IOException e) {
-            throw new OrchException("Error reading solution file: " + fileName, e);
+            throw new RuntimeException(e);
         }
     }
 
     /**
-     * Creates a new boolean variable.
+     * Writes the active model in LP format to an output stream.
+     * The stream is flushed but not closed.
      *
-     * @return The created boolean variable.
+     * @param stream the stream to write to
+     * @throws IOException If writing to the stream fails.
      */
-    public IntVar boolVar() {
-        OrchBoolVar var = new OrchBoolVar(varCounter);
-        variables.add(var);
-        varToIndex.put(var, varCounter);
-        varCounter++;
-        return var;
+    public void exportModel(OutputStream stream) throws IOException {
+        exportModel(stream, ModelFormat.Lp);
     }
 
     /**
-     * Creates a new boolean variable with a specified name.
+     * Writes the active model in the given format to an output stream.
+     * The stream is flushed but not closed.
      *
-     * @param name The name of the boolean variable.
-     * @return The created boolean variable.
+     * @param stream the stream to write to
+     * @param format the format to write the model in
+     * @throws IOException If writing to the stream fails.
      */
-    public IntVar boolVar(String name) {
-        OrchBoolVar var = new OrchBoolVar(varCounter);
-        var.setName(name);
-        variables.add(var);
-        varToIndex.put(var, varCounter);
-        varCounter++;
-        return var;
+    public void exportModel(OutputStream stream, ModelFormat format) throws IOException {
+        exportWriter(format).write(new ModelOutput(stream));
     }
 
     /**
-     * Creates a new integer variable.
+     * Writes the active model in LP format to a channel.
+     * The channel is not closed.
      *
-     * @return The created integer variable.
+     * @param channel the channel to write to
+     * @throws IOException If writing to the channel fails.
      */
-    public IntVar intVar() {
-        OrchIntVar var = new OrchIntVar(varCounter);
-        variables.add(var);
-        varToIndex.put(var, varCounter);
-        varCounter++;
-        return var;
+    public void exportModel(WritableByteChannel channel) throws IOException {
+        exportModel(channel, ModelFormat.Lp);
     }
 
     /**
-     * Creates a new integer variable with a specified name.
+     * Writes the active model in the given format to a channel.
+     * The channel is not closed.
      *
-     * @param name The name of the integer variable.
-     * @return The created integer variable.
+     * @param channel the channel to write to
+     * @param format  the format to write the model in
+     * @throws IOException If writing to the channel fails.
      */
-    public IntVar intVar(String name) {
-        OrchIntVar var = new OrchIntVar(varCounter);
-        var.setName(name);
-        variables.add(var);
-        varToIndex.put(var, varCounter);
-        varCounter++;
-        return var;
+    public void exportModel(WritableByteChannel channel, ModelFormat format) throws IOException {
+        exportWriter(format).write(new ModelOutput(channel));
     }
 
     /**
-     * Creates a new integer variable with specified minimum and maximum bounds.
+     * Creates a writer for the model, which writes the reduced model when presolve is enabled.
+     * A model that presolve proves infeasible is written as it is.
      *
-     * @param min The minimum bound of the integer variable.
-     * @param max The maximum bound of the integer variable.
-     * @return The created integer variable.
+     * @param format The format to write.
+     * @return The writer.
      */
-    public IntVar intVar(int min, int max) {
-        OrchIntVar var = new OrchIntVar(varCounter);
-        var.setMin(min);
-        var.setMax(max);
-        variables.add(var);
-        varToIndex.put(var, varCounter);
-        varCounter++;
-        return var;
+    private ModelWriter exportWriter(ModelFormat format) {
+        ModelData data = modelData();
+        Presolve reduction = presolve ? new Presolve(data) : null;
+        return modelWriter(format, data, reduction != null && !reduction.infeasible ? reduction : null);
     }
 
     /**
-     * Creates a new integer variable with specified minimum and maximum bounds and a name.
+     * Creates a writer for a model snapshot or its reduction.
      *
-     * @param min  The minimum bound of the integer variable.
-     * @param max  The maximum bound of the integer variable.
-     * @param name The name of the integer variable.
-     * @return The created integer variable.
+     * @param format    The format to write.
+     * @param data      The snapshot of the model.
+     * @param reduction The reduction of the snapshot, or null to write the snapshot itself.
+     * @return The writer.
      */
-    public IntVar intVar(int min, int max, String name) {
-        OrchIntVar var = new OrchIntVar(varCounter);
-        var.setMin(min);
-        var.setMax(max);
-        var.setName(name);
-        variables.add(var);
-        varToIndex.put(var, varCounter);
-        varCounter++;
-        return var;
+    private ModelWriter modelWriter(ModelFormat format, ModelData data, Presolve reduction) {
+        ModelWriter writer;
+        if (reduction == null) {
+            writer = ModelWriter.of(format, data, variables, constraints, null, null);
+        } else {
+            writer = ModelWriter.of(format, reduction.reduced, variables, constraints, reduction.columns, reduction.rows);
+        }
+        writer.pool = exportPool;
+        return writer;
     }
 
     /**
-     * Creates a constant numerical expression with an integer value.
+     * Sets the pool on which the constraints are formatted when the model is exported in LP format, also by
+     * {@link #solveByExportingFile()}.
+     * With a pool the constraints are split into chunks that are formatted into memory in parallel and written in
+     * order, which gives the same file as without a pool. This pays off for models with hundreds of thousands of
+     * constraints or more. Models in MPS format are always written on the calling thread.
      *
-     * @param i The integer value of the constant.
-     * @return The created constant numerical expression.
+     * @param pool The pool to format constraints on, or null to format the whole model on the calling thread.
      */
-    public IntExpr constant(int i) {
-        OrchIntExpr expr = new OrchIntExpr();
-        expr.constant = i;
-        return expr;
+    public void setExportPool(ForkJoinPool pool) {
+        this.exportPool = pool;
     }
 
-
     /**
-     * Creates a constant numerical expression with a double value.
+     * Reads a model from a file and adds it to the active model.
+     * The file is read in MPS format if the name ends with .mps or .mps.gz, otherwise in LP format.
+     * A gzip-compressed file is decompressed while it is read.
+     * Every column of the file becomes a new variable and every row a new constraint, named as in the file.
+     * A ranged row becomes two constraints, a greater-than-or-equal-to constraint with the name of the row and a
+     * less-than-or-equal-to constraint with the suffix "_upper". The objective of the file replaces the objective of the model.
      *
-     * @param d The double value of the constant.
-     * @return The created constant numerical expression.
+     * @param path the file to read from
+     * @throws OrchException If the file cannot be read, is not a valid model file or uses an unsupported feature.
      */
-    public NumExpr constant(double d) {
-        OrchNumExpr expr = new OrchNumExpr();
-        expr.constant = d;
-        return expr;
+    public void importModel(Path path) {
+        importModel(path, ModelFormat.fromFileName(path.getFileName().toString()));
     }
 
     /**
-     * Multiplies an integer value with a numerical expression.
+     * Reads a model from a file in the given format and adds it to the active model.
      *
-     * @param i       The integer multiplier.
-     * @param numExpr The numerical expression to be multiplied.
-     * @return The resulting numerical expression.
+     * @param path   the file to read from
+     * @param format the format to read the model in
+     * @throws OrchException If the file cannot be read, is not a valid model file or uses an unsupported feature.
+     * @see #importModel(Path)
      */
-    public NumExpr prod(int i, NumExpr numExpr) {
-        return prod((double) i, numExpr);
+    public void importModel(Path path, ModelFormat format) {
+        try (InputStream stream = Gzip.decompress(Files.newInputStream(path))) {
+            readModel(stream, format);
+        } catch (IOException e) {
+            throw new OrchException("Error reading model file: " + path, e);
+        }
     }
 
     /**
-     * Multiplies an integer value with an integer expression.
+     * Reads a model in the given format from an input stream and adds it to the active model.
+     * Gzip-compressed content is recognized and decompressed. The stream is not closed.
      *
-     * @param i      The integer multiplier.
-     * @param numVar The integer expression to be multiplied.
-     * @return The resulting integer expression.
+     * @param stream the stream to read from
+     * @param format the format to read the model in
+     * @throws IOException   If reading from the stream fails.
+     * @throws OrchException If the stream does not hold a valid model file or uses an unsupported feature.
+     * @see #importModel(Path)
      */
-    public IntExpr prod(int i, IntExpr numVar) {
-        OrchIntExpr expr = new OrchIntExpr(numVar);
-        for(int index = 0; index < expr.variables.length; index++) {
-            expr.coefficients[index] = expr.coefficients[index] * i;
-        }
-        expr.constant = expr.constant * i;
-        return expr;
+    public void importModel(InputStream stream, ModelFormat format) throws IOException {
+        readModel(Gzip.decompress(stream), format);
     }
 
     /**
-     * Multiplies a double value with an integer expression.
+     * Reads a model from an uncompressed stream and adds it to the model.
      *
-     * @param d      The double multiplier.
-     * @param numVar The integer expression to be multiplied.
-     * @return The resulting numerical expression.
+     * @param stream The stream to read from.
+     * @param format The format to read the model in.
+     * @throws IOException If reading from the stream fails.
      */
-    public NumExpr prod(double d, IntExpr numVar) {
-        return prod(d, (NumExpr) numVar);
+    private void readModel(InputStream stream, ModelFormat format) throws IOException {
+        ModelReader reader = ModelReader.of(format);
+        reader.read(stream);
+        addImportedModel(reader.modelData(), reader::columnName, reader::rowName, reader.objectiveName);
     }
 
     /**
-     * Multiplies a double value with a numerical expression.
+     * Writes a binary snapshot of the active model to a file, including the names of the variables and constraints.
      *
-     * @param d      The double multiplier.
-     * @param numVar The numerical expression to be multiplied.
-     * @return The resulting numerical expression.
+     * @param path the file to write to
+     * @throws OrchException If writing the file fails.
+     * @see #saveSnapshot(Path, boolean)
      */
-    public NumExpr prod(double d, NumExpr numVar) {
-        OrchNumExpr expr = new OrchNumExpr(numVar);
-        for(int index = 0; index < expr.variables.length; index++) {
-            expr.coefficients[index] = expr.coefficients[index] * d;
-        }
-        expr.constant = expr.constant * d;
-        return expr;
+    public void saveSnapshot(Path path) {
+        saveSnapshot(path, true);
     }
 
     /**
-     * Adds a maximization objective to the model.
+     * Writes a binary snapshot of the active model to a file.
+     * The snapshot holds the bounds and types of the variables, the normalized rows of the constraints and the
+     * objective as primitive arrays, so it is written and read back much faster than an LP or MPS file.
+     * Snapshots are meant for saving a model and restoring it in another process with {@link #loadSnapshot(Path)}:
+     * removed variables are stored fixed at zero and the values of a solution are not stored.
      *
-     * @param objective The numerical expression representing the objective.
-     * @return The created maximization objective.
+     * @param path  the file to write to
+     * @param names whether to include the names of the objective, variables and constraints
+     * @throws OrchException If writing the file fails.
+     */
+    public void saveSnapshot(Path path, boolean names) {
+        ModelData data = modelData();
+        String objectiveName = this.objective == null ? null : this.objective.name;
+        try {
+            ModelSnapshot.write(path, data, variables, constraints, objectiveName, names);
+        } catch (IOException e) {
+            throw new OrchException("Error writing model snapshot: " + path, e);
+        }
+    }
+
+    /**
+     * Reads a binary snapshot written by {@link #saveSnapshot(Path)} and adds the model to the active model.
+     * The file is mapped into memory and its arrays are copied as they are, so the constraints are not normalized again.
+     * Every column becomes a new variable and every row a new constraint, and the objective of the snapshot replaces
+     * the objective of the model. Without names in the snapshot, the variables and constraints get default names.
+     *
+     * @param path the file to read from
+     * @throws OrchException If the file cannot be read, is not a snapshot or has an unsupported version.
+     */
+    public void loadSnapshot(Path path) {
+        ModelSnapshot snapshot;
+        try {
+            snapshot = ModelSnapshot.read(path);
+        } catch (IOException e) {
+            throw new OrchException("Error reading model snapshot: " + path, e);
+        }
+        addImportedModel(snapshot.data, snapshot::columnName, snapshot::rowName, snapshot.objectiveName);
+    }
+
+    /**
+     * Adds the columns, rows and objective of a model file or snapshot to the model.
+     * The rows are copied into the constraint matrix as they are, so they are not normalized again.
+     *
+     * @param data          The model to add.
+     * @param columnNames   The name of each column, null for an unnamed column.
+     * @param rowNames      The name of each row, null for an unnamed row.
+     * @param objectiveName The name of the objective, or null.
+     */
+    private void addImportedModel(ModelData data, IntFunction<String> columnNames, IntFunction<String> rowNames, String objectiveName) {
+        normalizePendingRows();
+        int firstColumn = variables.size();
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            double lower = data.columnLower[j];
+            double upper = data.columnUpper[j];
+            NumVar var;
+            if (data.columnTypes[j] != ModelData.CONTINUOUS) {
+                // A binary column keeps its bounds, a removed binary variable is stored fixed at zero
+                OrchIntVar intVar = data.columnTypes[j] == ModelData.BINARY ? new OrchBoolVar(this, varCounter) : new OrchIntVar(this, varCounter);
+                intVar.setMin(lower <= Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) Math.ceil(lower));
+                intVar.setMax(upper >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.floor(upper));
+                var = intVar;
+            } else {
+                var = new OrchNumVar(this, varCounter);
+                var.setLB(lower == Double.NEGATIVE_INFINITY ? -Double.MAX_VALUE : lower);
+                var.setUB(upper == Double.POSITIVE_INFINITY ? Double.MAX_VALUE : upper);
+            }
+            String name = columnNames.apply(j);
+            if (name != null) {
+                var.setName(name);
+            }
+            variables.add(var);
+            varCounter++;
+        }
+        ConstraintMatrix rows = data.rows;
+        for (int row = 0; row < rows.numberOfRows; row++) {
+            int start = rows.rowStart(row);
+            int length = rows.rowEnd(row) - start;
+            int[] columns = new int[length];
+            double[] coefs = Arrays.copyOfRange(rows.values, start, start + length);
+            for (int k = 0; k < length; k++) {
+                columns[k] = rows.columnIndices[start + k] + firstColumn;
+            }
+            String name = rowNames.apply(row);
+            double lower = rows.rowLower[row];
+            double upper = rows.rowUpper[row];
+            if (lower == upper) {
+                addImportedRow(columns, coefs, lower, upper, ConstraintType.Eq, name);
+            } else if (lower == Double.NEGATIVE_INFINITY) {
+                addImportedRow(columns, coefs, lower, upper, ConstraintType.Le, name);
+            } else if (upper == Double.POSITIVE_INFINITY) {
+                addImportedRow(columns, coefs, lower, upper, ConstraintType.Ge, name);
+            } else {
+                // A constraint has a single bound, so a ranged row is split into its two sides
+                addImportedRow(columns, coefs, lower, Double.POSITIVE_INFINITY, ConstraintType.Ge, name);
+                addImportedRow(columns, coefs, Double.NEGATIVE_INFINITY, upper, ConstraintType.Le, name == null ? null : name + "_upper");
+            }
+        }
+        int objectiveLength = 0;
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            if (data.objective[j] != 0) {
+                objectiveLength++;
+            }
+        }
+        int[] objectiveColumns = new int[objectiveLength];
+        double[] objectiveCoefs = new double[objectiveLength];
+        for (int j = 0, k = 0; j < data.numberOfColumns; j++) {
+            if (data.objective[j] != 0) {
+                objectiveColumns[k] = j + firstColumn;
+                objectiveCoefs[k] = data.objective[j];
+                k++;
+            }
+        }
+        OrchNumExpr objectiveExpr = new OrchNumExpr(objectiveColumns, objectiveCoefs, data.objectiveOffset);
+        objectiveExpr.counter = counter;
+        addObjective(data.minimize ? ObjectiveSense.Minimize : ObjectiveSense.Maximize, objectiveExpr, objectiveName);
+    }
+
+    /**
+     * Adds a row read from a model file as a constraint, with the row as its normalized form.
+     *
+     * @param columns The columns of the row.
+     * @param coefs   The coefficients of the row.
+     * @param lower   The lower bound of the row.
+     * @param upper   The upper bound of the row.
+     * @param type    The type of the constraint.
+     * @param name    The name of the constraint, or null.
+     */
+    private void addImportedRow(int[] columns, double[] coefs, double lower, double upper, ConstraintType type, String name) {
+        OrchNumExpr lhs = new OrchNumExpr(columns, coefs, 0);
+        lhs.counter = counter;
+        OrchConstraint constraint = new OrchConstraint(lhs, constant(type == ConstraintType.Ge ? lower : upper), type);
+        constraint.counter = counter;
+        constraint.name = name;
+        constraint.id = counter.nextConstraint();
+        constraint.row = matrix.addRow(columns, coefs, columns.length, lower, upper);
+        constraints.add(constraint);
+    }
+
+    /**
+     * Enables or disables presolve.
+     * When enabled, the model is reduced before it is solved or exported: rows with a single variable become bounds,
+     * variables with equal bounds are substituted, and empty and duplicate rows are dropped. The values of all
+     * variables and the activities of all constraints are still available after solving, but dual values, reduced
+     * costs and the basis are not, as they belong to the reduced model.
+     *
+     * @param presolve Whether to presolve the model.
+     */
+    public void setPresolve(boolean presolve) {
+        this.presolve = presolve;
+    }
+
+    /**
+     * Reduces a model snapshot before solving it, if presolve is enabled.
+     *
+     * @param data The snapshot of the model.
+     * @return The reduction, or null if presolve is disabled.
+     * @throws OrchException If presolve proves that the model is infeasible.
+     */
+    private Presolve reduce(ModelData data) {
+        if (!presolve) {
+            return null;
+        }
+        Presolve reduction = new Presolve(data);
+        if (reduction.infeasible) {
+            this.status = Status.Infeasible;
+            throw new OrchException("The model is infeasible");
+        }
+        return reduction;
+    }
+
+    /**
+     * Completes an imported solution of a reduced model with the values of the substituted variables and
+     * the activities of all constraints.
+     *
+     * @param reduction The reduction that was solved, or null if the model was not reduced.
+     */
+    private void restoreSolution(Presolve reduction) {
+        if (reduction == null) {
+            return;
+        }
+        reduction.restoreFixedColumns(solutionValues);
+        this.rowActivities = computeRowActivities(solutionValues);
+        this.reducedCosts = null;
+        this.dualValues = null;
+        this.columnBasis = null;
+        this.rowBasis = null;
+    }
+
+    /**
+     * Imports a solution file produced by HiGHS.
+     * Besides the variable values and the objective value, the row activities, dual values and basis are
+     * imported when the file holds them. A gzip-compressed file is decompressed while it is read.
+     *
+     * @param fileName The name of the solution file to import.
+     * @throws OrchException If the solution file is not found, the model is infeasible or unbounded, or an error occurs while reading the file.
+     */
+    public void importSol(String fileName) {
+        File file = new File(fileName);
+        if (!file.exists()) {
+            throw new OrchException("Solution file not found: " + fileName);
+        }
+        compactConstraints();
+        SolutionReader reader = new SolutionReader(columnNameIndex(), rowNameIndex());
+        try (InputStream in = Gzip.decompress(new FileInputStream(file))) {
+            reader.read(in);
+        } catch (IOException e) {
+            throw new OrchException("Error reading solution file: " + fileName, e);
+        }
+        importSolution(reader);
+    }
+
+    /**
+     * Imports a solution file produced by HiGHS by memory-mapping it.
+     * The lists of primal and dual values are split into chunks that are parsed in parallel on the given pool,
+     * which pays off for solution files of hundreds of megabytes. A gzip-compressed file cannot be mapped, so it is
+     * read as a stream as by {@link #importSol(String)}.
+     *
+     * @param fileName The name of the solution file to import.
+     * @param pool     The pool to parse the file on.
+     * @throws OrchException If the solution file is not found, the model is infeasible or unbounded, or an error occurs while reading the file.
+     */
+    public void importSol(String fileName, ForkJoinPool pool) {
+        File file = new File(fileName);
+        if (!file.exists()) {
+            throw new OrchException("Solution file not found: " + fileName);
+        }
+        try {
+            if (Gzip.isCompressed(file.toPath())) {
+                importSol(fileName);
+                return;
+            }
+        } catch (IOException e) {
+            throw new OrchException("Error reading solution file: " + fileName, e);
+        }
+        compactConstraints();
+        SolutionReader reader = new SolutionReader(columnNameIndex(), rowNameIndex());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            reader.read(channel, pool);
+        } catch (IOException e) {
+            throw new OrchException("Error reading solution file: " + fileName, e);
+        }
+        importSolution(reader);
+    }
+
+    /**
+     * Sets the pool on which {@link #solveByExportingFile()} parses the solution file.
+     * When a pool is set the solution file is memory-mapped and parsed in parallel, otherwise it is read as a stream.
+     *
+     * @param pool The pool to parse solution files on, or null to read them as a stream.
+     */
+    public void setSolutionImportPool(ForkJoinPool pool) {
+        this.solutionImportPool = pool;
+    }
+
+    /**
+     * Takes over the solution read from a solution file.
+     *
+     * @param reader The reader that read the file.
+     * @throws OrchException If the file states that the model is infeasible or unbounded.
+     */
+    private void importSolution(SolutionReader reader) {
+        if (reader.status == Status.Infeasible) {
+            this.status = Status.Infeasible;
+            throw new OrchException("The model is infeasible");
+        }
+        if (reader.status == Status.Unbounded) {
+            this.status = Status.Unbounded;
+            throw new OrchException("The model is unbounded");
+        }
+        if (reader.status == Status.Optimal) {
+            this.status = Status.Optimal;
+        }
+        if (reader.hasObjective) {
+            this.objectiveValue = reader.objectiveValue;
+        }
+        this.solutionValues = reader.columnValues != null ? reader.columnValues : new double[variables.size()];
+        this.rowActivities = reader.rowValues;
+        this.reducedCosts = reader.columnDuals;
+        this.dualValues = reader.rowDuals;
+        this.columnBasis = reader.columnBasis;
+        this.rowBasis = reader.rowBasis;
+    }
+
+    /**
+     * Creates an index of the names of all variables, by column.
+     *
+     * @return The index of the variable names.
+     */
+    private NameIndex columnNameIndex() {
+        NameIndex index = new NameIndex(variables.size());
+        for (int j = 0; j < variables.size(); j++) {
+            NumVar variable = variables.get(j);
+            String name = explicitName(variable);
+            if (name != null) {
+                index.add(name);
+            } else {
+                index.add(defaultNamePrefix(variable), j);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Creates an index of the names of all constraints, by row.
+     *
+     * @return The index of the constraint names.
+     */
+    private NameIndex rowNameIndex() {
+        NameIndex index = new NameIndex(constraints.size());
+        for (int row = 0; row < constraints.size(); row++) {
+            Constraint constraint = constraints.get(row);
+            if (constraint instanceof OrchConstraint constraint_cast && constraint_cast.name == null) {
+                index.add("Constraint_", constraint_cast.id);
+            } else {
+                index.add(constraint.getName());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the name a variable was given explicitly.
+     *
+     * @param var The variable.
+     * @return The name of the variable, or null if it goes by its default name.
+     */
+    static String explicitName(NumVar var) {
+        if (var instanceof OrchNumVar var_cast) {
+            return var_cast.name;
+        } else if (var instanceof OrchIntVar var_cast) {
+            return var_cast.name;
+        }
+        return var.getName();
+    }
+
+    /**
+     * Gets the prefix of the default name of a variable, which is followed by its column index.
+     *
+     * @param var The variable.
+     * @return The prefix of the default name.
+     */
+    static String defaultNamePrefix(NumVar var) {
+        if (var instanceof OrchBoolVar) {
+            return "BoolVar_";
+        } else if (var instanceof OrchIntVar) {
+            return "IntVar_";
+        }
+        return "NumVar_";
+    }
+
+    /**
+     * Creates a new boolean variable.
+     *
+     * @return The created boolean variable.
+     */
+    public IntVar boolVar() {
+        OrchBoolVar var = new OrchBoolVar(this, varCounter);
+        variables.add(var);
+        varCounter++;
+        return var;
+    }
+
+    /**
+     * Creates a new boolean variable with a specified name.
+     *
+     * @param name The name of the boolean variable.
+     * @return The created boolean variable.
+     */
+    public IntVar boolVar(String name) {
+        OrchBoolVar var = new OrchBoolVar(this, varCounter);
+        var.setName(name);
+        variables.add(var);
+        varCounter++;
+        return var;
+    }
+
+    /**
+     * Creates a new integer variable.
+     *
+     * @return The created integer variable.
+     */
+    public IntVar intVar() {
+        OrchIntVar var = new OrchIntVar(this, varCounter);
+        variables.add(var);
+        varCounter++;
+        return var;
+    }
+
+    /**
+     * Creates a new integer variable with a specified name.
+     *
+     * @param name The name of the integer variable.
+     * @return The created integer variable.
+     */
+    public IntVar intVar(String name) {
+        OrchIntVar var = new OrchIntVar(this, varCounter);
+        var.setName(name);
+        variables.add(var);
+        varCounter++;
+        return var;
+    }
+
+    /**
+     * Creates a new integer variable with specified minimum and maximum bounds.
+     *
+     * @param min The minimum bound of the integer variable.
+     * @param max The maximum bound of the integer variable.
+     * @return The created integer variable.
+     */
+    public IntVar intVar(int min, int max) {
+        OrchIntVar var = new OrchIntVar(this, varCounter);
+        var.setMin(min);
+        var.setMax(max);
+        variables.add(var);
+        varCounter++;
+        return var;
+    }
+
+    /**
+     * Creates a new integer variable with specified minimum and maximum bounds and a name.
+     *
+     * @param min  The minimum bound of the integer variable.
+     * @param max  The maximum bound of the integer variable.
+     * @param name The name of the integer variable.
+     * @return The created integer variable.
+     */
+    public IntVar intVar(int min, int max, String name) {
+        OrchIntVar var = new OrchIntVar(this, varCounter);
+        var.setMin(min);
+        var.setMax(max);
+        var.setName(name);
+        variables.add(var);
+        varCounter++;
+        return var;
+    }
+
+    /**
+     * Creates a constant numerical expression with an integer value.
+     *
+     * @param i The integer value of the constant.
+     * @return The created constant numerical expression.
+     */
+    public IntExpr constant(int i) {
+        OrchIntExpr expr = new OrchIntExpr();
+        expr.counter = counter;
+        expr.constant = i;
+        return expr;
+    }
+
+
+    /**
+     * Creates a constant numerical expression with a double value.
+     *
+     * @param d The double value of the constant.
+     * @return The created constant numerical expression.
+     */
+    public NumExpr constant(double d) {
+        OrchNumExpr expr = new OrchNumExpr();
+        expr.counter = counter;
+        expr.constant = d;
+        return expr;
+    }
+
+    /**
+     * Creates a new, empty linear expression builder.
+     * Builders accept terms in amortized constant time and should be preferred over chained calls to
+     * {@link #sum(NumExpr, NumExpr)} when building expressions with many terms.
+     *
+     * @return The created linear expression builder.
+     */
+    public LinearExprBuilder linearExprBuilder() {
+        return linearExprBuilder(16);
+    }
+
+    /**
+     * Creates a new, empty linear expression builder with room for the given number of terms.
+     *
+     * @param expectedTerms The number of terms the builder is expected to hold.
+     * @return The created linear expression builder.
+     */
+    public LinearExprBuilder linearExprBuilder(int expectedTerms) {
+        LinearExprBuilder builder = new LinearExprBuilder(expectedTerms);
+        builder.counter = counter;
+        return builder;
+    }
+
+    /**
+     * Multiplies an integer value with a numerical expression.
+     *
+     * @param i       The integer multiplier.
+     * @param numExpr The numerical expression to be multiplied.
+     * @return The resulting numerical expression.
+     */
+    public NumExpr prod(int i, NumExpr numExpr) {
+        return prod((double) i, numExpr);
+    }
+
+    /**
+     * Multiplies an integer value with an integer expression.
+     *
+     * @param i      The integer multiplier.
+     * @param numVar The integer expression to be multiplied.
+     * @return The resulting integer expression.
+     */
+    public IntExpr prod(int i, IntExpr numVar) {
+        OrchIntExpr expr = new OrchIntExpr(numVar);
+        expr.counter = counter;
+        for(int index = 0; index < expr.variables.length; index++) {
+            expr.coefficients[index] = expr.coefficients[index] * i;
+        }
+        expr.constant = expr.constant * i;
+        return expr;
+    }
+
+    /**
+     * Multiplies a double value with an integer expression.
+     *
+     * @param d      The double multiplier.
+     * @param numVar The integer expression to be multiplied.
+     * @return The resulting numerical expression.
+     */
+    public NumExpr prod(double d, IntExpr numVar) {
+        return prod(d, (NumExpr) numVar);
+    }
+
+    /**
+     * Multiplies a double value with a numerical expression.
+     *
+     * @param d      The double multiplier.
+     * @param numVar The numerical expression to be multiplied.
+     * @return The resulting numerical expression.
+     */
+    public NumExpr prod(double d, NumExpr numVar) {
+        OrchNumExpr expr = new OrchNumExpr(numVar);
+        expr.counter = counter;
+        for(int index = 0; index < expr.variables.length; index++) {
+            expr.coefficients[index] = expr.coefficients[index] * d;
+        }
+        expr.constant = expr.constant * d;
+        return expr;
+    }
+
+    /**
+     * Adds a maximization objective to the model.
+     *
+     * @param objective The numerical expression representing the objective.
+     * @return The created maximization objective.
      */
     public Objective addMaximize(NumExpr objective) {
-        this.objective = new OrchObjective(objective, ObjectiveSense.Maximize);
+        this.objective = createObjective(objective, ObjectiveSense.Maximize);
         return this.objective;
     }
 
@@ -655,7 +1331,7 @@ public class Orchestrate implements Modeler {
      * @return The created maximization objective.
      */
     public Objective addMaximize(NumExpr objective, String name) {
-        this.objective = new OrchObjective(objective, ObjectiveSense.Maximize);
+        this.objective = createObjective(objective, ObjectiveSense.Maximize);
         this.objective.setName(name);
         return this.objective;
     }
@@ -667,7 +1343,7 @@ public class Orchestrate implements Modeler {
      * @return The created minimization objective.
      */
     public Objective addMinimize(NumExpr objective) {
-        this.objective = new OrchObjective(objective, ObjectiveSense.Minimize);
+        this.objective = createObjective(objective, ObjectiveSense.Minimize);
         return this.objective;
     }
 
@@ -679,7 +1355,7 @@ public class Orchestrate implements Modeler {
      * @return The created minimization objective.
      */
     public Objective addMinimize(NumExpr objective, String name) {
-        this.objective = new OrchObjective(objective, ObjectiveSense.Minimize);
+        this.objective = createObjective(objective, ObjectiveSense.Minimize);
         this.objective.setName(name);
         return this.objective;
     }
@@ -692,7 +1368,7 @@ public class Orchestrate implements Modeler {
      * @return The created objective.
      */
     public Objective addObjective(ObjectiveSense sense, NumExpr objective) {
-        this.objective = new OrchObjective(objective, sense);
+        this.objective = createObjective(objective, sense);
         return this.objective;
     }
 
@@ -705,7 +1381,7 @@ public class Orchestrate implements Modeler {
      * @return The created objective.
      */
     public Objective addObjective(ObjectiveSense sense, NumExpr objective, String name) {
-        this.objective = new OrchObjective(objective, sense);
+        this.objective = createObjective(objective, sense);
         this.objective.setName(name);
         return this.objective;
     }
@@ -717,7 +1393,7 @@ public class Orchestrate implements Modeler {
      * @return The value of the variable as an integer.
      */
     public int getValue(IntVar var) {
-        return (int) Math.round(solutionValues.get(var));
+        return (int) Math.round(getValue((NumVar) var));
     }
 
     /**
@@ -725,9 +1401,66 @@ public class Orchestrate implements Modeler {
      *
      * @param var The numerical variable.
      * @return The value of the variable as a double.
+     * @throws OrchException If no solution is available, or the variable is not part of the model or was added after the last solve.
      */
     public double getValue(NumVar var) {
-        return solutionValues.get(var);
+        double[] solution = solution();
+        return solution[columnOf(this, var, solution.length)];
+    }
+
+    /**
+     * Gets the values of an array of numerical variables from the solution.
+     *
+     * @param vars The numerical variables.
+     * @return The values of the variables, in the same order.
+     * @throws OrchException If no solution is available, or a variable is not part of the model or was added after the last solve.
+     */
+    public double[] getValues(NumVar[] vars) {
+        double[] solution = solution();
+        double[] values = new double[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            values[i] = solution[columnOf(this, vars[i], solution.length)];
+        }
+        return values;
+    }
+
+    /**
+     * Gets the values of an array of integer variables from the solution, rounded to the nearest integer.
+     *
+     * @param vars The integer variables.
+     * @param out  The array to store the values in, at least as long as vars.
+     * @return The array the values were stored in.
+     * @throws OrchException If no solution is available, or a variable is not part of the model or was added after the last solve.
+     */
+    public int[] getValues(IntVar[] vars, int[] out) {
+        double[] solution = solution();
+        for (int i = 0; i < vars.length; i++) {
+            out[i] = (int) Math.round(solution[columnOf(this, vars[i], solution.length)]);
+        }
+        return out;
+    }
+
+    /**
+     * Gets the values of all variables from the solution, indexed by column.
+     *
+     * @return A copy of the values of all variables.
+     * @throws OrchException If no solution is available.
+     */
+    public double[] getValues() {
+        return solution().clone();
+    }
+
+    /**
+     * Gets the solution values indexed by column.
+     *
+     * @return The solution values.
+     * @throws OrchException If no solution is available.
+     */
+    private double[] solution() {
+        if (solutionValues == null) {
+            throw new OrchException("No solution available, the model has not been solved");
+        }
+        return solutionValues;
     }
 
     /**
@@ -739,6 +1472,114 @@ public class Orchestrate implements Modeler {
         return objectiveValue;
     }
 
+    /**
+     * Gets the dual value of a constraint from the solution.
+     *
+     * @param constraint The constraint.
+     * @return The dual value of the constraint.
+     * @throws OrchException If no dual values are available, or the constraint is not part of the model or was added after the last solve.
+     */
+    public double getDual(Constraint constraint) {
+        double[] duals = solutionPart(dualValues, "dual values");
+        return duals[rowOf(constraint, duals.length)];
+    }
+
+    /**
+     * Gets the reduced cost of a variable from the solution.
+     *
+     * @param var The variable.
+     * @return The reduced cost of the variable.
+     * @throws OrchException If no reduced costs are available, or the variable is not part of the model or was added after the last solve.
+     */
+    public double getReducedCost(NumVar var) {
+        double[] costs = solutionPart(reducedCosts, "reduced costs");
+        return costs[columnOf(this, var, costs.length)];
+    }
+
+    /**
+     * Gets the activity of a constraint from the solution, the value of its left-hand side minus its right-hand side
+     * without their constants.
+     *
+     * @param constraint The constraint.
+     * @return The activity of the constraint.
+     * @throws OrchException If no row activities are available, or the constraint is not part of the model or was added after the last solve.
+     */
+    public double getActivity(Constraint constraint) {
+        double[] activities = solutionPart(rowActivities, "row activities");
+        return activities[rowOf(constraint, activities.length)];
+    }
+
+    /**
+     * Gets the basis status of a variable in the solution.
+     *
+     * @param var The variable.
+     * @return The basis status of the variable.
+     * @throws OrchException If no basis is available, or the variable is not part of the model or was added after the last solve.
+     */
+    public BasisStatus getBasisStatus(NumVar var) {
+        if (columnBasis == null) {
+            throw new OrchException("No basis available");
+        }
+        return BasisStatus.of(columnBasis[columnOf(this, var, columnBasis.length)]);
+    }
+
+    /**
+     * Gets the basis status of the slack of a constraint in the solution.
+     *
+     * @param constraint The constraint.
+     * @return The basis status of the constraint.
+     * @throws OrchException If no basis is available, or the constraint is not part of the model or was added after the last solve.
+     */
+    public BasisStatus getBasisStatus(Constraint constraint) {
+        if (rowBasis == null) {
+            throw new OrchException("No basis available");
+        }
+        return BasisStatus.of(rowBasis[rowOf(constraint, rowBasis.length)]);
+    }
+
+    /**
+     * Computes the activity of every row for the given column values.
+     *
+     * @param values The values of the columns.
+     * @return The activities of the rows.
+     */
+    private double[] computeRowActivities(double[] values) {
+        double[] activities = new double[matrix.numberOfRows];
+        for (int row = 0; row < matrix.numberOfRows; row++) {
+            double activity = 0.0;
+            for (int k = matrix.rowStart(row); k < matrix.rowEnd(row); k++) {
+                activity += matrix.values[k] * values[matrix.columnIndices[k]];
+            }
+            activities[row] = activity;
+        }
+        return activities;
+    }
+
+    private static double[] solutionPart(double[] values, String description) {
+        if (values == null) {
+            throw new OrchException("No " + description + " available");
+        }
+        return values;
+    }
+
+    /**
+     * Gets the row of a constraint in the constraint matrix, checking that a solution array covers it.
+     *
+     * @param constraint   The constraint.
+     * @param numberOfRows The number of rows in the solution array that is read.
+     * @return The index of the row.
+     * @throws OrchException If the constraint is not part of the model or was added after the last solve.
+     */
+    private int rowOf(Constraint constraint, int numberOfRows) {
+        if (!(constraint instanceof OrchConstraint constraint_cast) || !isActive(constraint_cast)) {
+            throw new OrchException("Constraint is not part of the model: " + constraint.getName());
+        }
+        if (constraint_cast.row >= numberOfRows) {
+            throw new OrchException("Constraint was added after the last solve: " + constraint.getName());
+        }
+        return constraint_cast.row;
+    }
+
     /**
      * Creates a new numerical variable with specified bounds and name.
      *
@@ -748,12 +1589,11 @@ public class Orchestrate implements Modeler {
      * @return The created numerical variable.
      */
     public NumVar numVar(int lb, int ub, String name) {
-        OrchNumVar var = new OrchNumVar(this.varCounter);
+        OrchNumVar var = new OrchNumVar(this, varCounter);
         var.setLB(lb);
         var.setUB(ub);
         var.setName(name);
         variables.add(var);
-        varToIndex.put(var, varCounter);
         varCounter++;
         return var;
     }
@@ -765,114 +1605,462 @@ public class Orchestrate implements Modeler {
      * @return The created numerical variable.
      */
     public NumVar numVar(String name) {
-        OrchNumVar var = new OrchNumVar(varCounter);
+        OrchNumVar var = new OrchNumVar(this, varCounter);
         var.setName(name);
         variables.add(var);
-        varToIndex.put(var, varCounter);
         varCounter++;
         return var;
     }
 
     /**
      * Solves the model by exporting it to a file and calling the HiGHS solver.
+     * The model and solution files are created in the directory set through {@link #setSolverWorkDirectory(File)},
+     * or streamed through named pipes when enabled through {@link #setSolverPipes(boolean)}.
+     * The output of the solver is logged, or written to the files set through {@link #setSolverLog(File, File)}.
      *
+     * @throws OrchException If the solver fails, exceeds the time limit or is cancelled.
      * @throws RuntimeException If an error occurs during the solving process.
      */
     public void solveByExportingFile() {
         String uniqueID = UUID.randomUUID().toString();
-        // Write to file and call the solver
-        exportModel("out-" + uniqueID + ".lp");
+        File modelFile = new File(solverWorkDirectory, "out-" + uniqueID + solverFileFormat.getExtension());
+        File solutionFile = new File(solverWorkDirectory, "out-" + uniqueID + ".sol");
         try {
-            ProcessBuilder processBuilder = new ProcessBuilder("highs", "--model_file", "out-" + uniqueID + ".lp", "--solution_file", "out-" + uniqueID + ".sol");
-            File outFile = new File("out.txt");
-            File errFile = new File("error.txt");
-            Process process = processBuilder.start();
-            try (BufferedReader stdOutReader = new BufferedReader(new InputStreamReader(process.getInputStream())); BufferedReader stdErrReader = new BufferedReader(new InputStreamReader(process.getErrorStream())); PrintWriter outWriter = new PrintWriter(outFile); PrintWriter errWriter = new PrintWriter(errFile)) {
-                String line;
-                while ((line = stdOutReader.readLine()) != null) {
-                    outWriter.println(line);
-                    logger.info("[STDOUT] {}", line);
+            if (solverPipes) {
+                solveThroughPipes(modelFile, solutionFile);
+            } else {
+                // Write to file and call the solver
+                ModelData data = modelData();
+                Presolve reduction = reduce(data);
+                try (FileChannel channel = FileChannel.open(modelFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    modelWriter(solverFileFormat, data, reduction).write(new ModelOutput(channel));
                 }
-
-                while ((line = stdErrReader.readLine()) != null) {
-                    errWriter.println(line);
-                    logger.error("[STDERR] {}", line);
+                runSolver(modelFile, solutionFile);
+                if (solutionImportPool != null) {
+                    importSol(solutionFile.getPath(), solutionImportPool);
+                } else {
+                    importSol(solutionFile.getPath());
                 }
+                restoreSolution(reduction);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrchException("Interrupted while waiting for the solver", e);
+        } finally {
+            //Delete created files
+            if (modelFile.exists() && !modelFile.delete()) {
+                logger.warn("Failed to delete the file: {}", modelFile.getName());
             }
-            // Log standard output
-            int exitCode = process.waitFor();
-            logger.info("HiGHS solver exited with code: {}", exitCode);
-            if (exitCode != 0) {
-                throw new RuntimeException("HiGHS solver failed with exit code: " + exitCode);
+            if (solutionFile.exists() && !solutionFile.delete()) {
+                logger.warn("Failed to delete the file: {}", solutionFile.getName());
             }
-            importSol("out-" + uniqueID + ".sol");
-            //Delete created files after reading
-            File file = new File("out-" + uniqueID + ".lp");
-            if (!file.delete()) {
-                throw new RuntimeException("Failed to delete the file: " + file.getName());
+        }
+    }
+
+    /**
+     * Solves the model by streaming it to the solver through a named pipe, and reading the solution back through another.
+     * The model is written while the solver parses it and the solution is parsed while the solver writes it,
+     * both on background threads.
+     *
+     * @param modelFile    The path of the pipe to create for the model.
+     * @param solutionFile The path of the pipe to create for the solution.
+     * @throws IOException          If the solver cannot be started.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the solver.
+     * @throws OrchException        If the pipes cannot be created, or the model cannot be written or the solution read.
+     */
+    private void solveThroughPipes(File modelFile, File solutionFile) throws IOException, InterruptedException {
+        ModelData data = modelData();
+        Presolve reduction = reduce(data);
+        SolutionReader reader = new SolutionReader(columnNameIndex(), rowNameIndex());
+        NamedPipe modelPipe = NamedPipe.create(modelFile.toPath());
+        NamedPipe solutionPipe = NamedPipe.create(solutionFile.toPath());
+        modelPipe.start("model-writer", path -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                modelWriter(solverFileFormat, data, reduction).write(new ModelOutput(channel));
             }
-            file = new File("out-" + uniqueID + ".sol");
-            if (!file.delete()) {
-                throw new RuntimeException("Failed to delete the file: " + file.getName());
+        });
+        solutionPipe.start("solution-reader", path -> {
+            try (InputStream in = new FileInputStream(path.toFile())) {
+                reader.read(in);
             }
+        });
+        IOException writeFailure;
+        IOException readFailure;
+        try {
+            runSolver(modelFile, solutionFile);
+        } finally {
+            modelPipe.release();
+            solutionPipe.release();
+            writeFailure = modelPipe.join();
+            readFailure = solutionPipe.join();
+        }
+        if (writeFailure != null) {
+            throw new OrchException("Error writing the model to the solver", writeFailure);
+        }
+        if (readFailure != null) {
+            throw new OrchException("Error reading the solution from the solver", readFailure);
+        }
+        importSolution(reader);
+        restoreSolution(reduction);
+    }
 
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException(e);
+    /**
+     * Runs the HiGHS solver on a model file.
+     *
+     * @param modelFile    The model file to solve.
+     * @param solutionFile The file to write the solution to.
+     * @throws IOException          If the solver cannot be started.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the solver.
+     * @throws OrchException        If the solver fails, exceeds the time limit or is cancelled.
+     */
+    private void runSolver(File modelFile, File solutionFile) throws IOException, InterruptedException {
+        ExternalSolver solver = new ExternalSolver(List.of("highs", "--model_file", modelFile.getPath(), "--solution_file", solutionFile.getPath()),
+                logger, solverStdout, solverStderr, solverTimeout);
+        this.activeSolver = solver;
+        int exitCode;
+        try {
+            exitCode = solver.run();
+        } finally {
+            this.activeSolver = null;
+        }
+        logger.info("HiGHS solver exited with code: {}", exitCode);
+        if (exitCode != 0) {
+            throw new OrchException("HiGHS solver failed with exit code: " + exitCode);
+        }
+    }
+
+    /**
+     * Sets the directory in which {@link #solveByExportingFile()} creates the model and solution files.
+     * Pointing this at a memory-backed file system such as /dev/shm keeps the files off slow or persistent storage.
+     *
+     * @param directory The directory to create the files in, or null for the working directory.
+     */
+    public void setSolverWorkDirectory(File directory) {
+        this.solverWorkDirectory = directory;
+    }
+
+    /**
+     * Sets the format in which {@link #solveByExportingFile()} writes the model for the solver.
+     * The MPS format is faster to write and for HiGHS to read than the default LP format, which pays off for
+     * large models.
+     *
+     * @param format The format to write the model in.
+     */
+    public void setSolverFileFormat(ModelFormat format) {
+        this.solverFileFormat = format;
+    }
+
+    /**
+     * Sets whether {@link #solveByExportingFile()} streams the model and solution through named pipes instead of files.
+     * The pipes are created with mkfifo in the directory set through {@link #setSolverWorkDirectory(File)}, so this
+     * is only available on systems providing mkfifo. The model is written while the solver reads it, and the solution
+     * is parsed while the solver writes it. Solution files are then always read as a stream, the pool set through
+     * {@link #setSolutionImportPool(ForkJoinPool)} is not used.
+     *
+     * @param usePipes Whether to use named pipes.
+     */
+    public void setSolverPipes(boolean usePipes) {
+        this.solverPipes = usePipes;
+    }
+
+    /**
+     * Sets the files the output of the external solver is written to by {@link #solveByExportingFile()}.
+     * Output without a file is written to the log.
+     *
+     * @param stdout The file to write the standard output to, or null to log it.
+     * @param stderr The file to write the standard error to, or null to log it.
+     */
+    public void setSolverLog(File stdout, File stderr) {
+        this.solverStdout = stdout;
+        this.solverStderr = stderr;
+    }
+
+    /**
+     * Sets the maximum time {@link #solveByExportingFile()} waits for the external solver before killing it.
+     *
+     * @param timeout The time limit, or null for no limit.
+     */
+    public void setSolverTimeout(Duration timeout) {
+        this.solverTimeout = timeout;
+    }
+
+    /**
+     * Cancels a running {@link #solveByExportingFile()} by killing the external solver.
+     * The solving thread then throws an {@link OrchException}. Has no effect if no external solver is running.
+     */
+    public void cancel() {
+        ExternalSolver solver = activeSolver;
+        if (solver != null) {
+            solver.cancel();
         }
     }
 
     /**
      * Solves the model by calling the HiGHS solver directly through the JHighs library.
+     * The HiGHS instance is kept between solves. When only variables, constraints or objective changes were added
+     * since the last solve, just those are pushed to the instance and it continues from its previous basis.
+     * Changing the bounds or type of an existing variable loads the model into a new instance.
+     * With presolve enabled, see {@link #setPresolve(boolean)}, the reduced model is loaded into a new instance every time.
      *
+     * @throws OrchException If presolve proves that the model is infeasible.
      * @throws RuntimeException If an error occurs during the solving process.
      */
     public void solve() {
-        HiGHS solver = new HiGHS();
-        // Add the variables to the solver
-        for (NumVar variable : variables) {
-            solver.addVar(variable.getLB(), variable.getUB());
-            if (variable instanceof OrchIntVar ) {
-                solver.changeColIntegrality(varToIndex.get(variable),VarType.kInteger);
-            }
-        }
-        // Add the constraints to the solver
-        for (Constraint constraint : constraints) {
-            OrchConstraint orchConstraint = new OrchConstraint(constraint);
-            OrchNumExpr lhs_expr = new OrchNumExpr(orchConstraint.lhs);
-            OrchNumExpr rhs_expr = new OrchNumExpr(orchConstraint.rhs);
-            int i = 0;
-
-            if(orchConstraint.type == ConstraintType.Eq) {
-                solver.addConstraint(lhs_expr.coefficients, lhs_expr.variables, rhs_expr.constant,   rhs_expr.constant);
-            } else if(orchConstraint.type == ConstraintType.Le) {
-                solver.addConstraint(lhs_expr.coefficients,  lhs_expr.variables, Double.NEGATIVE_INFINITY, rhs_expr.constant);
-            } else if(orchConstraint.type == ConstraintType.Ge) {
-                solver.addConstraint(lhs_expr.coefficients,  lhs_expr.variables, rhs_expr.constant, Double.POSITIVE_INFINITY);
-            } else {
-                throw new OrchException("Invalid constraint type: " + orchConstraint.type);
-            }
+        ModelData data = modelData();
+        Presolve reduction = reduce(data);
+        HiGHS solver = this.highs;
+        // Forget the loaded model first, so a failure while loading causes a full reload next time
+        this.highs = null;
+        if (reduction != null) {
+            // A reduced model has its own columns and rows, so it cannot be pushed as changes to a loaded model
+            solver = new HiGHS();
+            loadModel(solver, reduction.reduced);
+        } else if (solver != null && extendsLoadedModel(data)) {
+            loadChanges(solver, data);
+        } else {
+            solver = new HiGHS();
+            loadModel(solver, data);
+        }
+        if (reduction == null) {
+            this.highs = solver;
+            this.loadedData = data;
+            this.loadedRows = data.rows.numberOfRows;
         }
-        // Set the objective function
-        OrchNumExpr objectiveExpr = new OrchNumExpr(this.objective.getExpr());
-
-        solver.setObjectiveFunction(objectiveExpr.coefficients, objectiveExpr.variables, this.objective.sense == ObjectiveSense.Minimize, objectiveExpr.constant);
 
         HighsStatus highsStatus = solver.solve();
         if (highsStatus == HighsStatus.kOk){
             this.status = Status.Optimal;
             // Import the solution values
             Solution solution = solver.getSolution();
-            double[] values = solution.getVariableValues();
-            for (int j = 0; j < values.length; j++) {
-                NumVar variable = variables.get(j);
-                this.solutionValues.put(variable, values[j]);
-            }
+            this.solutionValues = reduction != null ? reduction.postsolve(solution.getVariableValues()) : solution.getVariableValues();
+            this.rowActivities = computeRowActivities(solutionValues);
+            this.reducedCosts = null;
+            this.dualValues = null;
+            this.columnBasis = null;
+            this.rowBasis = null;
             this.objectiveValue = solution.getObjectiveValue();
         } else if (highsStatus == HighsStatus.kError) {
             this.status = Status.Error;
             throw new OrchException("An error occurred while solving the model: " + highsStatus);
         }
     }
+
+    /**
+     * Releases the HiGHS instance that {@link #solve()} keeps between solves.
+     * The next solve loads the model into a new instance, starting without a basis.
+     */
+    public void discardSolver() {
+        this.highs = null;
+        this.loadedData = null;
+        this.loadedRows = 0;
+    }
+
+    /**
+     * Checks whether a model snapshot only extends the model loaded into the kept HiGHS instance.
+     * This is the case when the loaded columns kept their bounds and types and no rows were removed.
+     * New columns, new rows and a changed objective can then be pushed to the instance.
+     *
+     * @param data The snapshot of the model to solve.
+     * @return Whether the snapshot can be loaded by pushing the changes only.
+     */
+    private boolean extendsLoadedModel(ModelData data) {
+        ModelData loaded = this.loadedData;
+        if (loaded == null || data.numberOfColumns < loaded.numberOfColumns || data.rows.numberOfRows < loadedRows) {
+            return false;
+        }
+        return Arrays.equals(data.columnLower, 0, loaded.numberOfColumns, loaded.columnLower, 0, loaded.numberOfColumns)
+                && Arrays.equals(data.columnUpper, 0, loaded.numberOfColumns, loaded.columnUpper, 0, loaded.numberOfColumns)
+                && Arrays.equals(data.columnTypes, 0, loaded.numberOfColumns, loaded.columnTypes, 0, loaded.numberOfColumns);
+    }
+
+    /**
+     * Pushes the columns and rows added since the last solve, and the objective if it changed, to the kept HiGHS instance.
+     * The instance keeps its basis, so the next solve starts from the previous optimum.
+     *
+     * @param solver The HiGHS instance holding the previously loaded model.
+     * @param data   The snapshot of the model to solve.
+     */
+    private void loadChanges(HiGHS solver, ModelData data) {
+        ModelData loaded = this.loadedData;
+        loadColumns(solver, data, loaded.numberOfColumns);
+        loadRows(solver, data.rows, loadedRows);
+        boolean objectiveChanged = data.minimize != loaded.minimize || data.objectiveOffset != loaded.objectiveOffset
+                || !Arrays.equals(data.objective, 0, loaded.numberOfColumns, loaded.objective, 0, loaded.numberOfColumns);
+        for (int j = loaded.numberOfColumns; j < data.numberOfColumns && !objectiveChanged; j++) {
+            objectiveChanged = data.objective[j] != 0;
+        }
+        if (objectiveChanged) {
+            // Pass every column, so costs that became zero are reset as well
+            int[] columns = new int[data.numberOfColumns];
+            for (int j = 0; j < columns.length; j++) {
+                columns[j] = j;
+            }
+            solver.setObjectiveFunction(data.objective, columns, data.minimize, data.objectiveOffset);
+        }
+    }
+
+    /**
+     * Solves the model on an executor by calling the HiGHS solver directly, see {@link #solve()}.
+     * The model must not be changed until the returned future completes. When it completes, the solution can also be
+     * read from this object. The native solver cannot be interrupted, so cancelling the future while HiGHS runs only
+     * discards the result. The executor may use virtual threads, a native solve does occupy its carrier thread.
+     *
+     * @param executor The executor to solve the model on.
+     * @return A future completing with the result, or exceptionally with the {@link OrchException} of a failed solve.
+     */
+    public CompletableFuture<SolveResult> solveAsync(Executor executor) {
+        return AsyncSolve.submit(executor, () -> {
+            solve();
+            return result();
+        });
+    }
+
+    /**
+     * Solves the model on an executor by exporting it and calling the HiGHS solver, see {@link #solveByExportingFile()}.
+     * The model must not be changed until the returned future completes. When it completes, the solution can also be
+     * read from this object. Cancelling the future kills the external solver. While the solver runs, the executor
+     * thread only waits for the process, which makes this well suited for executors using virtual threads.
+     *
+     * @param executor The executor to solve the model on.
+     * @return A future completing with the result, or exceptionally with the {@link OrchException} of a failed solve.
+     */
+    public CompletableFuture<SolveResult> solveByExportingFileAsync(Executor executor) {
+        return AsyncSolve.submit(executor, () -> {
+            solveByExportingFile();
+            return result();
+        });
+    }
+
+    /**
+     * Creates a snapshot of the current status and solution.
+     *
+     * @return The snapshot.
+     */
+    private SolveResult result() {
+        return new SolveResult(this, status, objectiveValue, solutionValues, rowActivities, reducedCosts, dualValues, constraints.toArray(new Constraint[0]));
+    }
+
+    /**
+     * Creates a column-oriented snapshot of the model.
+     * The column bounds, types and the objective are copied into primitive arrays, the constraint matrix is shared.
+     * Absent column bounds are stored as infinities and a model without an objective is treated as minimizing zero.
+     * Pending constraints are normalized and rows of removed constraints dropped first, and removed variables are
+     * fixed at zero.
+     *
+     * @return The snapshot of the model.
+     * @throws OrchException If a variable type is invalid.
+     */
+    ModelData modelData() {
+        compactConstraints();
+        ModelData data = new ModelData(variables.size(), matrix);
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            NumVar variable = variables.get(j);
+            double lower = variable.getLB();
+            double upper = variable.getUB();
+            if (variable instanceof OrchBoolVar) {
+                data.columnTypes[j] = ModelData.BINARY;
+            } else if (variable instanceof OrchIntVar) {
+                data.columnTypes[j] = ModelData.INTEGER;
+                // The integer bounds of an IntVar use the extreme int values for an absent bound
+                lower = lower <= Integer.MIN_VALUE ? Double.NEGATIVE_INFINITY : lower;
+                upper = upper >= Integer.MAX_VALUE ? Double.POSITIVE_INFINITY : upper;
+            } else if (variable instanceof OrchNumVar) {
+                data.columnTypes[j] = ModelData.CONTINUOUS;
+            } else {
+                throw new OrchException("Invalid variable type: " + variable.getClass());
+            }
+            if (removedColumns.get(j)) {
+                // A removed variable is fixed at zero, so it no longer contributes to any row or the objective
+                lower = 0;
+                upper = 0;
+            }
+            data.columnLower[j] = lower <= -Double.MAX_VALUE ? Double.NEGATIVE_INFINITY : lower;
+            data.columnUpper[j] = upper >= Double.MAX_VALUE ? Double.POSITIVE_INFINITY : upper;
+        }
+        data.minimize = this.objective == null || this.objective.sense != ObjectiveSense.Maximize;
+        if (this.objective != null) {
+            OrchNumExpr objectiveExpr = new OrchNumExpr(this.objective.getExpr());
+            for (int i = 0; i < objectiveExpr.numberOfVariables; i++) {
+                data.objective[objectiveExpr.variables[i]] += objectiveExpr.coefficients[i];
+            }
+            data.objectiveOffset = objectiveExpr.constant;
+        }
+        return data;
+    }
+
+    /**
+     * Loads a model snapshot into a HiGHS instance.
+     * All data is prepared in primitive arrays beforehand, so this only performs the calls into the solver:
+     * one per column, one per integer column, one per row and one for the objective.
+     *
+     * @param solver The HiGHS instance to load the model into.
+     * @param data   The model snapshot to load.
+     */
+    static void loadModel(HiGHS solver, ModelData data) {
+        loadColumns(solver, data, 0);
+        loadRows(solver, data.rows, 0);
+        int objectiveLength = 0;
+        for (int j = 0; j < data.numberOfColumns; j++) {
+            if (data.objective[j] != 0) {
+                objectiveLength++;
+            }
+        }
+        double[] objectiveValues = new double[objectiveLength];
+        int[] objectiveColumns = new int[objectiveLength];
+        for (int j = 0, k = 0; j < data.numberOfColumns; j++) {
+            if (data.objective[j] != 0) {
+                objectiveValues[k] = data.objective[j];
+                objectiveColumns[k] = j;
+                k++;
+            }
+        }
+        solver.setObjectiveFunction(objectiveValues, objectiveColumns, data.minimize, data.objectiveOffset);
+    }
+
+    /**
+     * Adds columns of a model snapshot to a HiGHS instance.
+     *
+     * @param solver The HiGHS instance to add the columns to.
+     * @param data   The model snapshot holding the columns.
+     * @param from   The first column to add.
+     */
+    private static void loadColumns(HiGHS solver, ModelData data, int from) {
+        for (int j = from; j < data.numberOfColumns; j++) {
+            solver.addVar(data.columnLower[j], data.columnUpper[j]);
+        }
+        for (int j = from; j < data.numberOfColumns; j++) {
+            if (data.columnTypes[j] != ModelData.CONTINUOUS) {
+                solver.changeColIntegrality(j, VarType.kInteger);
+            }
+        }
+    }
+
+    /**
+     * Adds rows of a constraint matrix to a HiGHS instance.
+     * Rows of equal length reuse the same buffers, since the solver copies them on every call.
+     *
+     * @param solver The HiGHS instance to add the rows to.
+     * @param rows   The constraint matrix holding the rows.
+     * @param from   The first row to add.
+     */
+    private static void loadRows(HiGHS solver, ConstraintMatrix rows, int from) {
+        double[] rowValues = new double[0];
+        int[] rowColumns = new int[0];
+        for (int row = from; row < rows.numberOfRows; row++) {
+            int start = rows.rowStart(row);
+            int length = rows.rowEnd(row) - start;
+            if (length != rowValues.length) {
+                rowValues = new double[length];
+                rowColumns = new int[length];
+            }
+            System.arraycopy(rows.values, start, rowValues, 0, length);
+            System.arraycopy(rows.columnIndices, start, rowColumns, 0, length);
+            solver.addConstraint(rowValues, rowColumns, rows.rowLower[row], rows.rowUpper[row]);
+        }
+    }
+
     /**
      * Rebalances the constraint by subtracting the right-hand side from the left-hand side.
      *
@@ -881,18 +2069,17 @@ public class Orchestrate implements Modeler {
      */
     public Constraint rebalanceConstraint(Constraint constraint) {
         OrchConstraint orchConstraint = new OrchConstraint(constraint);
-        LinkedHashMap<Integer, Double> variablesAndCoefficients = new LinkedHashMap<>();
         OrchNumExpr lhs_expr = new OrchNumExpr(orchConstraint.lhs);
         OrchNumExpr rhs_expr = new OrchNumExpr(orchConstraint.rhs);
-        for(int i = 0; i < lhs_expr.variables.length; i++) {
-            variablesAndCoefficients.put(lhs_expr.variables[i], lhs_expr.coefficients[i]);
-        }
-        for (int i = 0; i < rhs_expr.variables.length; i++) {
-            if (variablesAndCoefficients.containsKey(rhs_expr.variables[i])) {
-                variablesAndCoefficients.put(rhs_expr.variables[i], variablesAndCoefficients.get(rhs_expr.variables[i]) - rhs_expr.coefficients[i]);
-            } else {
-                variablesAndCoefficients.put(rhs_expr.variables[i], -rhs_expr.coefficients[i]);
-            }
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            accumulator.addAll(lhs_expr.variables, lhs_expr.coefficients, lhs_expr.numberOfVariables, 1.0);
+            accumulator.addAll(rhs_expr.variables, rhs_expr.coefficients, rhs_expr.numberOfVariables, -1.0);
+            lhs_expr.variables = accumulator.variablesToArray();
+            lhs_expr.coefficients = accumulator.coefficientsToArray();
+            lhs_expr.numberOfVariables = accumulator.size();
+        } finally {
+            accumulator.release();
         }
         orchConstraint.lhs = lhs_expr;
         orchConstraint.rhs = constant(rhs_expr.constant - lhs_expr.constant);
@@ -900,6 +2087,126 @@ public class Orchestrate implements Modeler {
         return orchConstraint;
     }
 
+    /**
+     * Gets the column of a variable in a solution array of a model.
+     *
+     * @param model           The model the solution array belongs to.
+     * @param var             The variable.
+     * @param numberOfColumns The number of columns in the solution array that is read.
+     * @return The column index of the variable.
+     * @throws OrchException If the variable is not part of the model or was added after the solution was obtained.
+     */
+    static int columnOf(Orchestrate model, NumVar var, int numberOfColumns) {
+        if (modelOf(var) != model) {
+            throw new OrchException("Variable is not part of the model: " + var.getName());
+        }
+        int column = indexOf(var);
+        if (column >= numberOfColumns) {
+            throw new OrchException("Variable was added after the last solve: " + var.getName());
+        }
+        return column;
+    }
+
+    /**
+     * Gets the model a variable belongs to.
+     *
+     * @param var The variable.
+     * @return The model of the variable, or null if it was created outside a model.
+     * @throws OrchException If the variable type is not supported.
+     */
+    static Orchestrate modelOf(NumVar var) {
+        if (var instanceof OrchNumVar var_cast) {
+            return var_cast.model;
+        }
+        if (var instanceof OrchIntVar var_cast) {
+            return var_cast.model;
+        }
+        throw new OrchException("Invalid variable type: " + var.getClass());
+    }
+
+    /**
+     * Gets the column index of a variable.
+     *
+     * @param var The variable.
+     * @return The column index of the variable in its model.
+     * @throws OrchException If the variable type is not supported.
+     */
+    static int indexOf(NumVar var) {
+        if (var instanceof OrchNumVar var_cast) {
+            return var_cast.getIndex();
+        }
+        if (var instanceof OrchIntVar var_cast) {
+            return var_cast.getIndex();
+        }
+        throw new OrchException("Invalid variable type: " + var.getClass());
+    }
+
+    /**
+     * Adds the terms and the constant of an expression, multiplied by a factor, to an accumulator.
+     *
+     * @param accumulator The accumulator to add to.
+     * @param expr        The expression to add.
+     * @param factor      The factor to multiply the expression with.
+     * @throws OrchException If the expression type is invalid.
+     */
+    static void accumulate(TermAccumulator accumulator, NumExpr expr, double factor) {
+        if (expr instanceof OrchNumVar || expr instanceof OrchIntVar) {
+            accumulator.add(indexOf((NumVar) expr), factor);
+        } else if (expr instanceof OrchNumExpr expr_cast) {
+            accumulator.addAll(expr_cast.variables, expr_cast.coefficients, expr_cast.numberOfVariables, factor);
+            accumulator.constant += factor * expr_cast.constant;
+        } else if (expr instanceof OrchIntExpr expr_cast) {
+            accumulator.addAll(expr_cast.variables, expr_cast.coefficients, expr_cast.numberOfVariables, factor);
+            accumulator.constant += factor * expr_cast.constant;
+        } else if (expr instanceof LinearExprBuilder builder) {
+            accumulator.addAll(builder.variables, builder.coefficients, builder.numberOfTerms, factor);
+            accumulator.constant += factor * builder.constant;
+        } else {
+            OrchNumExpr flat = new OrchNumExpr(expr);
+            accumulator.addAll(flat.variables, flat.coefficients, flat.numberOfVariables, factor);
+            accumulator.constant += factor * flat.constant;
+        }
+    }
+
+    /**
+     * Creates an objective owned by this model.
+     *
+     * @param expr  The numerical expression representing the objective.
+     * @param sense The sense of the objective.
+     * @return The created objective.
+     */
+    private OrchObjective createObjective(NumExpr expr, ObjectiveSense sense) {
+        OrchObjective objective = new OrchObjective(snapshot(expr), sense);
+        objective.counter = counter;
+        return objective;
+    }
+
+    /**
+     * Creates a numerical expression from the terms and the constant of an accumulator.
+     *
+     * @param accumulator The accumulator holding the terms.
+     * @return The resulting numerical expression.
+     */
+    private OrchNumExpr toNumExpr(TermAccumulator accumulator) {
+        OrchNumExpr expr = new OrchNumExpr(accumulator.variablesToArray(), accumulator.coefficientsToArray(), accumulator.constant);
+        expr.counter = counter;
+        return expr;
+    }
+
+    /**
+     * Replaces a linear expression builder by an immutable copy of its current state,
+     * so that later changes to the builder do not affect the expressions and constraints it was used in.
+     *
+     * @param expr The expression to snapshot.
+     * @return An immutable copy if the expression is a builder, otherwise the expression itself.
+     */
+    private static NumExpr snapshot(NumExpr expr) {
+        if (expr instanceof LinearExprBuilder builder) {
+            return builder.build();
+        }
+        return expr;
+    }
+
     public Status getStatus() {
         return this.status;
     }
@@ -911,5 +2218,27 @@ public class Orchestrate implements Modeler {
         Bounded, Error, Feasible, Infeasible, InfeasibleOrUnbounded, Optimal, Unbounded, Unknown
     }
 
+    /**
+     * Enum representing the status of a variable or constraint in the basis, in the order of the HiGHS status codes.
+     */
+    public enum BasisStatus {
+        AtLower, Basic, AtUpper, Zero, NonBasic;
+
+        /**
+         * Gets the basis status of a HiGHS status code.
+         *
+         * @param code The status code.
+         * @return The basis status.
+         * @throws OrchException If the code is unknown.
+         */
+        static BasisStatus of(int code) {
+            BasisStatus[] values = values();
+            if (code < 0 || code >= values.length) {
+                throw new OrchException("Unknown basis status code: " + code);
+            }
+            return values[code];
+        }
+    }
+
 
 }
@@ -0,0 +1,277 @@
+package nl.jessenagel.orchestrate;
+
+import java.util.Arrays;
+
+/**
+ * Reduces a model snapshot before it is handed to a solver, and maps the solution of the reduced model back.
+ * The reductions are:
+ * <ul>
+ *     <li>rows with a single variable become bounds of that variable,</li>
+ *     <li>variables with equal bounds are substituted into the rows and the objective,</li>
+ *     <li>rows without variables are checked and dropped,</li>
+ *     <li>rows with the same coefficients as an earlier row are merged into that row.</li>
+ * </ul>
+ * Fixing a variable can turn other rows into singleton or empty rows, so the first three reductions are repeated
+ * a limited number of times. Infeasibility found along the way is reported through {@link #infeasible}.
+ */
+final class Presolve {
+    /**
+     * The tolerance used when checking bounds against each other.
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * The largest number of passes over the rows looking for singleton and empty rows.
+     */
+    private static final int MAX_PASSES = 8;
+
+    /**
+     * The reduced model.
+     */
+    final ModelData reduced;
+
+    /**
+     * The original column of each column of the reduced model.
+     */
+    final int[] columns;
+
+    /**
+     * The original row of each row of the reduced model.
+     */
+    final int[] rows;
+
+    /**
+     * Whether the reductions proved that the model is infeasible. The reduced model is then incomplete.
+     */
+    boolean infeasible;
+
+    /**
+     * The column of each original column in the reduced model, or -1 if it was fixed and substituted.
+     */
+    private final int[] columnMap;
+
+    /**
+     * The tightened lower bound of each original column, which is the value of a fixed column.
+     */
+    private final double[] lower;
+
+    /**
+     * The tightened upper bound of each original column.
+     */
+    private final double[] upper;
+
+    /**
+     * Reduces a model snapshot.
+     *
+     * @param data The snapshot to reduce, which is not changed.
+     */
+    Presolve(ModelData data) {
+        int numberOfColumns = data.numberOfColumns;
+        ConstraintMatrix matrix = data.rows;
+        this.lower = data.columnLower.clone();
+        this.upper = data.columnUpper.clone();
+        for (int j = 0; j < numberOfColumns; j++) {
+            tightenIntegerBounds(data, j);
+        }
+        boolean[] dropped = new boolean[matrix.numberOfRows];
+        reduceRows(data, dropped);
+
+        // Substitute the fixed columns
+        this.columnMap = new int[numberOfColumns];
+        int keptColumns = 0;
+        double offset = data.objectiveOffset;
+        for (int j = 0; j < numberOfColumns; j++) {
+            if (lower[j] == upper[j]) {
+                columnMap[j] = -1;
+                offset += data.objective[j] * lower[j];
+            } else {
+                columnMap[j] = keptColumns++;
+            }
+        }
+        this.columns = new int[keptColumns];
+        ConstraintMatrix reducedRows = new ConstraintMatrix();
+        this.reduced = new ModelData(keptColumns, reducedRows);
+        for (int j = 0; j < numberOfColumns; j++) {
+            int column = columnMap[j];
+            if (column >= 0) {
+                columns[column] = j;
+                reduced.columnLower[column] = lower[j];
+                reduced.columnUpper[column] = upper[j];
+                reduced.columnTypes[column] = data.columnTypes[j];
+                reduced.objective[column] = data.objective[j];
+            }
+        }
+        reduced.objectiveOffset = offset;
+        reduced.minimize = data.minimize;
+        this.rows = copyRows(matrix, dropped, reducedRows);
+    }
+
+    /**
+     * Maps the column values of the reduced model to the original columns.
+     *
+     * @param reducedValues The values of the columns of the reduced model.
+     * @return The values of the original columns.
+     */
+    double[] postsolve(double[] reducedValues) {
+        double[] values = new double[columnMap.length];
+        for (int j = 0; j < columnMap.length; j++) {
+            values[j] = columnMap[j] >= 0 ? reducedValues[columnMap[j]] : lower[j];
+        }
+        return values;
+    }
+
+    /**
+     * Sets the values of the substituted columns in an array of values of the original columns.
+     *
+     * @param values The values of the original columns, of which only the columns of the reduced model are set.
+     */
+    void restoreFixedColumns(double[] values) {
+        for (int j = 0; j < columnMap.length; j++) {
+            if (columnMap[j] < 0) {
+                values[j] = lower[j];
+            }
+        }
+    }
+
+    /**
+     * Turns singleton rows into bounds and drops empty rows, until no new column gets fixed.
+     */
+    private void reduceRows(ModelData data, boolean[] dropped) {
+        ConstraintMatrix matrix = data.rows;
+        boolean fixedColumn = true;
+        for (int pass = 0; pass < MAX_PASSES && fixedColumn && !infeasible; pass++) {
+            fixedColumn = false;
+            for (int row = 0; row < matrix.numberOfRows && !infeasible; row++) {
+                if (dropped[row]) {
+                    continue;
+                }
+                int live = 0;
+                int liveEntry = -1;
+                double fixedActivity = 0.0;
+                for (int k = matrix.rowStart(row); k < matrix.rowEnd(row); k++) {
+                    int j = matrix.columnIndices[k];
+                    if (lower[j] == upper[j]) {
+                        fixedActivity += matrix.values[k] * lower[j];
+                    } else if (matrix.values[k] != 0) {
+                        live++;
+                        liveEntry = k;
+                    }
+                }
+                double rowLower = matrix.rowLower[row] - fixedActivity;
+                double rowUpper = matrix.rowUpper[row] - fixedActivity;
+                if (live == 0) {
+                    infeasible |= rowLower > TOLERANCE || rowUpper < -TOLERANCE;
+                    dropped[row] = true;
+                } else if (live == 1) {
+                    int j = matrix.columnIndices[liveEntry];
+                    double a = matrix.values[liveEntry];
+                    lower[j] = Math.max(lower[j], a > 0 ? rowLower / a : rowUpper / a);
+                    upper[j] = Math.min(upper[j], a > 0 ? rowUpper / a : rowLower / a);
+                    tightenIntegerBounds(data, j);
+                    dropped[row] = true;
+                    fixedColumn |= lower[j] == upper[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Rounds the bounds of an integer column inwards and checks them, fixing the column when they meet.
+     */
+    private void tightenIntegerBounds(ModelData data, int j) {
+        if (data.columnTypes[j] != ModelData.CONTINUOUS) {
+            lower[j] = Math.ceil(lower[j] - TOLERANCE);
+            upper[j] = Math.floor(upper[j] + TOLERANCE);
+        }
+        if (lower[j] > upper[j]) {
+            if (lower[j] - upper[j] > TOLERANCE * Math.max(1.0, Math.abs(upper[j]))) {
+                infeasible = true;
+            }
+            lower[j] = upper[j];
+        }
+    }
+
+    /**
+     * Copies the rows that were not dropped into the reduced matrix, without the substituted columns and with their
+     * terms ordered by column. A row with the same terms as an earlier row is merged into it by intersecting the bounds.
+     *
+     * @return The original row of each reduced row.
+     */
+    private int[] copyRows(ConstraintMatrix matrix, boolean[] dropped, ConstraintMatrix reducedRows) {
+        int[] originalRows = new int[matrix.numberOfRows];
+        int[] slots = new int[Integer.highestOneBit(Math.max(matrix.numberOfRows, 1) * 2 - 1) << 1];
+        int[] hashes = new int[matrix.numberOfRows];
+        int[] termColumns = new int[16];
+        double[] termValues = new double[16];
+        long[] keys = new long[16];
+        for (int row = 0; row < matrix.numberOfRows && !infeasible; row++) {
+            if (dropped[row]) {
+                continue;
+            }
+            int start = matrix.rowStart(row);
+            int end = matrix.rowEnd(row);
+            if (end - start > keys.length) {
+                keys = new long[end - start];
+                termColumns = new int[end - start];
+                termValues = new double[end - start];
+            }
+            // Sort the remaining terms by their reduced column, keeping the position of each term in the low bits
+            int length = 0;
+            double fixedActivity = 0.0;
+            for (int k = start; k < end; k++) {
+                int j = matrix.columnIndices[k];
+                if (columnMap[j] < 0) {
+                    fixedActivity += matrix.values[k] * lower[j];
+                } else if (matrix.values[k] != 0) {
+                    keys[length++] = ((long) columnMap[j] << 32) | (k - start);
+                }
+            }
+            Arrays.sort(keys, 0, length);
+            for (int i = 0; i < length; i++) {
+                termColumns[i] = (int) (keys[i] >>> 32);
+                termValues[i] = matrix.values[start + (int) keys[i]];
+            }
+            double rowLower = matrix.rowLower[row] - fixedActivity;
+            double rowUpper = matrix.rowUpper[row] - fixedActivity;
+            int hash = hash(termColumns, termValues, length);
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            int duplicate = -1;
+            while (slots[slot] != 0) {
+                int candidate = slots[slot] - 1;
+                if (hashes[candidate] == hash && sameTerms(reducedRows, candidate, termColumns, termValues, length)) {
+                    duplicate = candidate;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (duplicate >= 0) {
+                reducedRows.rowLower[duplicate] = Math.max(reducedRows.rowLower[duplicate], rowLower);
+                reducedRows.rowUpper[duplicate] = Math.min(reducedRows.rowUpper[duplicate], rowUpper);
+                infeasible |= reducedRows.rowLower[duplicate] - reducedRows.rowUpper[duplicate] > TOLERANCE * Math.max(1.0, Math.abs(reducedRows.rowUpper[duplicate]));
+            } else {
+                int reducedRow = reducedRows.addRow(termColumns, termValues, length, rowLower, rowUpper);
+                originalRows[reducedRow] = row;
+                hashes[reducedRow] = hash;
+                slots[slot] = reducedRow + 1;
+            }
+        }
+        return Arrays.copyOf(originalRows, reducedRows.numberOfRows);
+    }
+
+    private static boolean sameTerms(ConstraintMatrix matrix, int row, int[] termColumns, double[] termValues, int length) {
+        int start = matrix.rowStart(row);
+        return matrix.rowEnd(row) - start == length
+                && Arrays.equals(matrix.columnIndices, start, start + length, termColumns, 0, length)
+                && Arrays.equals(matrix.values, start, start + length, termValues, 0, length);
+    }
+
+    private static int hash(int[] termColumns, double[] termValues, int length) {
+        int h = length;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + termColumns[i];
+            h = 31 * h + Double.hashCode(termValues[i]);
+        }
+        return h ^ (h >>> 16);
+    }
+}
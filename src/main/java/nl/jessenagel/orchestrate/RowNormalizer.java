@@ -0,0 +1,105 @@
+package nl.jessenagel.orchestrate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Normalizes constraints into rows of a {@link ConstraintMatrix}: all variables are moved to the left-hand side and
+ * all constants to the bounds of the row.
+ * Large batches of constraints are split into chunks that are normalized in parallel, each into a matrix of its own,
+ * after which the chunk matrices are appended in order. The result equals normalizing the batch sequentially.
+ */
+final class RowNormalizer {
+    /**
+     * The number of constraints normalized by one task.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private RowNormalizer() {
+    }
+
+    /**
+     * Normalizes a constraint and appends it to a matrix.
+     *
+     * @param matrix     The matrix to append the row to.
+     * @param constraint The constraint to normalize.
+     * @return The index of the appended row.
+     * @throws OrchException If the constraint type or an expression type is invalid.
+     */
+    static int normalize(ConstraintMatrix matrix, OrchConstraint constraint) {
+        TermAccumulator accumulator = TermAccumulator.acquire();
+        try {
+            Orchestrate.accumulate(accumulator, constraint.lhs, 1.0);
+            Orchestrate.accumulate(accumulator, constraint.rhs, -1.0);
+            double bound = -accumulator.constant;
+            if (constraint.type == ConstraintType.Eq) {
+                return matrix.addRow(accumulator, bound, bound);
+            } else if (constraint.type == ConstraintType.Le) {
+                return matrix.addRow(accumulator, Double.NEGATIVE_INFINITY, bound);
+            } else if (constraint.type == ConstraintType.Ge) {
+                return matrix.addRow(accumulator, bound, Double.POSITIVE_INFINITY);
+            } else {
+                throw new OrchException("Invalid constraint type: " + constraint.type);
+            }
+        } finally {
+            accumulator.release();
+        }
+    }
+
+    /**
+     * Normalizes a batch of constraints and appends them to a matrix in order.
+     * The matrix is only changed once all constraints were normalized successfully.
+     *
+     * @param matrix      The matrix to append the rows to.
+     * @param constraints The constraints to normalize.
+     * @param pool        The pool to normalize on, or null to normalize on the calling thread.
+     * @throws OrchException If a constraint type or an expression type is invalid.
+     */
+    static void normalizeAll(ConstraintMatrix matrix, List<OrchConstraint> constraints, ForkJoinPool pool) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (int from = 0; from < constraints.size(); from += CHUNK_SIZE) {
+            chunks.add(new Chunk(constraints, from, Math.min(from + CHUNK_SIZE, constraints.size())));
+        }
+        if (pool == null || chunks.size() == 1) {
+            for (Chunk chunk : chunks) {
+                chunk.compute();
+            }
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(chunks);
+                }
+            });
+        }
+        for (Chunk chunk : chunks) {
+            matrix.append(chunk.rows);
+        }
+    }
+
+    /**
+     * A range of constraints, normalized into a matrix of its own.
+     */
+    private static final class Chunk extends RecursiveAction {
+        private final List<OrchConstraint> constraints;
+        private final int from;
+        private final int to;
+        private final ConstraintMatrix rows;
+
+        Chunk(List<OrchConstraint> constraints, int from, int to) {
+            this.constraints = constraints;
+            this.from = from;
+            this.to = to;
+            this.rows = new ConstraintMatrix();
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = from; i < to; i++) {
+                normalize(rows, constraints.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,660 @@
+package nl.jessenagel.orchestrate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads a solution file written by HiGHS.
+ * The file is tokenized on raw bytes, one line at a time, and names are resolved to column and row indices
+ * through a {@link NameIndex}. Since HiGHS writes the columns and rows of every section in the same order,
+ * the order found in the first section is remembered and names are checked against the expected position
+ * before falling back to a hash lookup.
+ * Besides the primal values and row activities, the dual values and the basis are read when the file holds them.
+ */
+final class SolutionReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The approximate number of bytes of a list of values that is parsed as one task when reading a mapped file.
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private enum Section {
+        HEADER, PRIMAL, DUAL, BASIS, OTHER
+    }
+
+    private final NameIndex columns;
+    private final NameIndex rows;
+
+    /**
+     * The model status stated in the file, or null if it is not one of the recognized statuses.
+     */
+    Orchestrate.Status status;
+
+    /**
+     * Whether the file holds an objective value.
+     */
+    boolean hasObjective;
+
+    /**
+     * The objective value stated in the file.
+     */
+    double objectiveValue;
+
+    /**
+     * The primal values of the columns, or null if the file holds none.
+     */
+    double[] columnValues;
+
+    /**
+     * The activities of the rows, or null if the file holds none.
+     */
+    double[] rowValues;
+
+    /**
+     * The dual values of the columns, also known as reduced costs, or null if the file holds none.
+     */
+    double[] columnDuals;
+
+    /**
+     * The dual values of the rows, or null if the file holds none.
+     */
+    double[] rowDuals;
+
+    /**
+     * The basis status codes of the columns, or null if the file holds no basis.
+     */
+    byte[] columnBasis;
+
+    /**
+     * The basis status codes of the rows, or null if the file holds no basis.
+     */
+    byte[] rowBasis;
+
+    /**
+     * The column index of each position in the file, recorded from the first section listing the columns.
+     */
+    private int[] columnOrder;
+    private int columnOrderLength;
+    private int[] rowOrder;
+    private int rowOrderLength;
+
+    private Section section = Section.HEADER;
+    private boolean rowBlock;
+    private boolean inBlock;
+    private boolean valid = true;
+    private double[] values;
+    private byte[] basis;
+    private int count;
+    private int position;
+
+    private InputStream in;
+    private byte[] buffer;
+    private int start;
+    private int scan;
+    private int limit;
+    private boolean endOfStream;
+    private int lineStart;
+    private int lineEnd;
+
+    /**
+     * Constructs a new SolutionReader.
+     *
+     * @param columns The names of the columns of the model, indexed by column.
+     * @param rows    The names of the rows of the model, indexed by row.
+     */
+    SolutionReader(NameIndex columns, NameIndex rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Reads a solution file.
+     *
+     * @param in The stream to read the file from.
+     * @throws IOException  If reading from the stream fails.
+     * @throws OrchException If the file is malformed.
+     */
+    void read(InputStream in) throws IOException {
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+        while (nextLine()) {
+            readLine();
+        }
+        this.in = null;
+        this.buffer = null;
+    }
+
+    /**
+     * Reads a solution file by memory-mapping it.
+     * The lists of values in the primal and dual sections are split into chunks at line boundaries,
+     * which are parsed in parallel on a fork-join pool straight into the solution arrays.
+     * Files too large to be mapped at once are read as a stream instead.
+     *
+     * @param channel The channel of the file to read.
+     * @param pool    The pool to parse the chunks on.
+     * @throws IOException  If reading from the channel fails.
+     * @throws OrchException If the file is malformed.
+     */
+    void read(FileChannel channel, ForkJoinPool pool) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            read(Channels.newInputStream(channel));
+            return;
+        }
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        int length = (int) size;
+        this.buffer = new byte[256];
+        int position = 0;
+        while (position < length) {
+            int end = indexOfNewline(map, position, length);
+            loadLine(map, position, end);
+            position = Math.min(end + 1, length);
+            if (readLine() && values != null) {
+                int blockEnd = findBlockEnd(map, position, length);
+                readBlock(map, position, blockEnd, pool);
+                position = blockEnd;
+                inBlock = false;
+            }
+        }
+        this.buffer = null;
+    }
+
+    /**
+     * Processes the current line.
+     *
+     * @return Whether the line starts a list of values.
+     */
+    private boolean readLine() {
+        if (lineStart == lineEnd) {
+            return false;
+        }
+        if (buffer[lineStart] == '#') {
+            if (lineEquals("# Primal solution values")) {
+                startSection(Section.PRIMAL);
+            } else if (lineEquals("# Dual solution values")) {
+                startSection(Section.DUAL);
+            } else if (lineEquals("# Basis")) {
+                startSection(Section.BASIS);
+            } else if (lineStartsWith("# Columns") || lineStartsWith("# Rows")) {
+                startBlock(lineStartsWith("# Rows"), parseCount());
+                return inBlock;
+            } else {
+                startSection(Section.OTHER);
+            }
+            return false;
+        }
+        switch (section) {
+            case HEADER -> readModelStatus();
+            case PRIMAL, DUAL -> {
+                if (inBlock) {
+                    if (position < count) {
+                        readValue(values, rowBlock, position++);
+                    }
+                } else if (section == Section.PRIMAL && lineStartsWith("Objective")) {
+                    objectiveValue = parseDouble(buffer, skipSpaces(lineStart + "Objective".length()), lineEnd);
+                    hasObjective = true;
+                } else if (lineEquals("None")) {
+                    valid = false;
+                }
+            }
+            case BASIS -> {
+                if (inBlock) {
+                    position = readBasisCodes(basis, rowBlock, position, count);
+                } else if (lineEquals("None") || lineEquals("Invalid")) {
+                    valid = false;
+                }
+            }
+            default -> {
+            }
+        }
+        return false;
+    }
+
+    private void startSection(Section section) {
+        this.section = section;
+        this.valid = true;
+        this.inBlock = false;
+    }
+
+    /**
+     * Starts a list of columns or rows in the current section and allocates the array it is read into.
+     */
+    private void startBlock(boolean rowBlock, int count) {
+        this.rowBlock = rowBlock;
+        this.count = count;
+        this.position = 0;
+        this.inBlock = valid && section != Section.HEADER && section != Section.OTHER;
+        int size = rowBlock ? rows.size() : columns.size();
+        values = null;
+        basis = null;
+        if (inBlock && section == Section.BASIS) {
+            basis = new byte[size];
+            if (rowBlock) {
+                rowBasis = basis;
+            } else {
+                columnBasis = basis;
+            }
+        } else if (inBlock) {
+            values = new double[size];
+            if (section == Section.PRIMAL) {
+                if (rowBlock) {
+                    rowValues = values;
+                } else {
+                    columnValues = values;
+                }
+            } else if (rowBlock) {
+                rowDuals = values;
+            } else {
+                columnDuals = values;
+            }
+        }
+    }
+
+    /**
+     * Parses the list of values in [from, to) of a mapped file in parallel.
+     * Each chunk remembers the index of every name it resolved, so that the order of the names in the file
+     * is known afterwards just as if the list had been read sequentially.
+     */
+    private void readBlock(MappedByteBuffer map, int from, int to, ForkJoinPool pool) {
+        List<BlockChunk> chunks = new ArrayList<>();
+        int chunkStart = from;
+        while (chunkStart < to) {
+            int chunkEnd = chunkStart + CHUNK_SIZE >= to ? to : Math.min(indexOfNewline(map, chunkStart + CHUNK_SIZE, to) + 1, to);
+            chunks.add(new BlockChunk(map, chunkStart, chunkEnd, rowBlock ? rows : columns, values));
+            chunkStart = chunkEnd;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(chunks);
+            }
+        });
+        int orderLength = rowBlock ? rowOrderLength : columnOrderLength;
+        for (BlockChunk chunk : chunks) {
+            for (int i = 0; i < chunk.size; i++) {
+                if (position == orderLength) {
+                    recordOrder(rowBlock, position, chunk.indices[i]);
+                    orderLength++;
+                }
+                position++;
+            }
+        }
+    }
+
+    /**
+     * A chunk of a list of "name value" lines, parsed into the shared array of values.
+     * Chunks write to distinct indices unless a name occurs more than once, in which case either value may win.
+     */
+    private static final class BlockChunk extends RecursiveAction {
+        private final MappedByteBuffer map;
+        private final int from;
+        private final int to;
+        private final NameIndex names;
+        private final double[] values;
+        int[] indices;
+        int size;
+
+        BlockChunk(MappedByteBuffer map, int from, int to, NameIndex names, double[] values) {
+            this.map = map;
+            this.from = from;
+            this.to = to;
+            this.names = names;
+            this.values = values;
+        }
+
+        @Override
+        protected void compute() {
+            byte[] bytes = new byte[to - from];
+            map.get(from, bytes);
+            indices = new int[Math.max(bytes.length / 8, 16)];
+            int lineStart = 0;
+            while (lineStart < bytes.length) {
+                int lineEnd = lineStart;
+                while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                while (lineEnd > lineStart && (bytes[lineEnd - 1] == ' ' || bytes[lineEnd - 1] == '\t' || bytes[lineEnd - 1] == '\r')) {
+                    lineEnd--;
+                }
+                while (lineStart < lineEnd && (bytes[lineStart] == ' ' || bytes[lineStart] == '\t')) {
+                    lineStart++;
+                }
+                if (lineStart < lineEnd) {
+                    int nameEnd = lineStart;
+                    while (nameEnd < lineEnd && bytes[nameEnd] != ' ' && bytes[nameEnd] != '\t') {
+                        nameEnd++;
+                    }
+                    int valueStart = nameEnd;
+                    while (valueStart < lineEnd && (bytes[valueStart] == ' ' || bytes[valueStart] == '\t')) {
+                        valueStart++;
+                    }
+                    if (valueStart == lineEnd) {
+                        throw new OrchException("Malformed solution line: " + new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                    }
+                    int index = names.indexOf(bytes, lineStart, nameEnd - lineStart);
+                    if (index >= 0) {
+                        values[index] = parseDouble(bytes, valueStart, lineEnd);
+                    }
+                    if (size == indices.length) {
+                        indices = Arrays.copyOf(indices, size * 2);
+                    }
+                    indices[size++] = index;
+                }
+                lineStart = next;
+            }
+        }
+    }
+
+    private void readModelStatus() {
+        if (lineEquals("Optimal")) {
+            status = Orchestrate.Status.Optimal;
+        } else if (lineEquals("Infeasible")) {
+            status = Orchestrate.Status.Infeasible;
+        } else if (lineEquals("Unbounded")) {
+            status = Orchestrate.Status.Unbounded;
+        }
+    }
+
+    /**
+     * Reads a "name value" line and stores the value at the index of the name.
+     * Names that do not belong to the model are skipped.
+     */
+    private void readValue(double[] values, boolean rowBlock, int position) {
+        int nameEnd = lineStart;
+        while (nameEnd < lineEnd && buffer[nameEnd] != ' ' && buffer[nameEnd] != '\t') {
+            nameEnd++;
+        }
+        int valueStart = skipSpaces(nameEnd);
+        if (valueStart == lineEnd) {
+            throw new OrchException("Malformed solution line: " + new String(buffer, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+        }
+        NameIndex names = rowBlock ? rows : columns;
+        int[] order = rowBlock ? rowOrder : columnOrder;
+        int orderLength = rowBlock ? rowOrderLength : columnOrderLength;
+        int length = nameEnd - lineStart;
+        int expected = position < orderLength ? order[position] : position;
+        int index = names.matches(expected, buffer, lineStart, length) ? expected : names.indexOf(buffer, lineStart, length);
+        if (position == orderLength) {
+            recordOrder(rowBlock, position, index);
+        }
+        if (index >= 0) {
+            values[index] = parseDouble(buffer, valueStart, lineEnd);
+        }
+    }
+
+    private void recordOrder(boolean rowBlock, int position, int index) {
+        if (rowBlock) {
+            if (rowOrder == null || position == rowOrder.length) {
+                rowOrder = rowOrder == null ? new int[Math.max(rows.size(), 16)] : Arrays.copyOf(rowOrder, rowOrder.length * 2);
+            }
+            rowOrder[rowOrderLength++] = index;
+        } else {
+            if (columnOrder == null || position == columnOrder.length) {
+                columnOrder = columnOrder == null ? new int[Math.max(columns.size(), 16)] : Arrays.copyOf(columnOrder, columnOrder.length * 2);
+            }
+            columnOrder[columnOrderLength++] = index;
+        }
+    }
+
+    /**
+     * Reads the basis status codes on the current line, which are listed in the order of the earlier sections.
+     *
+     * @return The position after the last code read.
+     */
+    private int readBasisCodes(byte[] basis, boolean rowBlock, int position, int count) {
+        int[] order = rowBlock ? rowOrder : columnOrder;
+        int orderLength = rowBlock ? rowOrderLength : columnOrderLength;
+        int i = skipSpaces(lineStart);
+        while (i < lineEnd && position < count) {
+            int code = 0;
+            while (i < lineEnd && buffer[i] >= '0' && buffer[i] <= '9') {
+                code = code * 10 + (buffer[i++] - '0');
+            }
+            int index = position < orderLength ? order[position] : position;
+            if (index >= 0 && index < basis.length) {
+                basis[index] = (byte) code;
+            }
+            position++;
+            i = skipSpaces(i);
+        }
+        return position;
+    }
+
+    private int parseCount() {
+        int i = lineStart;
+        while (i < lineEnd && (buffer[i] < '0' || buffer[i] > '9')) {
+            i++;
+        }
+        int count = 0;
+        while (i < lineEnd && buffer[i] >= '0' && buffer[i] <= '9') {
+            count = count * 10 + (buffer[i++] - '0');
+        }
+        return count;
+    }
+
+    /**
+     * Parses a decimal number from bytes.
+     * Numbers with at most 18 significant digits whose mantissa and power of ten are both exactly
+     * representable are converted with a single multiplication or division, which is correctly rounded.
+     * All other numbers are handed to {@link Double#parseDouble(String)}.
+     *
+     * @param bytes The array holding the number.
+     * @param from  The position of the first byte of the number.
+     * @param to    The position after the last byte of the number.
+     * @return The parsed number.
+     * @throws OrchException If the bytes do not form a number.
+     */
+    static double parseDouble(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        if (i < to && (bytes[i] == 'i' || bytes[i] == 'I')) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean anyDigit = false;
+        while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+            int digit = bytes[i++] - '0';
+            anyDigit = true;
+            if (significantDigits < 18) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            } else {
+                exponent++;
+                truncated |= digit != 0;
+            }
+        }
+        if (i < to && bytes[i] == '.') {
+            i++;
+            while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+                int digit = bytes[i++] - '0';
+                anyDigit = true;
+                if (significantDigits < 18) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+        }
+        if (i < to && anyDigit && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            boolean anyExponentDigit = false;
+            while (i < to && bytes[i] >= '0' && bytes[i] <= '9') {
+                explicitExponent = Math.min(explicitExponent * 10 + (bytes[i++] - '0'), 100000);
+                anyExponentDigit = true;
+            }
+            if (!anyExponentDigit) {
+                anyDigit = false;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i == to && anyDigit && !truncated && mantissa < (1L << 53)) {
+            if (mantissa == 0) {
+                return negative ? -0.0 : 0.0;
+            }
+            if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+                double value = mantissa * POWERS_OF_TEN[exponent];
+                return negative ? -value : value;
+            }
+            if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+                double value = mantissa / POWERS_OF_TEN[-exponent];
+                return negative ? -value : value;
+            }
+        }
+        String text = new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new OrchException("Invalid number in solution file: " + text, e);
+        }
+    }
+
+    /**
+     * Copies the line [from, to) of a mapped file into the line buffer, with leading and trailing whitespace
+     * excluded from [lineStart, lineEnd).
+     */
+    private void loadLine(MappedByteBuffer map, int from, int to) {
+        if (to - from > buffer.length) {
+            buffer = new byte[Math.max(to - from, buffer.length * 2)];
+        }
+        map.get(from, buffer, 0, to - from);
+        setLine(0, to - from);
+    }
+
+    /**
+     * Finds the end of a list of values in a mapped file, which is the start of the next line starting with '#'.
+     *
+     * @return The position of the next header line, or the end of the file.
+     */
+    private static int findBlockEnd(MappedByteBuffer map, int from, int to) {
+        int lineStart = from;
+        while (lineStart < to) {
+            if (map.get(lineStart) == '#') {
+                return lineStart;
+            }
+            lineStart = indexOfNewline(map, lineStart, to) + 1;
+        }
+        return to;
+    }
+
+    /**
+     * Finds the next newline in a mapped file.
+     *
+     * @return The position of the newline, or the end of the range if there is none.
+     */
+    private static int indexOfNewline(MappedByteBuffer map, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (map.get(i) == '\n') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Advances to the next line, with leading and trailing whitespace excluded from [lineStart, lineEnd).
+     *
+     * @return Whether there was another line.
+     */
+    private boolean nextLine() throws IOException {
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(start, i);
+                    start = i + 1;
+                    scan = start;
+                    return true;
+                }
+            }
+            scan = limit;
+            if (endOfStream) {
+                if (start < limit) {
+                    setLine(start, limit);
+                    start = limit;
+                    return true;
+                }
+                return false;
+            }
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, limit - start);
+                limit -= start;
+                scan -= start;
+                start = 0;
+            }
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfStream = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+
+    private void setLine(int from, int to) {
+        while (to > from && (buffer[to - 1] == ' ' || buffer[to - 1] == '\t' || buffer[to - 1] == '\r')) {
+            to--;
+        }
+        lineEnd = to;
+        lineStart = skipSpaces(from);
+    }
+
+    private int skipSpaces(int i) {
+        while (i < lineEnd && (buffer[i] == ' ' || buffer[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean lineEquals(String text) {
+        return lineEnd - lineStart == text.length() && lineStartsWith(text);
+    }
+
+    private boolean lineStartsWith(String text) {
+        if (lineEnd - lineStart < text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.toLowerCase(buffer[lineStart + i]) != Character.toLowerCase(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package nl.jessenagel.orchestrate;
+
+/**
+ * The outcome of a solve: the status, the objective value and the solution arrays.
+ * A SolveResult is a snapshot that is not affected by later changes or solves of the model it was obtained from,
+ * so it can be passed between threads freely.
+ */
+public final class SolveResult {
+    private final Orchestrate model;
+    private final Orchestrate.Status status;
+    private final double objectiveValue;
+    private final double[] values;
+    private final double[] rowActivities;
+    private final double[] reducedCosts;
+    private final double[] dualValues;
+    private final Constraint[] constraints;
+
+    /**
+     * Constructs a new SolveResult.
+     * The arrays are not copied, the caller must not change them afterwards.
+     *
+     * @param model          The model that was solved, only used to check that variables belong to it.
+     * @param status         The status of the model.
+     * @param objectiveValue The value of the objective function.
+     * @param values         The values of the variables indexed by column, or null if there is no solution.
+     * @param rowActivities  The activities of the constraints indexed by row, or null if not available.
+     * @param reducedCosts   The reduced costs of the variables indexed by column, or null if not available.
+     * @param dualValues     The dual values of the constraints indexed by row, or null if not available.
+     * @param constraints    The constraints of the model indexed by row.
+     */
+    SolveResult(Orchestrate model, Orchestrate.Status status, double objectiveValue, double[] values, double[] rowActivities, double[] reducedCosts, double[] dualValues, Constraint[] constraints) {
+        this.model = model;
+        this.status = status;
+        this.objectiveValue = objectiveValue;
+        this.values = values;
+        this.rowActivities = rowActivities;
+        this.reducedCosts = reducedCosts;
+        this.dualValues = dualValues;
+        this.constraints = constraints;
+    }
+
+    /**
+     * Gets the status of the model.
+     *
+     * @return The status.
+     */
+    public Orchestrate.Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the value of the objective function.
+     *
+     * @return The value of the objective function.
+     */
+    public double getObjValue() {
+        return objectiveValue;
+    }
+
+    /**
+     * Gets the value of a numerical variable.
+     *
+     * @param var The numerical variable.
+     * @return The value of the variable.
+     * @throws OrchException If there is no solution, or the variable is not part of the model or was added after the solve.
+     */
+    public double getValue(NumVar var) {
+        double[] solution = part(values, "solution");
+        return solution[Orchestrate.columnOf(model, var, solution.length)];
+    }
+
+    /**
+     * Gets the value of an integer variable, rounded to the nearest integer.
+     *
+     * @param var The integer variable.
+     * @return The value of the variable.
+     * @throws OrchException If there is no solution.
+     */
+    public int getValue(IntVar var) {
+        return (int) Math.round(getValue((NumVar) var));
+    }
+
+    /**
+     * Gets the values of all variables, indexed by column.
+     *
+     * @return A copy of the values of all variables.
+     * @throws OrchException If there is no solution.
+     */
+    public double[] getValues() {
+        return part(values, "solution").clone();
+    }
+
+    /**
+     * Gets the reduced cost of a variable.
+     *
+     * @param var The variable.
+     * @return The reduced cost of the variable.
+     * @throws OrchException If no reduced costs are available, or the variable is not part of the model or was added after the solve.
+     */
+    public double getReducedCost(NumVar var) {
+        double[] costs = part(reducedCosts, "reduced costs");
+        return costs[Orchestrate.columnOf(model, var, costs.length)];
+    }
+
+    /**
+     * Gets the activity of a constraint.
+     *
+     * @param constraint The constraint.
+     * @return The activity of the constraint.
+     * @throws OrchException If no row activities are available or the constraint is not part of the model.
+     */
+    public double getActivity(Constraint constraint) {
+        double[] activities = part(rowActivities, "row activities");
+        return activities[rowOf(constraint, activities.length)];
+    }
+
+    /**
+     * Gets the dual value of a constraint.
+     *
+     * @param constraint The constraint.
+     * @return The dual value of the constraint.
+     * @throws OrchException If no dual values are available or the constraint is not part of the model.
+     */
+    public double getDual(Constraint constraint) {
+        double[] duals = part(dualValues, "dual values");
+        return duals[rowOf(constraint, duals.length)];
+    }
+
+    private static double[] part(double[] array, String description) {
+        if (array == null) {
+            throw new OrchException("No " + description + " available");
+        }
+        return array;
+    }
+
+    /**
+     * Gets the row a constraint had when the model was solved.
+     * Removing constraints from the model moves the others to new rows, so a constraint that is not found at its
+     * current row is looked up among the constraints of the solved model.
+     */
+    private int rowOf(Constraint constraint, int numberOfRows) {
+        if (constraint instanceof OrchConstraint constraint_cast && constraint_cast.row >= 0 && constraint_cast.row < Math.min(constraints.length, numberOfRows)
+                && constraints[constraint_cast.row] == constraint) {
+            return constraint_cast.row;
+        }
+        for (int row = 0; row < Math.min(constraints.length, numberOfRows); row++) {
+            if (constraints[row] == constraint) {
+                return row;
+            }
+        }
+        throw new OrchException("Constraint is not part of the model: " + constraint.getName());
+    }
+}
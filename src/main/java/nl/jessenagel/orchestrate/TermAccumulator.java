@@ -0,0 +1,214 @@
+package nl.jessenagel.orchestrate;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates linear terms, merging the coefficients of duplicate variables.
+ * This is an open-addressing hash map from column index to coefficient that stores primitive values only
+ * and iterates in insertion order. Instances are reused per thread through {@link #acquire()} and
+ * {@link #release()}, so flattening an expression does not allocate per term.
+ */
+final class TermAccumulator {
+    /**
+     * The initial number of terms an accumulator has room for.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Accumulators that grew beyond this number of terms are discarded on release instead of being kept for reuse.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private static final ThreadLocal<TermAccumulator> POOL = ThreadLocal.withInitial(TermAccumulator::new);
+
+    /**
+     * The variables in insertion order.
+     */
+    private int[] variables;
+
+    /**
+     * The coefficients, aligned with variables.
+     */
+    private double[] coefficients;
+
+    /**
+     * The hash table, holding the position of a variable in the insertion-order arrays plus one, or zero if empty.
+     */
+    private int[] slots;
+
+    /**
+     * The number of distinct variables accumulated.
+     */
+    private int size;
+
+    /**
+     * The accumulated constant term.
+     */
+    double constant;
+
+    /**
+     * Whether this accumulator is currently handed out by {@link #acquire()}.
+     */
+    private boolean inUse;
+
+    TermAccumulator() {
+        this.variables = new int[INITIAL_CAPACITY];
+        this.coefficients = new double[INITIAL_CAPACITY];
+        this.slots = new int[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * Gets an empty accumulator for the current thread.
+     * The pooled instance is returned when it is not in use, otherwise a new instance is created.
+     * Every acquired accumulator must be handed back with {@link #release()}.
+     *
+     * @return An empty accumulator.
+     */
+    static TermAccumulator acquire() {
+        TermAccumulator accumulator = POOL.get();
+        if (accumulator.inUse) {
+            accumulator = new TermAccumulator();
+        }
+        accumulator.inUse = true;
+        return accumulator;
+    }
+
+    /**
+     * Clears this accumulator and returns it to the pool of the current thread.
+     */
+    void release() {
+        inUse = false;
+        if (variables.length > MAX_RETAINED_CAPACITY) {
+            POOL.remove();
+        } else {
+            clear();
+        }
+    }
+
+    /**
+     * Adds a coefficient to the term of a variable, creating the term if it does not exist yet.
+     *
+     * @param variable    The column index of the variable.
+     * @param coefficient The coefficient to add.
+     */
+    void add(int variable, double coefficient) {
+        int mask = slots.length - 1;
+        int slot = hash(variable) & mask;
+        int position;
+        while ((position = slots[slot]) != 0) {
+            if (variables[position - 1] == variable) {
+                coefficients[position - 1] += coefficient;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        variables[size] = variable;
+        coefficients[size] = coefficient;
+        size++;
+        slots[slot] = size;
+        if (size == variables.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Adds all terms of an array-backed expression, multiplied by a factor.
+     *
+     * @param vars   The column indices of the terms.
+     * @param coefs  The coefficients of the terms.
+     * @param count  The number of terms to add.
+     * @param factor The factor to multiply the coefficients with.
+     */
+    void addAll(int[] vars, double[] coefs, int count, double factor) {
+        for (int i = 0; i < count; i++) {
+            add(vars[i], factor * coefs[i]);
+        }
+    }
+
+    /**
+     * Gets the number of distinct variables accumulated.
+     *
+     * @return The number of terms.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the variable of the term at a position in insertion order.
+     *
+     * @param position The position of the term.
+     * @return The column index of the variable.
+     */
+    int variable(int position) {
+        return variables[position];
+    }
+
+    /**
+     * Gets the coefficient of the term at a position in insertion order.
+     *
+     * @param position The position of the term.
+     * @return The coefficient of the term.
+     */
+    double coefficient(int position) {
+        return coefficients[position];
+    }
+
+    /**
+     * Copies the accumulated variables in insertion order to a new array.
+     *
+     * @return The column indices of the variables.
+     */
+    int[] variablesToArray() {
+        return Arrays.copyOf(variables, size);
+    }
+
+    /**
+     * Copies the accumulated coefficients in insertion order to a new array.
+     *
+     * @return The coefficients.
+     */
+    double[] coefficientsToArray() {
+        return Arrays.copyOf(coefficients, size);
+    }
+
+    /**
+     * Removes all terms and resets the constant, keeping the allocated capacity.
+     */
+    void clear() {
+        if (size * 4 < slots.length) {
+            int mask = slots.length - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = hash(variables[i]) & mask;
+                while (slots[slot] != 0) {
+                    slots[slot] = 0;
+                    slot = (slot + 1) & mask;
+                }
+            }
+        } else {
+            Arrays.fill(slots, 0);
+        }
+        size = 0;
+        constant = 0.0;
+    }
+
+    private void grow() {
+        int capacity = variables.length * 2;
+        variables = Arrays.copyOf(variables, capacity);
+        coefficients = Arrays.copyOf(coefficients, capacity);
+        slots = new int[capacity * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(variables[i]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
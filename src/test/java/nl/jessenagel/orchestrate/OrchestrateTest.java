@@ -4,10 +4,38 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test class for the Orchestrate library.
@@ -555,6 +583,141 @@ class OrchestrateTest {
         assertEquals(2, orchExpr.numberOfVariables);
     }
 
+    /**
+     * Tests the linear expression builder.
+     * Verifies that the built expression has sorted variables, merged duplicates and the correct constant.
+     */
+    @Test
+    void linearExprBuilder() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar[] vars = new NumVar[100];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = orchestrate.numVar("x" + i);
+        }
+        LinearExprBuilder builder = orchestrate.linearExprBuilder();
+        for (int i = vars.length - 1; i >= 0; i--) {
+            builder.addTerm(vars[i], i);
+        }
+        builder.addTerm(vars[3], 2.0);
+        builder.addConstant(4.5);
+
+        OrchNumExpr expr = builder.build();
+        assertEquals(100, expr.numberOfVariables);
+        assertEquals(4.5, expr.constant);
+        for (int i = 0; i < vars.length; i++) {
+            assertEquals(i, expr.variables[i]);
+        }
+        assertEquals(5.0, expr.coefficients[3]);
+
+        // Changing the builder afterwards does not affect expressions that were built or summed before
+        NumExpr sum = orchestrate.sum(builder, vars[0]);
+        builder.clear();
+        OrchNumExpr flattened = new OrchNumExpr(sum);
+        assertEquals(100, flattened.numberOfVariables);
+        assertEquals(4.5, flattened.constant);
+        assertEquals(100, expr.numberOfVariables);
+    }
+
+    /**
+     * Tests solving a model whose constraints and objective are built with linear expression builders.
+     */
+    @Test
+    void solveLPWithLinearExprBuilder() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        NumVar y = orchestrate.numVar("y");
+
+        LinearExprBuilder builder = orchestrate.linearExprBuilder();
+        orchestrate.addLe(builder.addTerm(x, 1).addTerm(y, 2), orchestrate.constant(14));
+        builder.clear();
+        orchestrate.addGe(builder.addTerm(x, 3).addTerm(y, -1), orchestrate.constant(0));
+        builder.clear();
+        orchestrate.addLe(builder.addTerm(y, -1).addTerm(x, 1), orchestrate.constant(2));
+
+        orchestrate.addMaximize(orchestrate.linearExprBuilder().addTerm(x, 3).addTerm(y, 4));
+        orchestrate.solve();
+        assertEquals(6.0, orchestrate.getValue(x), 0.01);
+        assertEquals(4.0, orchestrate.getValue(y), 0.01);
+        assertEquals(34.0, orchestrate.getObjValue(), 0.01);
+    }
+
+    /**
+     * Tests solving a model with variables and constants on both sides of the constraints.
+     * Verifies that the constraints are normalized correctly when they are added to the model.
+     */
+    @Test
+    void solveWithVariablesOnBothSides() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar(0, 100, "x");
+        NumVar y = orchestrate.numVar(0, 100, "y");
+
+        // x + 1 <= y - 2, 2 * y + 3 = y + 10 and x >= 1
+        orchestrate.addLe(orchestrate.sum(x, 1.0), orchestrate.sum(y, -2.0));
+        orchestrate.addEq(orchestrate.sum(orchestrate.prod(2, y), 3.0), orchestrate.sum(y, 10.0));
+        orchestrate.addGe(x, orchestrate.constant(1.0));
+        orchestrate.addMaximize(x);
+        orchestrate.exportModel("test.lp");
+        orchestrate.solve();
+
+        assertEquals(Orchestrate.Status.Optimal, orchestrate.getStatus());
+        assertEquals(4.0, orchestrate.getValue(x), 0.01);
+        assertEquals(7.0, orchestrate.getValue(y), 0.01);
+    }
+
+    /**
+     * Tests the bulk scalar product and array sum methods.
+     * Verifies that duplicate variables are merged and that the coefficients are applied.
+     */
+    @Test
+    void scalProd() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        NumVar y = orchestrate.numVar("y");
+        IntVar z = orchestrate.intVar("z");
+
+        OrchNumExpr numExpr = new OrchNumExpr(orchestrate.scalProd(new double[]{1.5, 2.0, -0.5}, new NumVar[]{x, y, x}));
+        assertEquals(2, numExpr.numberOfVariables);
+        assertEquals(1.0, numExpr.coefficients[0]);
+        assertEquals(2.0, numExpr.coefficients[1]);
+
+        OrchIntExpr intExpr = new OrchIntExpr(orchestrate.scalProd(new int[]{3, 4}, new IntVar[]{z, z}));
+        assertEquals(1, intExpr.numberOfVariables);
+        assertEquals(7.0, intExpr.coefficients[0]);
+
+        OrchNumExpr sumOfVars = new OrchNumExpr(orchestrate.sum(new NumVar[]{x, y, z}));
+        assertEquals(3, sumOfVars.numberOfVariables);
+
+        NumExpr[] exprs = {orchestrate.sum(x, 2.0), orchestrate.prod(3, y), orchestrate.constant(1.0), z};
+        OrchNumExpr sumOfExprs = new OrchNumExpr(orchestrate.sum(exprs));
+        assertEquals(3, sumOfExprs.numberOfVariables);
+        assertEquals(3.0, sumOfExprs.constant);
+        assertEquals(3.0, sumOfExprs.coefficients[1]);
+    }
+
+    /**
+     * Tests rebalancing a constraint with variables and constants on both sides.
+     * Verifies that all variables are moved to the left-hand side and all constants to the right-hand side.
+     */
+    @Test
+    void rebalanceConstraint() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        NumVar y = orchestrate.numVar("y");
+
+        NumExpr lhs = orchestrate.sum(orchestrate.sum(x, y), 2);
+        NumExpr rhs = orchestrate.sum(orchestrate.prod(3, y), 5);
+        Constraint constraint = orchestrate.rebalanceConstraint(orchestrate.addLe(lhs, rhs));
+
+        OrchConstraint orchConstraint = new OrchConstraint(constraint);
+        OrchNumExpr lhsExpr = new OrchNumExpr(orchConstraint.lhs);
+        OrchNumExpr rhsExpr = new OrchNumExpr(orchConstraint.rhs);
+        assertEquals(2, lhsExpr.numberOfVariables);
+        assertEquals(0.0, lhsExpr.constant);
+        assertEquals(-2.0, lhsExpr.coefficients[1]);
+        assertEquals(0, rhsExpr.numberOfVariables);
+        assertEquals(3.0, rhsExpr.constant);
+    }
+
     /**
      * Tests the getName method to retrieve the name of a model element.
      * Verifies that the returned name matches the one assigned at creation.
@@ -595,6 +758,474 @@ class OrchestrateTest {
         assertEquals("TestConstraint", orchConstraint.getName());
     }
 
+    /**
+     * Tests that variables are identified by their model and column index rather than by their name.
+     * Verifies that renamed variables remain distinct keys and that variables of different models differ.
+     */
+    @Test
+    void variableIdentity() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        NumVar y = orchestrate.numVar("y");
+        IntVar z = orchestrate.intVar("z");
+        y.setName("x");
+
+        Map<NumVar, Integer> map = new HashMap<>();
+        map.put(x, 1);
+        map.put(y, 2);
+        map.put(z, 3);
+        assertEquals(3, map.size());
+        assertEquals(1, map.get(x));
+        assertEquals(2, map.get(y));
+
+        Orchestrate other = new Orchestrate();
+        NumVar otherX = other.numVar("x");
+        assertNotEquals(x, otherX);
+        assertNull(map.get(otherX));
+    }
+
+    /**
+     * Tests that unnamed variables and constraints get names derived from their index.
+     * Verifies that an explicitly set name takes precedence.
+     */
+    @Test
+    void defaultNames() {
+        Orchestrate orchestrate = new Orchestrate();
+        IntVar x = orchestrate.intVar();
+        IntVar y = orchestrate.intVar("y");
+        assertEquals("IntVar_0", x.getName());
+        assertEquals("y", y.getName());
+
+        Constraint first = orchestrate.addLe(x, y);
+        Constraint second = orchestrate.addEq(y, 1);
+        second.setName("lower");
+        assertEquals("Constraint_0", first.getName());
+        assertEquals("lower", second.getName());
+        assertEquals("Constraint_0", new OrchConstraint(first).getName());
+    }
+
+    /**
+     * Tests exporting a model to an output stream.
+     * Verifies the sections, the number formatting and the default names of the written LP file.
+     */
+    @Test
+    void exportModelToStream() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        IntVar y = orchestrate.intVar(-5, 10);
+        IntVar b = orchestrate.boolVar();
+        orchestrate.addLe(orchestrate.sum(orchestrate.prod(0.1, x), orchestrate.prod(-2.0, y)), orchestrate.constant(3.5));
+        orchestrate.addEq(orchestrate.sum(x, b), 1);
+        orchestrate.addMaximize(orchestrate.sum(orchestrate.prod(3.0, x), orchestrate.constant(2.0)));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        orchestrate.exportModel(stream);
+        String expected = """
+                Maximize
+                 obj: 3 x + 2
+                Subject To
+                 Constraint_0: 0.1 x - 2 IntVar_1 <= 3.5
+                 Constraint_1: 1 x + 1 BoolVar_2 = 1
+                Bounds
+                 -5 <= IntVar_1 <= 10
+                Generals
+                 IntVar_1
+                Binaries
+                 BoolVar_2
+                End
+                """;
+        assertEquals(expected, stream.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests exporting a model in free MPS format.
+     * Verifies the row types, the column-wise entries with integer markers, the right-hand sides including the
+     * objective offset, and the bounds, and that a file name ending with .mps selects the format.
+     */
+    @Test
+    void exportModelToMps() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        IntVar y = orchestrate.intVar(-5, 10);
+        IntVar b = orchestrate.boolVar();
+        orchestrate.addLe(orchestrate.sum(orchestrate.prod(0.1, x), orchestrate.prod(-2.0, y)), orchestrate.constant(3.5));
+        orchestrate.addEq(orchestrate.sum(x, b), 1);
+        orchestrate.addGe(orchestrate.sum(y, b), orchestrate.constant(-2));
+        orchestrate.addMaximize(orchestrate.sum(orchestrate.prod(3.0, x), orchestrate.constant(2.0)));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        orchestrate.exportModel(stream, ModelFormat.Mps);
+        String expected = """
+                NAME
+                OBJSENSE
+                    MAX
+                ROWS
+                 N  obj
+                 L  Constraint_0
+                 E  Constraint_1
+                 G  Constraint_2
+                COLUMNS
+                    x obj 3
+                    x Constraint_0 0.1
+                    x Constraint_1 1
+                    MARKER 'MARKER' 'INTORG'
+                    IntVar_1 Constraint_0 -2
+                    IntVar_1 Constraint_2 1
+                    BoolVar_2 Constraint_1 1
+                    BoolVar_2 Constraint_2 1
+                    MARKER 'MARKER' 'INTEND'
+                RHS
+                    RHS obj -2
+                    RHS Constraint_0 3.5
+                    RHS Constraint_1 1
+                    RHS Constraint_2 -2
+                BOUNDS
+                 LO BND IntVar_1 -5
+                 UP BND IntVar_1 10
+                 BV BND BoolVar_2
+                ENDATA
+                """;
+        assertEquals(expected, stream.toString(StandardCharsets.UTF_8));
+
+        Path file = Files.createTempFile("orchestrate", ".MPS");
+        try {
+            orchestrate.exportModel(file.toString());
+            assertEquals(expected, Files.readString(file));
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(ModelFormat.Lp, ModelFormat.fromFileName("model.lp"));
+    }
+
+    /**
+     * Tests importing exported models.
+     * Verifies that a model read back from an LP or MPS file, from a stream and from a file, is exported exactly as the
+     * original model, with the same variables, types, bounds, constraints, names and objective.
+     */
+    @Test
+    void importModelRoundTrip() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        x.setLB(-1.5);
+        x.setUB(8);
+        NumVar f = orchestrate.numVar("f");
+        f.setLB(-Double.MAX_VALUE);
+        IntVar y = orchestrate.intVar(-5, 10);
+        IntVar b = orchestrate.boolVar();
+        orchestrate.addLe(orchestrate.sum(orchestrate.prod(0.1, x), orchestrate.prod(-2.0, y)), orchestrate.constant(3.5)).setName("c1");
+        orchestrate.addEq(orchestrate.sum(x, b), 1);
+        orchestrate.addGe(orchestrate.sum(orchestrate.sum(y, b), orchestrate.prod(1e-7, f)), orchestrate.constant(-2));
+        orchestrate.addMinimize(orchestrate.sum(orchestrate.sum(orchestrate.prod(3.0, x), orchestrate.prod(-1.25, f)), orchestrate.constant(2.0)));
+
+        for (ModelFormat format : ModelFormat.values()) {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            orchestrate.exportModel(stream, format);
+            String expected = stream.toString(StandardCharsets.UTF_8);
+
+            Orchestrate imported = new Orchestrate();
+            imported.importModel(new ByteArrayInputStream(stream.toByteArray()), format);
+            ByteArrayOutputStream reexported = new ByteArrayOutputStream();
+            imported.exportModel(reexported, format);
+            assertEquals(expected, reexported.toString(StandardCharsets.UTF_8));
+
+            Path file = Files.createTempFile("orchestrate", format.getExtension());
+            try {
+                Files.writeString(file, expected.replace("\n", "\r\n"));
+                Orchestrate fromFile = new Orchestrate();
+                fromFile.importModel(file);
+                reexported.reset();
+                fromFile.exportModel(reexported, format);
+                assertEquals(expected, reexported.toString(StandardCharsets.UTF_8));
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        // Bounds without a value may leave out the set name or still have a value, which is ignored
+        String bounds = """
+                NAME
+                ROWS
+                 N obj
+                 L c1
+                COLUMNS
+                 x obj 1 c1 1
+                 y obj 1 c1 1
+                 z obj 1 c1 1
+                 w obj 1 c1 1
+                RHS
+                 RHS c1 4
+                BOUNDS
+                 BV BND x 1
+                 BV y
+                 MI BND z
+                 UP BND z 3
+                 PL w 0
+                ENDATA
+                """;
+        Orchestrate imported = new Orchestrate();
+        imported.importModel(new ByteArrayInputStream(bounds.getBytes(StandardCharsets.UTF_8)), ModelFormat.Mps);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        imported.exportModel(stream);
+        assertTrue(stream.toString(StandardCharsets.UTF_8).endsWith("""
+                Bounds
+                 -inf <= z <= 3
+                Binaries
+                 x
+                 y
+                End
+                """));
+    }
+
+    /**
+     * Tests importing a hand-written LP file and solving it.
+     * Verifies comments, alternative operators, a ranged row, a continued line, infinite and double-sided bounds, general and binary variables,
+     * and that the ranged row becomes two constraints.
+     */
+    @Test
+    void importLpModel() throws IOException {
+        String model = """
+                \\ A small model
+                MAXIMIZE
+                 profit: 3 x + 2 y
+                  + z + 1
+                subject to
+                 cap: x + y + z <= 4
+                 mix: x + 3 y =< 6 \\ an alternative operator
+                 2 <= x - z <= 3
+                BOUNDS
+                 -2 <= z <= +inf
+                 y <= 1
+                GEN
+                 y
+                BIN
+                 b
+                END
+                """;
+        Orchestrate orchestrate = new Orchestrate();
+        orchestrate.importModel(new ByteArrayInputStream(model.getBytes(StandardCharsets.UTF_8)), ModelFormat.Lp);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        orchestrate.exportModel(stream);
+        String expected = """
+                Maximize
+                 obj: 3 x + 2 y + 1 z + 1
+                Subject To
+                 cap: 1 x + 1 y + 1 z <= 4
+                 mix: 1 x + 3 y <= 6
+                 Constraint_2: 1 x - 1 z >= 2
+                 Constraint_3: 1 x - 1 z <= 3
+                Bounds
+                 y <= 1
+                 z >= -2
+                Generals
+                 y
+                Binaries
+                 b
+                End
+                """;
+        assertEquals(expected, stream.toString(StandardCharsets.UTF_8));
+
+        orchestrate.solve();
+        assertEquals(Orchestrate.Status.Optimal, orchestrate.getStatus());
+        assertEquals(12.0, orchestrate.getObjValue(), 1e-6);
+    }
+
+    /**
+     * Tests that invalid and unsupported model files are rejected with the line of the error.
+     */
+    @Test
+    void importModelErrors() {
+        String quadratic = "Minimize\n obj: x + [ x ^ 2 ]\nEnd\n";
+        OrchException exception = assertThrows(OrchException.class, () -> new Orchestrate().importModel(
+                new ByteArrayInputStream(quadratic.getBytes(StandardCharsets.UTF_8)), ModelFormat.Lp));
+        assertTrue(exception.getMessage().contains("line 2"));
+
+        String incomplete = "Minimize\n obj: x\nSubject To\n c1: x + y\nEnd\n";
+        assertThrows(OrchException.class, () -> new Orchestrate().importModel(
+                new ByteArrayInputStream(incomplete.getBytes(StandardCharsets.UTF_8)), ModelFormat.Lp));
+
+        String unterminated = "NAME\nROWS\n N obj\n L c1\nCOLUMNS\n x c1 1\n";
+        assertThrows(OrchException.class, () -> new Orchestrate().importModel(
+                new ByteArrayInputStream(unterminated.getBytes(StandardCharsets.UTF_8)), ModelFormat.Mps));
+
+        assertThrows(OrchException.class, () -> new Orchestrate().importModel(Path.of("does-not-exist.lp")));
+    }
+
+    /**
+     * Tests saving and loading a binary model snapshot.
+     * Verifies that the loaded model is exported exactly as the original, with and without names, that it solves to
+     * the same objective value, and that a file that is not a snapshot is rejected.
+     */
+    @Test
+    void modelSnapshot() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        x.setUB(8);
+        IntVar y = orchestrate.intVar(-5, 10);
+        IntVar b = orchestrate.boolVar("b");
+        orchestrate.addLe(orchestrate.sum(orchestrate.prod(0.1, x), orchestrate.prod(-2.0, y)), orchestrate.constant(3.5)).setName("c1");
+        orchestrate.addEq(orchestrate.sum(x, b), 1);
+        orchestrate.addGe(orchestrate.sum(y, b), orchestrate.constant(-2));
+        orchestrate.addMaximize(orchestrate.sum(orchestrate.sum(orchestrate.prod(3.0, x), y), orchestrate.constant(2.0)));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        orchestrate.exportModel(expected);
+
+        Path file = Files.createTempFile("orchestrate", ".snapshot");
+        try {
+            orchestrate.saveSnapshot(file);
+            Orchestrate loaded = new Orchestrate();
+            loaded.loadSnapshot(file);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            loaded.exportModel(actual);
+            assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+
+            orchestrate.solve();
+            loaded.solve();
+            assertEquals(Orchestrate.Status.Optimal, loaded.getStatus());
+            assertEquals(orchestrate.getObjValue(), loaded.getObjValue(), 1e-6);
+
+            orchestrate.saveSnapshot(file, false);
+            Orchestrate unnamed = new Orchestrate();
+            unnamed.loadSnapshot(file);
+            actual.reset();
+            unnamed.exportModel(actual);
+            String expectedUnnamed = expected.toString(StandardCharsets.UTF_8)
+                    .replace(" x", " NumVar_0").replace(" b", " BoolVar_2").replace("c1:", "Constraint_0:");
+            assertEquals(expectedUnnamed, actual.toString(StandardCharsets.UTF_8));
+
+            Files.writeString(file, "Minimize\n obj: x\nEnd\n");
+            assertThrows(OrchException.class, () -> new Orchestrate().loadSnapshot(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests writing and reading gzip-compressed model and solution files.
+     * Verifies that a name ending with .gz writes a compressed file whose format follows the extension before it,
+     * that compressed models read back to the same model, and that compressed solution files are imported both
+     * as a stream and through the mapped reader.
+     */
+    @Test
+    void compressedModelAndSolution() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        NumVar y = orchestrate.numVar("y");
+        for (int i = 0; i < 5000; i++) {
+            orchestrate.addLe(orchestrate.sum(orchestrate.prod(i, x), y), orchestrate.constant(i + 3.0));
+        }
+        orchestrate.addMaximize(orchestrate.sum(x, y));
+
+        for (ModelFormat format : ModelFormat.values()) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            orchestrate.exportModel(expected, format);
+            Path file = Files.createTempFile("orchestrate", format.getExtension() + ".GZ");
+            try {
+                orchestrate.exportModel(file.toString());
+                assertEquals(format, ModelFormat.fromFileName(file.toString()));
+                byte[] compressed = Files.readAllBytes(file);
+                assertEquals((byte) 0x1f, compressed[0]);
+                assertEquals((byte) 0x8b, compressed[1]);
+                assertTrue(compressed.length < expected.size() / 4);
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                    assertEquals(expected.toString(StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                Orchestrate imported = new Orchestrate();
+                imported.importModel(file);
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                imported.exportModel(actual, format);
+                assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        Path solution = Files.createTempFile("orchestrate", ".sol.gz");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(solution))) {
+                out.write("Model status\nOptimal\n\n# Primal solution values\nFeasible\nObjective 3\n# Columns 2\nx 0\ny 3\n"
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            orchestrate.importSol(solution.toString());
+            assertEquals(3.0, orchestrate.getValue(y), 1e-9);
+            orchestrate.importSol(solution.toString(), ForkJoinPool.commonPool());
+            assertEquals(3.0, orchestrate.getObjValue(), 1e-9);
+        } finally {
+            Files.delete(solution);
+        }
+    }
+
+    /**
+     * Tests exporting a model in LP format with the constraints formatted in parallel.
+     * Verifies that the file is byte-identical to the sequential export, to a stream as well as to a file, for a
+     * model spanning several chunks with named, unnamed and removed constraints and a name longer than a buffer.
+     */
+    @Test
+    void exportModelInParallel() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        Random random = new Random(7);
+        NumVar[] vars = new NumVar[1000];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = orchestrate.numVar("x" + i);
+        }
+        vars[17].setName("v".repeat(70000));
+        List<Constraint> added = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            NumExpr lhs = orchestrate.constant(0);
+            for (int k = 0; k < 1 + random.nextInt(12); k++) {
+                lhs = orchestrate.sum(lhs, orchestrate.prod(random.nextInt(200) / 8.0 - 12, vars[random.nextInt(vars.length)]));
+            }
+            Constraint constraint = i % 3 == 0
+                    ? orchestrate.addLe(lhs, orchestrate.constant(random.nextDouble()))
+                    : orchestrate.addGe(lhs, orchestrate.constant(-random.nextInt(50)));
+            if (i % 5 == 0) {
+                constraint.setName("row" + i);
+            }
+            added.add(constraint);
+        }
+        orchestrate.remove(added.get(20000));
+        orchestrate.addMinimize(orchestrate.sum(vars));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        orchestrate.exportModel(expected);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            orchestrate.setExportPool(pool);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            orchestrate.exportModel(actual);
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+            Path file = Files.createTempFile("orchestrate", ".lp");
+            try {
+                orchestrate.exportModel(file.toString());
+                assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+            } finally {
+                Files.delete(file);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that generated names are numbered per model.
+     * Verifies that two models built the same way generate the same names.
+     */
+    @Test
+    void generatedNamesPerModel() {
+        for (int i = 0; i < 2; i++) {
+            Orchestrate orchestrate = new Orchestrate();
+            NumVar x = orchestrate.numVar("x");
+            NumExpr first = orchestrate.sum(x, orchestrate.constant(1.0));
+            NumExpr second = orchestrate.prod(2.0, x);
+            Objective objective = orchestrate.addMinimize(second);
+            assertEquals("SumExpr_0", first.getName());
+            assertEquals("NumExpr_1", second.getName());
+            assertEquals("Objective_0", objective.getName());
+        }
+    }
+
     /**
      * Tests the overloaded add method with a variable.
      * Verifies that variables can be added to the model.
@@ -622,6 +1253,11 @@ class OrchestrateTest {
         // This is a simplified version
         orchestrate.remove(constraint);
         // Verify model state after removal
+        assertThrows(OrchException.class, () -> orchestrate.getDual(constraint));
+        orchestrate.addMaximize(x);
+        orchestrate.addLe(x, orchestrate.constant(20));
+        orchestrate.solve();
+        assertEquals(20.0, orchestrate.getValue(x), 0.01);
     }
 
     /**
@@ -637,6 +1273,9 @@ class OrchestrateTest {
         // This is a simplified version
         orchestrate.remove(x);
         // Verify model state after removal
+        orchestrate.addMaximize(x);
+        orchestrate.solve();
+        assertEquals(0.0, orchestrate.getValue(x), 0.01);
     }
 
     /**
@@ -655,6 +1294,472 @@ class OrchestrateTest {
         // This would require an actual solution file to test against
     }
 
+    /**
+     * Tests importing a solution file with primal values, dual values and a basis.
+     * Verifies that names are resolved regardless of the order in which HiGHS lists the columns.
+     */
+    @Test
+    void importSolWithDuals() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        NumVar y = orchestrate.numVar("y");
+        Constraint capacity = orchestrate.addLe(orchestrate.sum(x, y), orchestrate.constant(3.0));
+        Constraint bound = orchestrate.addGe(y, orchestrate.constant(1.0));
+        bound.setName("bound");
+
+        Path file = Files.createTempFile("orchestrate", ".sol");
+        Files.writeString(file, """
+                Model status
+                Optimal
+
+                # Primal solution values
+                Feasible
+                Objective 7
+                # Columns 2
+                y 1
+                x 2
+                # Rows 2
+                Constraint_0 3
+                bound 1
+
+                # Dual solution values
+                Feasible
+                # Columns 2
+                y 0
+                x 0.5
+                # Rows 2
+                Constraint_0 -1.5
+                bound 0
+
+                # Basis
+                HiGHS v1
+                Valid
+                # Columns 2
+                1 0
+                # Rows 2
+                2 1
+                """);
+        try {
+            orchestrate.importSol(file.toString());
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(Orchestrate.Status.Optimal, orchestrate.getStatus());
+        assertEquals(7.0, orchestrate.getObjValue());
+        assertEquals(2.0, orchestrate.getValue(x));
+        assertEquals(1.0, orchestrate.getValue(y));
+        assertEquals(3.0, orchestrate.getActivity(capacity));
+        assertEquals(-1.5, orchestrate.getDual(capacity));
+        assertEquals(0.0, orchestrate.getDual(bound));
+        assertEquals(0.5, orchestrate.getReducedCost(x));
+        assertEquals(Orchestrate.BasisStatus.AtLower, orchestrate.getBasisStatus(x));
+        assertEquals(Orchestrate.BasisStatus.Basic, orchestrate.getBasisStatus(y));
+        assertEquals(Orchestrate.BasisStatus.AtUpper, orchestrate.getBasisStatus(capacity));
+
+        Orchestrate other = new Orchestrate();
+        Constraint foreign = other.addLe(other.numVar("x"), other.constant(1));
+        assertThrows(OrchException.class, () -> orchestrate.getActivity(foreign));
+        Constraint added = orchestrate.addLe(x, orchestrate.constant(5));
+        assertThrows(OrchException.class, () -> orchestrate.getActivity(added));
+        assertThrows(OrchException.class, () -> orchestrate.getDual(added));
+        assertThrows(OrchException.class, () -> orchestrate.getBasisStatus(added));
+    }
+
+    /**
+     * Tests importing a large solution file by memory-mapping it and parsing it in parallel.
+     * Verifies that every value ends up at the right variable and that the basis follows the order of the file.
+     */
+    @Test
+    void importSolMapped() throws IOException {
+        int n = 150000;
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar[] vars = new NumVar[n];
+        for (int i = 0; i < n; i++) {
+            vars[i] = orchestrate.numVar("v" + i);
+        }
+        StringBuilder primal = new StringBuilder();
+        StringBuilder dual = new StringBuilder();
+        StringBuilder basis = new StringBuilder();
+        for (int i = n - 1; i >= 0; i--) {
+            primal.append('v').append(i).append(' ').append(i * 0.5).append('\n');
+            dual.append('v').append(i).append(' ').append(-i).append('\n');
+            basis.append(i % 2).append(' ');
+        }
+        Path file = Files.createTempFile("orchestrate", ".sol");
+        Files.writeString(file, "Model status\nOptimal\n\n# Primal solution values\nFeasible\nObjective 12.5\n# Columns " + n + "\n" + primal
+                + "# Rows 0\n\n# Dual solution values\nFeasible\n# Columns " + n + "\n" + dual
+                + "# Rows 0\n\n# Basis\nHiGHS v1\nValid\n# Columns " + n + "\n" + basis + "\n# Rows 0\n\n");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            orchestrate.importSol(file.toString(), pool);
+        } finally {
+            pool.shutdown();
+            Files.delete(file);
+        }
+        assertEquals(12.5, orchestrate.getObjValue());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i * 0.5, orchestrate.getValue(vars[i]));
+            assertEquals(-i, orchestrate.getReducedCost(vars[i]), 0.0);
+            Orchestrate.BasisStatus expected = i % 2 == 0 ? Orchestrate.BasisStatus.AtLower : Orchestrate.BasisStatus.Basic;
+            assertEquals(expected, orchestrate.getBasisStatus(vars[i]));
+        }
+    }
+
+    /**
+     * Tests running an external process that writes a lot to both output streams.
+     * Verifies that the process does not block on a full pipe and that its output can be redirected to files.
+     */
+    @Test
+    void externalSolverDrainsBothStreams() throws IOException, InterruptedException {
+        List<String> command = List.of("sh", "-c", "head -c 1000000 /dev/zero | tr '\\0' 'e' >&2; head -c 1000000 /dev/zero | tr '\\0' 'o'; exit 3");
+        Path stdout = Files.createTempFile("orchestrate", ".out");
+        Path stderr = Files.createTempFile("orchestrate", ".err");
+        try {
+            ExternalSolver solver = new ExternalSolver(command, LoggerFactory.getLogger(OrchestrateTest.class), stdout.toFile(), stderr.toFile(), Duration.ofSeconds(30));
+            assertEquals(3, solver.run());
+            assertEquals(1000000, Files.size(stdout));
+            assertEquals(1000000, Files.size(stderr));
+        } finally {
+            Files.delete(stdout);
+            Files.delete(stderr);
+        }
+    }
+
+    /**
+     * Tests the time limit of an external process.
+     * Verifies that a process exceeding the limit is killed and an exception is thrown.
+     */
+    @Test
+    void externalSolverTimeout() {
+        ExternalSolver solver = new ExternalSolver(List.of("sleep", "30"), LoggerFactory.getLogger(OrchestrateTest.class), null, null, Duration.ofMillis(200));
+        long start = System.nanoTime();
+        assertThrows(OrchException.class, solver::run);
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
+
+    /**
+     * Tests streaming data to and from an external process through named pipes.
+     * Verifies that the data written to one pipe is read back from the other, and that a pipe the process
+     * never opens does not block its background thread.
+     */
+    @Test
+    void namedPipes() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("orchestrate");
+        try {
+            byte[] data = new byte[1 << 20];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) ('a' + i % 26);
+            }
+            NamedPipe in = NamedPipe.create(directory.resolve("in"));
+            NamedPipe out = NamedPipe.create(directory.resolve("out"));
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            in.start("test-writer", path -> Files.write(path, data));
+            out.start("test-reader", path -> received.write(Files.readAllBytes(path)));
+            ExternalSolver copy = new ExternalSolver(List.of("sh", "-c", "cat \"$0\" > \"$1\"", directory.resolve("in").toString(), directory.resolve("out").toString()),
+                    LoggerFactory.getLogger(OrchestrateTest.class), null, null, Duration.ofSeconds(30));
+            assertEquals(0, copy.run());
+            in.release();
+            out.release();
+            assertNull(in.join());
+            assertNull(out.join());
+            assertTrue(Arrays.equals(data, received.toByteArray()));
+
+            NamedPipe unused = NamedPipe.create(directory.resolve("unused"));
+            ByteArrayOutputStream nothing = new ByteArrayOutputStream();
+            unused.start("test-reader", path -> nothing.write(Files.readAllBytes(path)));
+            ExternalSolver exit = new ExternalSolver(List.of("true"), LoggerFactory.getLogger(OrchestrateTest.class), null, null, Duration.ofSeconds(30));
+            assertEquals(0, exit.run());
+            unused.release();
+            assertNull(unused.join());
+            assertEquals(0, nothing.size());
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Tests solving a model asynchronously.
+     * Verifies that the future completes with the status, objective value and solution of the model.
+     */
+    @Test
+    void solveAsync() throws Exception {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar("x");
+        NumVar y = orchestrate.numVar("y");
+        Constraint c1 = orchestrate.addLe(orchestrate.sum(x, orchestrate.prod(2, y)), orchestrate.constant(14));
+        orchestrate.addGe(orchestrate.sum(orchestrate.prod(3, x), orchestrate.prod(-1, y)), orchestrate.constant(0));
+        orchestrate.addLe(orchestrate.sum(x, orchestrate.prod(-1, y)), orchestrate.constant(2));
+        orchestrate.addMaximize(orchestrate.sum(orchestrate.prod(3, x), orchestrate.prod(4, y)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            SolveResult result = orchestrate.solveAsync(executor).get(30, TimeUnit.SECONDS);
+            assertEquals(Orchestrate.Status.Optimal, result.getStatus());
+            assertEquals(6.0, result.getValue(x), 0.01);
+            assertEquals(4.0, result.getValue(y), 0.01);
+            assertEquals(14.0, result.getActivity(c1), 0.01);
+            assertEquals(34.0, result.getObjValue(), 0.01);
+            assertEquals(34.0, orchestrate.getObjValue(), 0.01);
+            assertThrows(OrchException.class, () -> result.getDual(c1));
+            assertThrows(OrchException.class, () -> result.getValue(new Orchestrate().numVar("w")));
+            NumVar added = orchestrate.numVar("z");
+            assertThrows(OrchException.class, () -> result.getValue(added));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests cancelling an asynchronous solve.
+     * Verifies that the thread running the solve is interrupted, which kills an external process, and that the
+     * interrupt does not leak into the next task of the thread.
+     */
+    @Test
+    void solveAsyncCancel() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch finished = new CountDownLatch(1);
+            CompletableFuture<SolveResult> future = AsyncSolve.submit(executor, () -> {
+                started.countDown();
+                try {
+                    new ExternalSolver(List.of("sleep", "30"), LoggerFactory.getLogger(OrchestrateTest.class), null, null, null).run();
+                    return null;
+                } catch (IOException | InterruptedException e) {
+                    throw new OrchException("Interrupted", e);
+                } finally {
+                    finished.countDown();
+                }
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertTrue(future.cancel(true));
+            assertTrue(finished.await(10, TimeUnit.SECONDS));
+            assertTrue(future.isCancelled());
+            assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests re-solving a model after changing it.
+     * Verifies that added constraints and variables, a replaced objective and changed bounds are all taken into
+     * account by the next solve.
+     */
+    @Test
+    void resolveAfterChanges() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar(0, 10, "x");
+        NumVar y = orchestrate.numVar(0, 10, "y");
+        orchestrate.addLe(orchestrate.sum(x, y), orchestrate.constant(12));
+        orchestrate.addMaximize(orchestrate.sum(orchestrate.prod(2, x), y));
+        orchestrate.solve();
+        assertEquals(22.0, orchestrate.getObjValue(), 0.01);
+
+        orchestrate.addLe(x, orchestrate.constant(4));
+        orchestrate.solve();
+        assertEquals(16.0, orchestrate.getObjValue(), 0.01);
+        assertEquals(8.0, orchestrate.getValue(y), 0.01);
+
+        NumVar z = orchestrate.numVar(0, 3, "z");
+        orchestrate.addMaximize(orchestrate.sum(orchestrate.sum(orchestrate.prod(2, x), y), orchestrate.prod(5, z)));
+        orchestrate.solve();
+        assertEquals(31.0, orchestrate.getObjValue(), 0.01);
+
+        orchestrate.addMinimize(x);
+        orchestrate.solve();
+        assertEquals(0.0, orchestrate.getObjValue(), 0.01);
+
+        x.setLB(1);
+        orchestrate.solve();
+        assertEquals(1.0, orchestrate.getObjValue(), 0.01);
+
+        orchestrate.discardSolver();
+        orchestrate.solve();
+        assertEquals(1.0, orchestrate.getValue(x), 0.01);
+    }
+
+    /**
+     * Tests removing and re-adding constraints between solves.
+     * Verifies that removed constraints no longer restrict the model, that the remaining constraints keep their
+     * solution values through the constraint objects, and that a removed constraint can be added again.
+     */
+    @Test
+    void removeAndAddConstraints() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar(0, 10, "x");
+        NumVar y = orchestrate.numVar(0, 10, "y");
+        orchestrate.addMaximize(orchestrate.sum(x, y));
+        Constraint[] cuts = new Constraint[5];
+        for (int i = 0; i < cuts.length; i++) {
+            cuts[i] = orchestrate.addLe(x, orchestrate.constant(1 + i));
+        }
+        Constraint sum = orchestrate.addLe(orchestrate.sum(x, y), orchestrate.constant(8));
+        SolveResult before = orchestrate.solveAsync(Runnable::run).join();
+        assertEquals(1.0, orchestrate.getValue(x), 0.01);
+        assertEquals(8.0, orchestrate.getActivity(sum), 0.01);
+
+        orchestrate.remove(new Fragment[]{cuts[0], cuts[1], cuts[2]});
+        orchestrate.remove(cuts[0]);
+        assertEquals(8.0, orchestrate.getActivity(sum), 0.01);
+        assertEquals(1.0, orchestrate.getActivity(cuts[3]), 0.01);
+        assertThrows(OrchException.class, () -> orchestrate.getActivity(cuts[0]));
+
+        orchestrate.solve();
+        assertEquals(4.0, orchestrate.getValue(x), 0.01);
+        assertEquals(8.0, orchestrate.getActivity(sum), 0.01);
+        assertEquals("Constraint_3", cuts[3].getName());
+        assertEquals(1.0, before.getActivity(cuts[0]), 0.01);
+        assertEquals(1.0, before.getActivity(cuts[3]), 0.01);
+        assertEquals(8.0, before.getActivity(sum), 0.01);
+
+        assertEquals("Constraint_1", cuts[1].getName());
+        orchestrate.add(cuts[1]);
+        orchestrate.add(cuts[1]);
+        orchestrate.solve();
+        assertEquals(2.0, orchestrate.getValue(x), 0.01);
+        assertEquals(2.0, orchestrate.getActivity(cuts[1]), 0.01);
+        assertEquals("Constraint_1", cuts[1].getName());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orchestrate.exportModel(out);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("""
+                Subject To
+                 Constraint_3: 1 x <= 4
+                 Constraint_4: 1 x <= 5
+                 Constraint_5: 1 x + 1 y <= 8
+                 Constraint_1: 1 x <= 2
+                Bounds
+                """));
+
+        orchestrate.remove(y);
+        orchestrate.solve();
+        assertEquals(2.0, orchestrate.getObjValue(), 0.01);
+        orchestrate.add(y);
+        orchestrate.solve();
+        assertEquals(8.0, orchestrate.getObjValue(), 0.01);
+        assertThrows(OrchException.class, () -> orchestrate.remove(new Orchestrate().numVar("z")));
+
+        // A cutting-plane round: a cut is added after a solve and an old row is removed before the next solve
+        Orchestrate cutting = new Orchestrate();
+        NumVar u = cutting.numVar(0, 10, "u");
+        NumVar v = cutting.numVar(0, 10, "v");
+        cutting.addMaximize(cutting.sum(u, v));
+        Constraint old = cutting.addLe(u, cutting.constant(6));
+        Constraint total = cutting.addLe(cutting.sum(u, v), cutting.constant(9));
+        cutting.solve();
+        Constraint cut = cutting.addLe(v, cutting.constant(2));
+        cutting.remove(old);
+        assertEquals(9.0, cutting.getActivity(total), 0.01);
+        cutting.solve();
+        assertEquals(9.0, cutting.getObjValue(), 0.01);
+        assertEquals(2.0, cutting.getActivity(cut), 0.01);
+        assertEquals(7.0, cutting.getValue(u), 0.01);
+    }
+
+    /**
+     * Tests solving and exporting a model with presolve enabled.
+     * Verifies that singleton rows become bounds, fixed variables are substituted, empty and duplicate rows are
+     * dropped, and that values and activities are still available for the original variables and constraints.
+     */
+    @Test
+    void presolve() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar(0, 10, "x");
+        NumVar y = orchestrate.numVar(0, 10, "y");
+        NumVar z = orchestrate.numVar(2, 2, "z");
+        orchestrate.addLe(x, orchestrate.constant(4));
+        orchestrate.addLe(orchestrate.sum(x, y), orchestrate.constant(8));
+        orchestrate.addLe(orchestrate.sum(y, x), orchestrate.constant(9));
+        orchestrate.addGe(z, orchestrate.constant(1));
+        Constraint yz = orchestrate.addLe(orchestrate.sum(y, z), orchestrate.constant(7));
+        orchestrate.addMaximize(orchestrate.sum(orchestrate.sum(orchestrate.prod(3, x), orchestrate.prod(2, y)), z));
+        orchestrate.setPresolve(true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orchestrate.exportModel(out);
+        assertEquals("Maximize\n obj: 3 x + 2 y + 2\nSubject To\n Constraint_1: 1 x + 1 y <= 8\nBounds\n x <= 4\n y <= 5\nEnd\n",
+                out.toString(StandardCharsets.UTF_8));
+
+        orchestrate.solve();
+        assertEquals(Orchestrate.Status.Optimal, orchestrate.getStatus());
+        assertEquals(4.0, orchestrate.getValue(x), 0.01);
+        assertEquals(4.0, orchestrate.getValue(y), 0.01);
+        assertEquals(2.0, orchestrate.getValue(z), 0.01);
+        assertEquals(22.0, orchestrate.getObjValue(), 0.01);
+        assertEquals(6.0, orchestrate.getActivity(yz), 0.01);
+        assertThrows(OrchException.class, () -> orchestrate.getDual(yz));
+
+        orchestrate.addGe(x, orchestrate.constant(5));
+        assertThrows(OrchException.class, orchestrate::solve);
+        assertEquals(Orchestrate.Status.Infeasible, orchestrate.getStatus());
+    }
+
+    /**
+     * Tests normalizing constraints in parallel.
+     * Verifies that a model built with a normalization pool is exported exactly like the same model built without one,
+     * also when constraints are removed while others are still pending.
+     */
+    @Test
+    void parallelNormalization() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String[] exports = new String[2];
+            for (int run = 0; run < 2; run++) {
+                Orchestrate orchestrate = new Orchestrate();
+                if (run == 1) {
+                    orchestrate.setNormalizationPool(pool);
+                }
+                NumVar[] x = new NumVar[100];
+                for (int j = 0; j < x.length; j++) {
+                    x[j] = orchestrate.numVar(0, 10, "x" + j);
+                }
+                Random random = new Random(7);
+                Constraint removed = null;
+                for (int i = 0; i < 3 * RowNormalizer.CHUNK_SIZE + 17; i++) {
+                    NumExpr lhs = orchestrate.sum(orchestrate.prod(random.nextInt(9) + 1, x[random.nextInt(x.length)]), x[random.nextInt(x.length)]);
+                    NumExpr rhs = orchestrate.sum(orchestrate.prod(2, x[random.nextInt(x.length)]), orchestrate.constant(random.nextInt(20)));
+                    Constraint constraint = i % 3 == 0 ? orchestrate.addLe(lhs, rhs) : i % 3 == 1 ? orchestrate.addGe(lhs, rhs) : orchestrate.addEq(lhs, rhs);
+                    if (i == 5000) {
+                        removed = constraint;
+                    }
+                }
+                assertEquals("Constraint_5000", removed.getName());
+                orchestrate.remove(removed);
+                orchestrate.addLe(x[0], orchestrate.constant(3));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                orchestrate.exportModel(out);
+                exports[run] = out.toString(StandardCharsets.UTF_8);
+            }
+            assertEquals(exports[0], exports[1]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests importing a solution file of an infeasible model.
+     * Verifies that the status is set and an exception is thrown.
+     */
+    @Test
+    void importSolInfeasible() throws IOException {
+        Orchestrate orchestrate = new Orchestrate();
+        orchestrate.numVar("x");
+        Path file = Files.createTempFile("orchestrate", ".sol");
+        Files.writeString(file, "Model status\nInfeasible\n\n# Primal solution values\nNone\n");
+        try {
+            assertThrows(OrchException.class, () -> orchestrate.importSol(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(Orchestrate.Status.Infeasible, orchestrate.getStatus());
+    }
+
     /**
      * Tests the boolVar method for creating boolean variables.
      * Verifies that a boolean variable is created with the correct bounds (0-1).
@@ -937,6 +2042,38 @@ class OrchestrateTest {
         assertEquals(10.0, orchestrate.getValue(x), 0.001);
     }
 
+    /**
+     * Tests the bulk getValues methods for retrieving the solution values of several variables.
+     * Verifies that the values are returned in the order of the given variables, and that variables of another model
+     * or added after the solve are rejected.
+     */
+    @Test
+    void getValues() {
+        Orchestrate orchestrate = new Orchestrate();
+        NumVar x = orchestrate.numVar(0, 10, "x");
+        IntVar y = orchestrate.intVar(0, 4, "y");
+        IntVar z = orchestrate.intVar(0, 2, "z");
+        assertThrows(OrchException.class, () -> orchestrate.getValue(x));
+
+        orchestrate.addMaximize(orchestrate.sum(new NumVar[]{x, y, z}));
+        orchestrate.solve();
+
+        double[] values = orchestrate.getValues(new NumVar[]{z, x, y});
+        assertEquals(2.0, values[0], 0.001);
+        assertEquals(10.0, values[1], 0.001);
+        assertEquals(4.0, values[2], 0.001);
+        int[] intValues = orchestrate.getValues(new IntVar[]{y, z}, new int[2]);
+        assertEquals(4, intValues[0]);
+        assertEquals(2, intValues[1]);
+
+        NumVar foreign = new Orchestrate().numVar(0, 1, "w");
+        assertThrows(OrchException.class, () -> orchestrate.getValue(foreign));
+        assertThrows(OrchException.class, () -> orchestrate.getValues(new NumVar[]{x, foreign}));
+        IntVar added = orchestrate.intVar(0, 1, "a");
+        assertThrows(OrchException.class, () -> orchestrate.getValue(added));
+        assertThrows(OrchException.class, () -> orchestrate.getValues(new IntVar[]{y, added}, new int[2]));
+    }
+
     /**
      * Tests the getObjValue method for retrieving the objective value of a solved model.
      * Verifies that the correct objective value is returned.